@@ -0,0 +1,17 @@
+package com.wealthmanager.backend.ai;
+
+/**
+ * Thrown by a {@link TransactionParser} when the backing model cannot be reached (circuit open,
+ * deadline exceeded, connection refused). Callers should defer the message rather than treat it
+ * as "no transaction".
+ */
+public class ParserUnavailableException extends RuntimeException {
+
+    public ParserUnavailableException(String message) {
+        super(message);
+    }
+
+    public ParserUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,262 @@
+package com.wealthmanager.backend.ai;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces long email bodies to the parts that carry transaction signal before they are sent to the LLM.
+ * <p>
+ * The text is split into lines/sentences, each scored for financial signal (amounts, account masks,
+ * transaction verbs). Signal segments are kept together with a small window of neighbours, known
+ * boilerplate (disclaimers, "do not reply" footers) is dropped, and segments that keep recurring in
+ * mail from the same sender without any signal are learned as that sender's boilerplate. Segments with
+ * digits are never learned or dropped as learned boilerplate (with digits folded, "Txn Date: 14-02-2026"
+ * looks the same in every mail), and segments carrying a date or a reference/UTR number are always kept.
+ * Short texts such as SMS are passed through unchanged.
+ */
+@Component
+@Slf4j
+public class PromptCompactor {
+
+    private static final Pattern SENTENCE_SPLIT = Pattern.compile("(?<=[.!?\\]])\\s+(?=[A-Z\\[])|\\s{2,}|\\s+\\|\\s+");
+    private static final Pattern AMOUNT = Pattern.compile(
+            "(?i)(?:rs\\.?|inr|₹|usd|\\$)\\s*[\\d,]+(?:\\.\\d{1,2})?|\\b\\d{1,3}(?:,\\d{2,3})+(?:\\.\\d{1,2})?\\b|\\b\\d+\\.\\d{2}\\b");
+    private static final Pattern ACCOUNT_MASK = Pattern.compile(
+            "(?i)\\b(?:a/?c|acct|account|card)\\b.{0,12}?[x*]+\\d{3,6}|\\b[x*]{2,}\\d{3,6}\\b");
+    private static final Pattern DATE = Pattern.compile(
+            "\\b\\d{1,2}[-/.](?:\\d{1,2}|[A-Za-z]{3})[-/.]\\d{2,4}\\b|\\b\\d{4}-\\d{2}-\\d{2}\\b");
+    private static final Pattern REFERENCE = Pattern.compile(
+            "(?i)\\b(?:ref(?:erence)?|utr|rrn|txn|transaction\\s+id)\\b.*\\d");
+    private static final String[] VERBS = {
+            "debited", "credited", "spent", "paid", "withdrawn", "deposited", "transferred", "received",
+            "refund", "purchase", "upi", "neft", "imps", "rtgs", "sip", "redeemed", "allotted", "units"
+    };
+    private static final String[] BOILERPLATE = {
+            "do not reply", "don't reply", "system generated", "system-generated", "disclaimer", "confidential",
+            "intended recipient", "privacy policy", "terms and conditions", "unsubscribe", "customer care",
+            "never ask for your", "download our app", "follow us", "all rights reserved", "copyright"
+    };
+
+    private final boolean enabled;
+    private final int minLength;
+    private final int maxChars;
+    private final int window;
+    private final int boilerplateMinOccurrences;
+    private final int maxSenders;
+
+    /** sender -> (segment fingerprint -> times seen without signal) */
+    private final Map<String, Map<Long, Integer>> senderBoilerplate = new ConcurrentHashMap<>();
+
+    private final LongAdder compactedMessages = new LongAdder();
+    private final LongAdder charsIn = new LongAdder();
+    private final LongAdder charsOut = new LongAdder();
+
+    public PromptCompactor(@Value("${app.ai.compaction.enabled:true}") boolean enabled,
+                           @Value("${app.ai.compaction.min-length:400}") int minLength,
+                           @Value("${app.ai.compaction.max-chars:2000}") int maxChars,
+                           @Value("${app.ai.compaction.window:1}") int window,
+                           @Value("${app.ai.compaction.boilerplate-min-occurrences:2}") int boilerplateMinOccurrences,
+                           @Value("${app.ai.compaction.max-senders:1000}") int maxSenders) {
+        this.enabled = enabled;
+        this.minLength = minLength;
+        this.maxChars = maxChars;
+        this.window = window;
+        this.boilerplateMinOccurrences = boilerplateMinOccurrences;
+        this.maxSenders = maxSenders;
+    }
+
+    /**
+     * @param sender  sender address or header (used to learn per-sender boilerplate); may be null
+     * @param rawText composite body as stored in raw_ingestion
+     * @return the text to put into the prompt
+     */
+    public String compact(String sender, String rawText) {
+        if (!enabled || rawText == null || rawText.length() < minLength) {
+            return rawText;
+        }
+
+        List<String> segments = split(rawText);
+        int n = segments.size();
+        boolean[] signal = new boolean[n];
+        boolean[] boilerplate = new boolean[n];
+        boolean[] hasDigits = new boolean[n];
+        boolean[] alwaysKeep = new boolean[n];
+        long[] fingerprints = new long[n];
+        String key = senderKey(sender);
+        Map<Long, Integer> learned = key != null ? senderBoilerplate.getOrDefault(key, Map.of()) : Map.of();
+
+        boolean anySignal = false;
+        for (int i = 0; i < n; i++) {
+            String seg = segments.get(i);
+            String lower = seg.toLowerCase(Locale.ROOT);
+            fingerprints[i] = fingerprint(lower);
+            signal[i] = i == 0 && seg.startsWith("[Subject:") || score(seg, lower) >= 2;
+            hasDigits[i] = containsDigit(seg);
+            alwaysKeep[i] = DATE.matcher(seg).find() || REFERENCE.matcher(seg).find();
+            boilerplate[i] = !signal[i] && !alwaysKeep[i] && (isKnownBoilerplate(lower)
+                    || (!hasDigits[i] && learned.getOrDefault(fingerprints[i], 0) >= boilerplateMinOccurrences));
+            anySignal |= signal[i] && i > 0;
+        }
+
+        StringBuilder out = new StringBuilder(Math.min(rawText.length(), maxChars + 64));
+        if (anySignal) {
+            boolean[] keep = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                if (!signal[i]) {
+                    continue;
+                }
+                for (int j = Math.max(0, i - window); j <= Math.min(n - 1, i + window); j++) {
+                    keep[j] |= !boilerplate[j];
+                }
+                keep[i] = true;
+            }
+            for (int i = 0; i < n; i++) {
+                keep[i] |= alwaysKeep[i];
+            }
+            appendKept(out, segments, keep);
+        } else {
+            // Nothing recognisable: send the non-boilerplate text and let the model decide
+            boolean[] keep = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                keep[i] = !boilerplate[i];
+            }
+            appendKept(out, segments, keep);
+        }
+
+        learn(key, fingerprints, signal, hasDigits);
+
+        String compacted = out.toString();
+        compactedMessages.increment();
+        charsIn.add(rawText.length());
+        charsOut.add(compacted.length());
+        log.debug("Compacted prompt text {} -> {} chars (~{} tokens saved)",
+                rawText.length(), compacted.length(), estimateTokens(rawText.length() - compacted.length()));
+        return compacted;
+    }
+
+    public Map<String, Object> stats() {
+        long in = charsIn.sum();
+        long outChars = charsOut.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", enabled);
+        m.put("compactedMessages", compactedMessages.sum());
+        m.put("estimatedTokensIn", estimateTokens(in));
+        m.put("estimatedTokensOut", estimateTokens(outChars));
+        m.put("estimatedTokensSaved", estimateTokens(in - outChars));
+        m.put("reductionRatio", in == 0 ? 0.0 : 1.0 - (double) outChars / in);
+        m.put("learnedSenders", senderBoilerplate.size());
+        return m;
+    }
+
+    private void appendKept(StringBuilder out, List<String> segments, boolean[] keep) {
+        for (int i = 0; i < segments.size() && out.length() < maxChars; i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            if (!out.isEmpty()) {
+                out.append('\n');
+            }
+            String seg = segments.get(i);
+            out.append(seg, 0, Math.min(seg.length(), maxChars - Math.min(out.length(), maxChars)));
+        }
+    }
+
+    private List<String> split(String text) {
+        List<String> segments = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            for (String s : SENTENCE_SPLIT.split(line)) {
+                String t = s.strip();
+                if (!t.isEmpty()) {
+                    segments.add(t);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private int score(String seg, String lower) {
+        int score = 0;
+        if (AMOUNT.matcher(seg).find()) {
+            score += 2;
+        }
+        if (ACCOUNT_MASK.matcher(seg).find()) {
+            score += 2;
+        }
+        for (String verb : VERBS) {
+            if (lower.contains(verb)) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    private static boolean containsDigit(String seg) {
+        for (int i = 0; i < seg.length(); i++) {
+            if (Character.isDigit(seg.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isKnownBoilerplate(String lower) {
+        for (String phrase : BOILERPLATE) {
+            if (lower.contains(phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void learn(String key, long[] fingerprints, boolean[] signal, boolean[] hasDigits) {
+        if (key == null || (!senderBoilerplate.containsKey(key) && senderBoilerplate.size() >= maxSenders)) {
+            return;
+        }
+        Map<Long, Integer> seen = senderBoilerplate.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (!signal[i] && !hasDigits[i] && seen.size() < 2_000) {
+                seen.merge(fingerprints[i], 1, Integer::sum);
+            }
+        }
+    }
+
+    /** Email address inside "Name &lt;addr&gt;" (lower-cased), or the raw sender. */
+    private String senderKey(String sender) {
+        if (sender == null || sender.isBlank()) {
+            return null;
+        }
+        int lt = sender.indexOf('<');
+        int gt = sender.indexOf('>', lt + 1);
+        String addr = lt >= 0 && gt > lt ? sender.substring(lt + 1, gt) : sender;
+        return addr.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** FNV-1a over the segment with digits folded, so "ref 123" and "ref 456" share a fingerprint. */
+    private long fingerprint(String lower) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isDigit(c)) {
+                c = '#';
+            }
+            h ^= c;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Rough token estimate (~4 characters per token for English text). */
+    private static long estimateTokens(long chars) {
+        return Math.max(0, chars) / 4;
+    }
+}
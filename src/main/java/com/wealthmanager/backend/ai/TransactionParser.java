@@ -3,6 +3,7 @@ package com.wealthmanager.backend.ai;
 import com.wealthmanager.backend.model.dto.TransactionParseResult;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Parses raw message text (SMS/email) into a structured transaction.
@@ -15,6 +16,27 @@ public interface TransactionParser {
      *
      * @param rawText Raw SMS or email body (e.g. "Rs.500 debited from A/c XX1234 to AMAZON on 14-02-2026")
      * @return Parsed transaction if the text describes one, empty otherwise
+     * @throws ParserUnavailableException if the backing model cannot be reached right now
      */
     Optional<TransactionParseResult> parse(String rawText);
+
+    /**
+     * Extract every transaction from raw text. Statements and digest messages can list several;
+     * single alerts yield at most one. The default delegates to {@link #parse(String)}.
+     *
+     * @param rawText Raw SMS or email body
+     * @return Parsed transactions in message order, empty if the text describes none
+     * @throws ParserUnavailableException if the backing model cannot be reached right now
+     */
+    default Stream<TransactionParseResult> parseAll(String rawText) {
+        return parse(rawText).stream();
+    }
+
+    /**
+     * Whether the parser can currently take work. Callers should defer messages instead of
+     * calling {@link #parse(String)} while this is false.
+     */
+    default boolean isAvailable() {
+        return true;
+    }
 }
@@ -0,0 +1,100 @@
+package com.wealthmanager.backend.ai.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker around chat model calls. After {@code failureThreshold} consecutive failures
+ * (errors or deadline overruns) the circuit opens and calls are rejected without touching the model.
+ * Once {@code openDuration} has passed a single half-open probe is let through: success closes the
+ * circuit, failure re-opens it.
+ */
+@Slf4j
+public class ChatModelCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile long openedAtNanos;
+
+    public ChatModelCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Whether a call may go to the model now. In half-open state only one caller (the probe) gets true;
+     * that caller must report the outcome via {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public boolean tryAcquire() {
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                    return false;
+                }
+                state.compareAndSet(State.OPEN, State.HALF_OPEN);
+                // fall through to compete for the probe slot
+            case HALF_OPEN:
+            default:
+                return probeInFlight.compareAndSet(false, true);
+        }
+    }
+
+    /** Side-effect free check used to decide whether queued work should be drained. */
+    public boolean isCallPermitted() {
+        State s = state.get();
+        if (s == State.CLOSED) {
+            return true;
+        }
+        if (s == State.OPEN) {
+            return System.nanoTime() - openedAtNanos >= openDurationNanos;
+        }
+        return !probeInFlight.get();
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Chat model circuit closed after successful probe");
+        }
+        probeInFlight.set(false);
+    }
+
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            openedAtNanos = System.nanoTime();
+            state.set(State.OPEN);
+            log.warn("Chat model circuit opened after {} consecutive failure(s); retrying in {} ms",
+                    failures, Duration.ofNanos(openDurationNanos).toMillis());
+        }
+        probeInFlight.set(false);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("state", state.get().name());
+        m.put("consecutiveFailures", consecutiveFailures.get());
+        m.put("failureThreshold", failureThreshold);
+        m.put("openDurationMs", Duration.ofNanos(openDurationNanos).toMillis());
+        return m;
+    }
+}
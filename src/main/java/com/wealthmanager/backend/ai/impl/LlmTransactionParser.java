@@ -1,24 +1,40 @@
 package com.wealthmanager.backend.ai.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealthmanager.backend.ai.ParserUnavailableException;
 import com.wealthmanager.backend.ai.TransactionParser;
 import com.wealthmanager.backend.model.dto.TransactionParseResult;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.converter.BeanOutputConverter;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Transaction parser using a chat model (Ollama locally; OpenAI/Azure in future).
- * Uses structured output to get JSON matching {@link TransactionParseResult}.
+ * Uses structured output to get JSON matching {@link TransactionParseResult}; the response is
+ * decoded in a single streaming pass by {@link TransactionJsonDecoder}. Models are tried in
+ * {@link ModelRouter} order, escalating only invalid or low-confidence answers.
  */
 @Component
 @ConditionalOnProperty(prefix = "app.ai", name = "enabled", havingValue = "true")
@@ -46,27 +62,144 @@ public class LlmTransactionParser implements TransactionParser {
         - description: string (optional)
         """;
 
-    private final ChatModel chatModel;
-    private final BeanOutputConverter<TransactionParseResult> outputConverter;
-    private final ObjectMapper objectMapper;
+    private static final String MULTI_SYSTEM_INSTRUCTIONS = """
+        You are a financial transaction parser. Extract EVERY transaction listed in the SMS/email statement or digest.
+        
+        CRITICAL RULES:
+        1. Respond with ONLY a JSON object of the form {"transactions":[ ... ]}. No other text, markdown or code blocks.
+        2. Each array element is a flat object with the fields: amount, currency, merchantName, category, transactionType, transactionDate, description
+        3. Do NOT include balances, credit limits, minimum amount due, reward points or totals - only individual transactions.
+        4. If the message contains no transactions, return {"transactions":[]}
+        
+        Transaction fields:
+        - amount: positive number (required)
+        - currency: string, default "INR" (optional)
+        - merchantName: string (optional)
+        - category: string (optional)
+        - transactionType: "DEBIT" or "CREDIT" (required)
+        - transactionDate: ISO-8601 format like "2026-02-14T10:30:00" (optional)
+        - description: string (optional)
+        """;
+
+    /** Currency-marked amounts; three or more suggest a statement/digest rather than a single alert. */
+    private static final Pattern AMOUNT_MARKER = Pattern.compile("(?i)(?:rs\\.?|inr|₹)\\s*\\d");
+    private static final int MULTI_MIN_AMOUNTS = 3;
+
+    private final ModelRouter modelRouter;
+    private final TransactionJsonDecoder decoder;
+    private final String systemMessage;
+    private final long callDeadlineMs;
+    /**
+     * Run each tier's model calls so a wall-clock deadline can be enforced (the HTTP read timeout resets
+     * on every byte); index-aligned with the router's tiers. Bounded, so calls that ignore the interrupt
+     * after their deadline cannot pile up threads or requests to the model server.
+     */
+    private final List<ExecutorService> callExecutors;
+
+    /** Outcome of asking one model tier. */
+    private enum Outcome { PARSED, NON_TRANSACTION, INVALID, FAILED }
+
+    private record Attempt(Outcome outcome, List<TransactionParseResult> results, double confidence) {
+        static Attempt of(Outcome outcome) {
+            return new Attempt(outcome, List.of(), 0.0);
+        }
+    }
+
+    public LlmTransactionParser(ModelRouter modelRouter,
+                                ObjectMapper objectMapper,
+                                @Value("${app.ai.call-deadline-ms:120000}") long callDeadlineMs,
+                                @Value("${app.ai.max-concurrent-calls:4}") int maxConcurrentCalls) {
+        this.modelRouter = modelRouter;
+        this.callDeadlineMs = callDeadlineMs;
+        this.callExecutors = modelRouter.getTiers().stream()
+                .map(tier -> callExecutor(tier, Math.max(1, maxConcurrentCalls)))
+                .toList();
+        this.decoder = new TransactionJsonDecoder(objectMapper.getFactory());
+        // Schema instructions never change; build the system prompt once
+        BeanOutputConverter<TransactionParseResult> outputConverter =
+                new BeanOutputConverter<>(TransactionParseResult.class, objectMapper);
+        this.systemMessage = SYSTEM_INSTRUCTIONS + "\n\n" + outputConverter.getFormat();
+    }
 
-    public LlmTransactionParser(
-            @Qualifier("ollamaChatModel") ChatModel chatModel,
-            ObjectMapper objectMapper) {
-        this.chatModel = chatModel;
-        this.objectMapper = objectMapper;
-        this.outputConverter = new BeanOutputConverter<>(TransactionParseResult.class, objectMapper);
+    /**
+     * A model's concurrent calls run on at most {@code maxConcurrentCalls} threads with as many waiting;
+     * beyond that calls are rejected, which fails the tier like any other error.
+     */
+    private static ExecutorService callExecutor(ModelTier tier, int maxConcurrentCalls) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(maxConcurrentCalls), r -> {
+            Thread t = new Thread(r, "llm-call-" + tier.getName() + "-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
+    /** Whether the final tier, whose answer decides, may be called; earlier tiers are skipped while open. */
+    @Override
+    public boolean isAvailable() {
+        List<ModelTier> tiers = modelRouter.getTiers();
+        return tiers.get(tiers.size() - 1).getCircuitBreaker().isCallPermitted();
+    }
+
+    /**
+     * @throws ParserUnavailableException if the final tier's circuit is open or it could not be reached
+     */
     @Override
     public Optional<TransactionParseResult> parse(String rawText) {
         if (rawText == null || rawText.isBlank()) {
             return Optional.empty();
         }
+        return extract(rawText, false).stream().findFirst();
+    }
+
+    /**
+     * Statements and digests (mention "statement" or carry several currency amounts) are sent with a
+     * multi-transaction prompt, so one model call returns every listed transaction; other messages
+     * take the single-transaction path.
+     *
+     * @throws ParserUnavailableException if the final tier's circuit is open or it could not be reached
+     */
+    @Override
+    public Stream<TransactionParseResult> parseAll(String rawText) {
+        if (rawText == null || rawText.isBlank()) {
+            return Stream.empty();
+        }
+        return extract(rawText, isMultiTransactionCandidate(rawText)).stream();
+    }
+
+    private boolean isMultiTransactionCandidate(String rawText) {
+        if (rawText.toLowerCase(Locale.ROOT).contains("statement")) {
+            return true;
+        }
+        Matcher m = AMOUNT_MARKER.matcher(rawText);
+        int count = 0;
+        while (count < MULTI_MIN_AMOUNTS && m.find()) {
+            count++;
+        }
+        return count >= MULTI_MIN_AMOUNTS;
+    }
 
-        String formatInstructions = outputConverter.getFormat();
-        String systemMessage = SYSTEM_INSTRUCTIONS + "\n\n" + formatInstructions;
-        String userMessage = String.format("""
+    /**
+     * Walks the model cascade: each tier but the last only answers when its result validates and
+     * passes the self-consistency check; otherwise the message escalates to the next (larger) model.
+     * A tier whose circuit is open counts as failed, so the message goes straight to the next one.
+     */
+    private List<TransactionParseResult> extract(String rawText, boolean multi) {
+        String userMessage = multi
+                ? String.format("""
+            Extract every transaction from this financial message.
+            
+            IMPORTANT: Respond with ONLY {"transactions":[...]}. No markdown, no code blocks, no explanations.
+            
+            Message to parse:
+            %s
+            
+            JSON only:
+            """, rawText.trim())
+                : String.format("""
             Parse this financial message and extract transaction details.
             
             IMPORTANT: Respond with ONLY a JSON object. No markdown, no code blocks, no CSS, no explanations.
@@ -78,188 +211,161 @@ public class LlmTransactionParser implements TransactionParser {
             JSON only:
             """, rawText.trim());
 
-        try {
-            log.info("Calling LLM for message length={}. First 200 chars: {}",
-                    rawText.length(), rawText.length() > 200 ? rawText.substring(0, 200) + "..." : rawText);
-            var prompt = new Prompt(List.of(
-                    new org.springframework.ai.chat.messages.SystemMessage(systemMessage),
-                    new org.springframework.ai.chat.messages.UserMessage(userMessage)
-            ));
-            var response = chatModel.call(prompt);
-            String content = response.getResult().getOutput().getText();
-            if (content == null || content.isBlank()) {
-                log.info("LLM returned empty response for message (length={})", rawText.length());
-                return Optional.empty();
-            }
+        log.info("Calling LLM ({}) for message length={}. First 200 chars: {}", multi ? "multi" : "single",
+                rawText.length(), rawText.length() > 200 ? rawText.substring(0, 200) + "..." : rawText);
 
-            String jsonOnly = extractJsonFromResponse(content);
-            if (jsonOnly.isBlank()) {
-                log.warn("LLM response contained no JSON object (content length={}). First 200 chars: {}",
-                        content.length(), content.length() > 200 ? content.substring(0, 200) + "..." : content);
-                return Optional.empty();
+        List<ModelTier> tiers = modelRouter.getTiers();
+        for (int i = 0; i < tiers.size(); i++) {
+            ModelTier tier = tiers.get(i);
+            Attempt attempt = attempt(tier, callExecutors.get(i),
+                    multi ? MULTI_SYSTEM_INSTRUCTIONS : systemMessage, userMessage, rawText, multi);
+            boolean lastTier = i == tiers.size() - 1;
+            if (lastTier && attempt.outcome() == Outcome.FAILED) {
+                throw new ParserUnavailableException("Chat model unavailable (tier " + tier.getName() + ")");
             }
-
-            // Validate that extracted text is actually JSON before attempting to parse
-            if (!isValidJson(jsonOnly)) {
-                log.warn("LLM response extracted text is not valid JSON (length={}). First 200 chars: {}",
-                        jsonOnly.length(), jsonOnly.length() > 200 ? jsonOnly.substring(0, 200) + "..." : jsonOnly);
-                log.warn("Full LLM response (first 500 chars): {}",
-                        content.length() > 500 ? content.substring(0, 500) + "..." : content);
-                return Optional.empty();
-            }
-
-            // Validate that JSON matches the expected schema before attempting conversion
-            if (!matchesTransactionSchema(jsonOnly)) {
-                log.warn("LLM response does not match TransactionParseResult schema (length={}). First 300 chars: {}",
-                        jsonOnly.length(), jsonOnly.length() > 300 ? jsonOnly.substring(0, 300) + "..." : jsonOnly);
-                log.warn("Full LLM response (first 500 chars): {}",
-                        content.length() > 500 ? content.substring(0, 500) + "..." : content);
-                return Optional.empty();
+            if (lastTier || isTrusted(attempt, rawText)) {
+                return attempt.results();
             }
-
-            TransactionParseResult result = outputConverter.convert(jsonOnly);
-            if (result == null || "NONE".equalsIgnoreCase(result.transactionType())) {
-                log.info("LLM parsed as non-transaction (transactionType=NONE) for message length={}", rawText.length());
-                return Optional.empty();
-            }
-            if (result.amount() == null || result.amount().signum() <= 0) {
-                log.info("LLM returned invalid amount for message length={}", rawText.length());
-                return Optional.empty();
-            }
-
-            return Optional.of(result);
-        } catch (Exception e) {
-            log.warn("LLM parse failed for message (length={}): {}", rawText.length(), e.getMessage(), e);
-            return Optional.empty();
+            tier.recordEscalation();
+            log.info("Escalating message (length={}) from tier {} ({}): outcome={}, confidence={}",
+                    rawText.length(), tier.getName(), tier.getModel(), attempt.outcome(), attempt.confidence());
         }
+        return List.of();
     }
 
     /**
-     * Extracts the JSON object from LLM response, which may include echoed instructions,
-     * schema text, or markdown code blocks. Returns only the first top-level {...} segment.
+     * Call the tier's model and give up after {@code app.ai.call-deadline-ms} of wall-clock time,
+     * however the response trickles in; the call is interrupted (which aborts the HTTP exchange).
      */
-    private String extractJsonFromResponse(String content) {
-        if (content == null || content.isBlank()) {
-            return "";
-        }
-        String s = content.trim();
-        // Remove markdown code fences (```json ... ``` or ``` ... ```)
-        if (s.startsWith("```")) {
-            int start = s.indexOf('\n');
-            if (start != -1) {
-                s = s.substring(start + 1).trim();
-            }
-            int end = s.lastIndexOf("```");
-            if (end != -1) {
-                s = s.substring(0, end).trim();
-            }
-        }
-        int firstBrace = s.indexOf('{');
-        if (firstBrace == -1) {
-            return "";
+    private ChatResponse callWithDeadline(ModelTier tier, ExecutorService executor, Prompt prompt) throws Exception {
+        Future<ChatResponse> call;
+        try {
+            call = executor.submit(() -> tier.getChatModel().call(prompt));
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("Tier " + tier.getName() + " already has the maximum number of calls in flight");
         }
-        int depth = 0;
-        for (int i = firstBrace; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '{') {
-                depth++;
-            } else if (c == '}') {
-                depth--;
-                if (depth == 0) {
-                    return s.substring(firstBrace, i + 1);
-                }
-            }
+        try {
+            return call.get(callDeadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new TimeoutException("Model call exceeded " + callDeadlineMs + " ms deadline");
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
         }
-        return s.substring(firstBrace);
     }
 
-    /**
-     * Validates that the extracted text is actually valid JSON (not CSS or other text).
-     * Checks for JSON-like structure: starts with {, contains quoted keys, etc.
-     */
-    private boolean isValidJson(String text) {
-        if (text == null || text.isBlank()) {
-            return false;
-        }
-        String trimmed = text.trim();
-        if (!trimmed.startsWith("{") || !trimmed.endsWith("}")) {
-            return false;
-        }
-        // Check for JSON-like patterns: quoted keys, colons, etc.
-        // CSS would have properties like "font-family:" without quotes around the key
-        // JSON must have quoted keys like "key":
-        if (!trimmed.contains("\"")) {
-            // JSON should have at least one quoted string (key or value)
-            return false;
+    @PreDestroy
+    void shutdown() {
+        callExecutors.forEach(ExecutorService::shutdownNow);
+    }
+
+    private boolean isTrusted(Attempt attempt, String rawText) {
+        return switch (attempt.outcome()) {
+            case PARSED -> attempt.confidence() >= modelRouter.getMinConfidence();
+            case NON_TRANSACTION -> !ParseConfidence.looksTransactional(rawText);
+            case INVALID, FAILED -> false;
+        };
+    }
+
+    private Attempt attempt(ModelTier tier, ExecutorService executor, String system, String userMessage,
+                            String rawText, boolean multi) {
+        ChatModelCircuitBreaker circuitBreaker = tier.getCircuitBreaker();
+        if (!circuitBreaker.tryAcquire()) {
+            log.debug("Chat model circuit {}; not calling tier {}", circuitBreaker.getState(), tier.getName());
+            return Attempt.of(Outcome.FAILED);
         }
-        // Quick validation: try to parse with ObjectMapper to see if it's valid JSON
+        String content;
+        long start = System.nanoTime();
         try {
-            objectMapper.readTree(trimmed);
-            return true;
+            var prompt = new Prompt(List.of(
+                    new org.springframework.ai.chat.messages.SystemMessage(system),
+                    new org.springframework.ai.chat.messages.UserMessage(userMessage)
+            ));
+            ChatResponse response = callWithDeadline(tier, executor, prompt);
+            content = response.getResult().getOutput().getText();
+            tier.recordCall(System.nanoTime() - start, false);
+            circuitBreaker.onSuccess();
         } catch (Exception e) {
-            return false;
+            tier.recordCall(System.nanoTime() - start, true);
+            circuitBreaker.onFailure();
+            log.warn("LLM parse failed on tier {} for message (length={}): {}",
+                    tier.getName(), rawText.length(), e.getMessage(), e);
+            return Attempt.of(Outcome.FAILED);
         }
-    }
 
-    /**
-     * Validates that the JSON matches the TransactionParseResult schema.
-     * Checks for required fields: amount, transactionType.
-     * Also checks that it's a flat object (not nested structures like the Visa/Mastercard example).
-     */
-    private boolean matchesTransactionSchema(String jsonText) {
-        if (jsonText == null || jsonText.isBlank()) {
-            return false;
+        if (content == null || content.isBlank()) {
+            log.info("LLM tier {} returned empty response for message (length={})", tier.getName(), rawText.length());
+            return Attempt.of(Outcome.INVALID);
         }
-        try {
-            JsonNode root = objectMapper.readTree(jsonText);
-            if (!root.isObject()) {
-                return false;
+
+        List<TransactionParseResult> results = new ArrayList<>();
+        TransactionJsonDecoder.Status status;
+        if (multi) {
+            status = decoder.decodeAll(content, r -> {
+                if (isUsable(r)) {
+                    results.add(r);
+                }
+            });
+            if (status == TransactionJsonDecoder.Status.MALFORMED && !results.isEmpty()) {
+                // Output cut off mid-array: keep the items that were complete
+                log.warn("LLM multi-transaction response truncated (tier={}); keeping {} complete item(s)",
+                        tier.getName(), results.size());
+                status = TransactionJsonDecoder.Status.OK;
             }
-            
-            // Check for required fields
-            if (!root.has("amount") || !root.has("transactionType")) {
-                return false;
+        } else {
+            TransactionJsonDecoder.Decoded decoded = decoder.decode(content);
+            status = decoded.status();
+            if (decoded.isOk()) {
+                TransactionParseResult result = decoded.result();
+                if ("NONE".equalsIgnoreCase(result.transactionType())) {
+                    log.info("LLM tier {} parsed as non-transaction (transactionType=NONE) for message length={}",
+                            tier.getName(), rawText.length());
+                    return Attempt.of(Outcome.NON_TRANSACTION);
+                }
+                if (!isUsable(result)) {
+                    log.info("LLM tier {} returned invalid amount for message length={}", tier.getName(), rawText.length());
+                    return Attempt.of(Outcome.INVALID);
+                }
+                results.add(result);
             }
-            
-            // Check that amount is a number
-            JsonNode amountNode = root.get("amount");
-            if (!amountNode.isNumber() && !amountNode.isTextual()) {
-                // Allow textual numbers (will be parsed later)
-                return false;
+        }
+
+        switch (status) {
+            case NO_OBJECT -> {
+                log.warn("LLM response contained no JSON object (tier={}, content length={}). First 200 chars: {}",
+                        tier.getName(), content.length(), content.length() > 200 ? content.substring(0, 200) + "..." : content);
+                return Attempt.of(Outcome.INVALID);
             }
-            
-            // Check that transactionType is a string
-            JsonNode typeNode = root.get("transactionType");
-            if (!typeNode.isTextual()) {
-                return false;
+            case MALFORMED -> {
+                log.warn("LLM response is not valid JSON (tier={}, length={}). First 500 chars: {}",
+                        tier.getName(), content.length(), content.length() > 500 ? content.substring(0, 500) + "..." : content);
+                return Attempt.of(Outcome.INVALID);
             }
-            
-            // Reject nested objects that don't belong to transaction schema
-            // TransactionParseResult fields: amount, currency, merchantName, category, transactionType, transactionDate, description
-            // All should be primitives or null, not nested objects
-            Iterator<String> fieldNamesIterator = root.fieldNames();
-            while (fieldNamesIterator.hasNext()) {
-                String fieldName = fieldNamesIterator.next();
-                JsonNode fieldValue = root.get(fieldName);
-                // If it's a nested object or array (and not one of the expected simple fields), reject it
-                if ((fieldValue.isObject() || fieldValue.isArray()) && !isExpectedComplexField(fieldName)) {
-                    return false;
-                }
+            case SCHEMA_MISMATCH -> {
+                log.warn("LLM response does not match TransactionParseResult schema (tier={}, length={}). First 500 chars: {}",
+                        tier.getName(), content.length(), content.length() > 500 ? content.substring(0, 500) + "..." : content);
+                return Attempt.of(Outcome.INVALID);
             }
-            
-            return true;
-        } catch (Exception e) {
-            log.debug("Schema validation failed: {}", e.getMessage());
-            return false;
+            case OK -> { }
+        }
+
+        if (results.isEmpty()) {
+            log.info("LLM tier {} found no transactions in message length={}", tier.getName(), rawText.length());
+            return Attempt.of(Outcome.NON_TRANSACTION);
         }
+        // A multi-item answer is only as trustworthy as its weakest item
+        double confidence = 1.0;
+        for (TransactionParseResult r : results) {
+            confidence = Math.min(confidence, ParseConfidence.score(rawText, r));
+        }
+        return new Attempt(Outcome.PARSED, List.copyOf(results), confidence);
     }
 
-    /**
-     * Checks if a field name is expected to have a complex (object/array) value.
-     * For TransactionParseResult, all fields are primitives/null, so this returns false.
-     */
-    private boolean isExpectedComplexField(String fieldName) {
-        // TransactionParseResult has no complex fields - all are primitives
-        return false;
+    private static boolean isUsable(TransactionParseResult r) {
+        return !"NONE".equalsIgnoreCase(r.transactionType()) && r.amount() != null && r.amount().signum() > 0;
     }
 }
@@ -0,0 +1,35 @@
+package com.wealthmanager.backend.ai.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ordered cascade of chat models, cheapest first. The last tier is the fallback whose answer is final;
+ * earlier tiers only answer when their result validates with enough confidence.
+ */
+public class ModelRouter {
+
+    private final List<ModelTier> tiers;
+    private final double minConfidence;
+
+    public ModelRouter(List<ModelTier> tiers, double minConfidence) {
+        if (tiers.isEmpty()) {
+            throw new IllegalArgumentException("At least one model tier is required");
+        }
+        this.tiers = List.copyOf(tiers);
+        this.minConfidence = minConfidence;
+    }
+
+    public List<ModelTier> getTiers() {
+        return tiers;
+    }
+
+    public double getMinConfidence() {
+        return minConfidence;
+    }
+
+    public List<Map<String, Object>> stats() {
+        return tiers.stream().map(ModelTier::stats).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package com.wealthmanager.backend.ai.impl;
+
+import org.springframework.ai.chat.model.ChatModel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One chat model in the routing cascade (e.g. a small quantized "fast" model, then the "primary" model),
+ * with its own circuit breaker and call, escalation and latency counters. Breakers are per tier so a
+ * failing fast model never stops the primary model from being tried.
+ */
+public class ModelTier {
+
+    private final String name;
+    private final String model;
+    private final ChatModel chatModel;
+    private final ChatModelCircuitBreaker circuitBreaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder escalations = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    public ModelTier(String name, String model, ChatModel chatModel, ChatModelCircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.model = model;
+        this.chatModel = chatModel;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public ChatModel getChatModel() {
+        return chatModel;
+    }
+
+    public ChatModelCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    void recordCall(long elapsedNanos, boolean failed) {
+        calls.increment();
+        latencyNanos.add(elapsedNanos);
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    void recordEscalation() {
+        escalations.increment();
+    }
+
+    public Map<String, Object> stats() {
+        long callCount = calls.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("tier", name);
+        m.put("model", model);
+        m.put("calls", callCount);
+        m.put("failures", failures.sum());
+        m.put("escalations", escalations.sum());
+        m.put("escalationRate", callCount == 0 ? 0.0 : (double) escalations.sum() / callCount);
+        m.put("avgLatencyMs", callCount == 0 ? 0.0 : latencyNanos.sum() / 1_000_000.0 / callCount);
+        m.put("circuitBreaker", circuitBreaker.stats());
+        return m;
+    }
+}
@@ -0,0 +1,104 @@
+package com.wealthmanager.backend.ai.impl;
+
+import com.wealthmanager.backend.model.dto.TransactionParseResult;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Cheap self-consistency checks of a model answer against the source text, used to decide
+ * whether a fast-tier answer can be trusted or must be escalated to a larger model.
+ */
+final class ParseConfidence {
+
+    private static final String[] DEBIT_CUES = {
+            "debited", "debit", "spent", "paid", "withdrawn", "sent", "purchase", "purchased"};
+    private static final String[] CREDIT_CUES = {
+            "credited", "received", "deposited", "refund", "refunded", "cashback"};
+
+    private ParseConfidence() {
+    }
+
+    /**
+     * Score in [0, 1]: the amount must literally occur in the text and the type must not contradict
+     * the debit/credit verbs used in the message.
+     */
+    static double score(String rawText, TransactionParseResult result) {
+        double score = 1.0;
+        if (!containsAmount(rawText, result.amount())) {
+            score -= 0.5;
+        }
+        String lower = rawText.toLowerCase(Locale.ROOT);
+        boolean debitCue = containsAny(lower, DEBIT_CUES);
+        boolean creditCue = containsAny(lower, CREDIT_CUES);
+        String type = result.transactionType();
+        if (("DEBIT".equals(type) && creditCue && !debitCue) || ("CREDIT".equals(type) && debitCue && !creditCue)) {
+            score -= 0.4;
+        }
+        return Math.max(0.0, score);
+    }
+
+    /** Whether text has both a debit/credit verb and a number - a "NONE" answer for it is suspicious. */
+    static boolean looksTransactional(String rawText) {
+        String lower = rawText.toLowerCase(Locale.ROOT);
+        if (!containsAny(lower, DEBIT_CUES) && !containsAny(lower, CREDIT_CUES)) {
+            return false;
+        }
+        for (int i = 0; i < rawText.length(); i++) {
+            if (Character.isDigit(rawText.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Scans numeric tokens (digits with ',' grouping and one '.') and compares them to the amount. */
+    static boolean containsAmount(String rawText, BigDecimal amount) {
+        if (amount == null) {
+            return false;
+        }
+        int n = rawText.length();
+        int i = 0;
+        StringBuilder token = new StringBuilder(16);
+        while (i < n) {
+            if (!Character.isDigit(rawText.charAt(i))) {
+                i++;
+                continue;
+            }
+            token.setLength(0);
+            boolean dot = false;
+            while (i < n) {
+                char c = rawText.charAt(i);
+                if (Character.isDigit(c)) {
+                    token.append(c);
+                } else if (c == ',' && i + 1 < n && Character.isDigit(rawText.charAt(i + 1))) {
+                    // grouping separator, skip
+                } else if (c == '.' && !dot && i + 1 < n && Character.isDigit(rawText.charAt(i + 1))) {
+                    dot = true;
+                    token.append(c);
+                } else {
+                    break;
+                }
+                i++;
+            }
+            if (new BigDecimal(token.toString()).compareTo(amount) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whole-word match, so "sent" does not fire inside "present" or "represent". */
+    static boolean containsAny(String lower, String[] cues) {
+        for (String cue : cues) {
+            for (int at = lower.indexOf(cue); at >= 0; at = lower.indexOf(cue, at + 1)) {
+                int end = at + cue.length();
+                if ((at == 0 || !Character.isLetter(lower.charAt(at - 1)))
+                        && (end == lower.length() || !Character.isLetter(lower.charAt(end)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,290 @@
+package com.wealthmanager.backend.ai.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.wealthmanager.backend.model.dto.TransactionParseResult;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass decoder for LLM transaction responses.
+ * Locates the first JSON object in the raw model output (echoed prose, markdown fences),
+ * validates field names and value types against the flat {@link TransactionParseResult} schema
+ * and builds the result straight from the token stream - no intermediate tree, no re-parsing.
+ * Multi-transaction responses are streamed item by item via {@link #decodeAll}.
+ */
+public final class TransactionJsonDecoder {
+
+    /** How many '{' candidates to try before giving up on a response full of prose braces. */
+    private static final int MAX_OBJECT_CANDIDATES = 3;
+
+    public enum Status {
+        OK,
+        /** Response contained no '{' at all. */
+        NO_OBJECT,
+        /** Object found but it is not well-formed JSON (CSS, truncated output, ...). */
+        MALFORMED,
+        /** Well-formed JSON that does not match the transaction schema (nested values, missing/wrong fields). */
+        SCHEMA_MISMATCH
+    }
+
+    public record Decoded(Status status, TransactionParseResult result) {
+        public boolean isOk() {
+            return status == Status.OK;
+        }
+    }
+
+    private enum Field {
+        AMOUNT("amount"),
+        CURRENCY("currency"),
+        MERCHANT_NAME("merchantName"),
+        CATEGORY("category"),
+        TRANSACTION_TYPE("transactionType"),
+        TRANSACTION_DATE("transactionDate"),
+        DESCRIPTION("description");
+
+        private final String jsonName;
+
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    /** Precompiled schema: JSON field name -> field slot. */
+    private static final Map<String, Field> SCHEMA = new HashMap<>();
+
+    static {
+        for (Field f : Field.values()) {
+            SCHEMA.put(f.jsonName, f);
+        }
+    }
+
+    private final JsonFactory jsonFactory;
+
+    public TransactionJsonDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Decode the first transaction object found in the model output.
+     */
+    public Decoded decode(String content) {
+        if (content == null || content.isEmpty()) {
+            return new Decoded(Status.NO_OBJECT, null);
+        }
+        int start = content.indexOf('{');
+        if (start == -1) {
+            return new Decoded(Status.NO_OBJECT, null);
+        }
+        Decoded last = null;
+        for (int attempt = 0; attempt < MAX_OBJECT_CANDIDATES && start != -1; attempt++) {
+            last = decodeAt(content, start);
+            if (last.status() != Status.MALFORMED) {
+                return last;
+            }
+            start = content.indexOf('{', start + 1);
+        }
+        return last;
+    }
+
+    /**
+     * Decode a multi-transaction response, {@code {"transactions":[{...},{...}]}}, handing each valid
+     * item to {@code sink} as soon as it has been read. Items that do not match the schema are skipped.
+     * A bare top-level array or a single flat transaction object is accepted as well.
+     *
+     * @return OK if the envelope was read (even with zero items), otherwise the failure status
+     */
+    public Status decodeAll(String content, Consumer<TransactionParseResult> sink) {
+        if (content == null || content.isEmpty()) {
+            return Status.NO_OBJECT;
+        }
+        int objectStart = content.indexOf('{');
+        int arrayStart = content.indexOf('[');
+        if (arrayStart != -1 && (objectStart == -1 || arrayStart < objectStart)) {
+            boolean[] emitted = new boolean[1];
+            Status status = decodeEnvelopeAt(content, arrayStart, item -> {
+                emitted[0] = true;
+                sink.accept(item);
+            });
+            // A truncated array that already yielded items stays MALFORMED: re-reading from the first
+            // object would hand the first item to the sink a second time
+            if (status != Status.MALFORMED || objectStart == -1 || emitted[0]) {
+                return status;
+            }
+            // '[' belonged to prose (e.g. an echoed "[Subject: ...]"); try the first object instead
+        }
+        if (objectStart == -1) {
+            return Status.NO_OBJECT;
+        }
+        Status status = decodeEnvelopeAt(content, objectStart, sink);
+        if (status != null) {
+            return status;
+        }
+        // Not an envelope: the model answered with a single flat object
+        Decoded single = decode(content);
+        if (single.isOk()) {
+            sink.accept(single.result());
+        }
+        return single.status();
+    }
+
+    /** @return the envelope status, or null if the object at {@code offset} is not a "transactions" envelope */
+    private Status decodeEnvelopeAt(String content, int offset, Consumer<TransactionParseResult> sink) {
+        try (StringReader reader = new StringReader(content)) {
+            reader.skip(offset);
+            try (JsonParser parser = jsonFactory.createParser(reader)) {
+                JsonToken first = parser.nextToken();
+                if (first == JsonToken.START_ARRAY) {
+                    return readItems(parser, sink);
+                }
+                if (first != JsonToken.START_OBJECT) {
+                    return Status.MALFORMED;
+                }
+                if (parser.nextToken() == JsonToken.FIELD_NAME && "transactions".equals(parser.currentName())) {
+                    return parser.nextToken() == JsonToken.START_ARRAY ? readItems(parser, sink) : Status.SCHEMA_MISMATCH;
+                }
+                return null;
+            }
+        } catch (IOException e) {
+            return Status.MALFORMED;
+        }
+    }
+
+    private Status readItems(JsonParser parser, Consumer<TransactionParseResult> sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                return Status.MALFORMED;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            Decoded item = readObject(parser);
+            if (item.status() == Status.MALFORMED) {
+                return Status.MALFORMED;
+            }
+            if (item.isOk()) {
+                sink.accept(item.result());
+            }
+        }
+        return Status.OK;
+    }
+
+    private Decoded decodeAt(String content, int offset) {
+        try (StringReader reader = new StringReader(content)) {
+            reader.skip(offset);
+            try (JsonParser parser = jsonFactory.createParser(reader)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return new Decoded(Status.MALFORMED, null);
+                }
+                return readObject(parser);
+            }
+        } catch (IOException e) {
+            return new Decoded(Status.MALFORMED, null);
+        }
+    }
+
+    /**
+     * Reads one flat transaction object; the parser must be positioned on its START_OBJECT.
+     * Leaves the parser on the matching END_OBJECT.
+     */
+    Decoded readObject(JsonParser parser) throws IOException {
+        BigDecimal amount = null;
+        String currency = null;
+        String merchantName = null;
+        String category = null;
+        String transactionType = null;
+        LocalDateTime transactionDate = null;
+        String description = null;
+        boolean hasAmount = false;
+        boolean hasType = false;
+        boolean schemaOk = true;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            Field field = SCHEMA.get(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                // Flat schema only; keep reading so malformed input is still told apart from mismatches
+                schemaOk = false;
+                parser.skipChildren();
+                continue;
+            }
+            if (field == null || value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case AMOUNT -> {
+                    hasAmount = true;
+                    amount = readAmount(parser, value);
+                    if (amount == null) {
+                        schemaOk = false;
+                    }
+                }
+                case TRANSACTION_TYPE -> {
+                    if (value != JsonToken.VALUE_STRING) {
+                        schemaOk = false;
+                    } else {
+                        hasType = true;
+                        transactionType = parser.getText();
+                    }
+                }
+                case CURRENCY -> currency = parser.getText();
+                case MERCHANT_NAME -> merchantName = parser.getText();
+                case CATEGORY -> category = parser.getText();
+                case DESCRIPTION -> description = parser.getText();
+                case TRANSACTION_DATE -> transactionDate = readDate(parser.getText());
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return new Decoded(Status.MALFORMED, null);
+        }
+        if (!schemaOk || !hasAmount || !hasType) {
+            return new Decoded(Status.SCHEMA_MISMATCH, null);
+        }
+        return new Decoded(Status.OK, new TransactionParseResult(
+                amount, currency, merchantName, category, transactionType, transactionDate, description));
+    }
+
+    private BigDecimal readAmount(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            // Allow textual numbers like "1,250.00"
+            try {
+                return new BigDecimal(parser.getText().trim().replace(",", ""));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** ISO date-time (offset ignored) or plain ISO date; anything else falls back to the message's received time. */
+    private LocalDateTime readDate(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text.trim(), DateTimeFormatter.ISO_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(text.trim()).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
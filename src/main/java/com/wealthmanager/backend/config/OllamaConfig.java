@@ -1,5 +1,8 @@
 package com.wealthmanager.backend.config;
 
+import com.wealthmanager.backend.ai.impl.ChatModelCircuitBreaker;
+import com.wealthmanager.backend.ai.impl.ModelRouter;
+import com.wealthmanager.backend.ai.impl.ModelTier;
 import io.micrometer.observation.ObservationRegistry;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.model.tool.DefaultToolCallingManager;
@@ -11,15 +14,24 @@ import org.springframework.ai.ollama.management.ModelManagementOptions;
 import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
 import org.springframework.ai.tool.resolution.StaticToolCallbackResolver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Manual Ollama chat model configuration when not using spring-ai-ollama-spring-boot-starter.
- * Registers a ChatModel bean for use by LlmTransactionParser.
+ * Registers a ChatModel bean for use by LlmTransactionParser, plus an optional small "fast" model
+ * that is tried first (see {@link ModelRouter}).
  */
 @Configuration
 @ConditionalOnProperty(prefix = "app.ai", name = "enabled", havingValue = "true")
@@ -31,10 +43,39 @@ public class OllamaConfig {
     @Value("${app.ai.ollama.chat-model:llama3.2}")
     private String chatModel;
 
+    /** Optional small model tried first; blank disables the cascade. */
+    @Value("${app.ai.ollama.fast-chat-model:}")
+    private String fastChatModel;
+
+    @Value("${app.ai.routing.min-confidence:0.7}")
+    private double minConfidence;
+
+    @Value("${app.ai.ollama.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    /**
+     * Longest gap between bytes of a response; the wall-clock limit per call is
+     * {@code app.ai.call-deadline-ms} in LlmTransactionParser.
+     */
+    @Value("${app.ai.ollama.read-timeout-ms:120000}")
+    private long readTimeoutMs;
+
+    @Value("${app.ai.circuit-breaker.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${app.ai.circuit-breaker.open-duration-ms:60000}")
+    private long openDurationMs;
+
     @Bean
     public OllamaApi ollamaApi() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
         return OllamaApi.builder()
                 .baseUrl(baseUrl)
+                .restClientBuilder(RestClient.builder().requestFactory(requestFactory))
                 .build();
     }
 
@@ -55,4 +96,28 @@ public class OllamaConfig {
                 .build();
         return new OllamaChatModel(ollamaApi, options, toolCallingManager, ObservationRegistry.NOOP, ModelManagementOptions.defaults());
     }
+
+    /**
+     * Cascade used by LlmTransactionParser: the fast model (if configured) answers first and
+     * low-confidence or invalid answers escalate to the primary chat model. Each tier gets its own
+     * circuit breaker.
+     */
+    @Bean
+    public ModelRouter modelRouter(OllamaApi ollamaApi, ToolCallingManager toolCallingManager,
+                                   @Qualifier("ollamaChatModel") ChatModel ollamaChatModel) {
+        List<ModelTier> tiers = new ArrayList<>();
+        if (fastChatModel != null && !fastChatModel.isBlank()) {
+            OllamaChatOptions fastOptions = OllamaChatOptions.builder()
+                    .model(fastChatModel)
+                    .build();
+            ChatModel fast = new OllamaChatModel(ollamaApi, fastOptions, toolCallingManager, ObservationRegistry.NOOP, ModelManagementOptions.defaults());
+            tiers.add(new ModelTier("fast", fastChatModel, fast, circuitBreaker()));
+        }
+        tiers.add(new ModelTier("primary", chatModel, ollamaChatModel, circuitBreaker()));
+        return new ModelRouter(tiers, minConfidence);
+    }
+
+    private ChatModelCircuitBreaker circuitBreaker() {
+        return new ChatModelCircuitBreaker(failureThreshold, Duration.ofMillis(openDurationMs));
+    }
 }
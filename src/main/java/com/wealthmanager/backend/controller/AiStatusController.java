@@ -0,0 +1,67 @@
+package com.wealthmanager.backend.controller;
+
+import com.wealthmanager.backend.ai.PromptCompactor;
+import com.wealthmanager.backend.ai.impl.ModelRouter;
+import com.wealthmanager.backend.service.DedupeIndex;
+import com.wealthmanager.backend.service.DeferredParseQueue;
+import com.wealthmanager.backend.service.TransactionColumnStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operational view of the LLM parsing pipeline (model tiers, escalation rate, latency,
+ * circuit breaker state, deferred queue depth, prompt compaction savings, dedupe index hit rate and
+ * the size of the in-memory transaction column store).
+ * Lives under /api/v1/bridge so it requires the X-API-KEY header.
+ */
+@RestController
+@RequestMapping("/api/v1/bridge/ai")
+public class AiStatusController {
+
+    private final Optional<ModelRouter> modelRouter;
+    private final DeferredParseQueue deferredParseQueue;
+    private final PromptCompactor promptCompactor;
+    private final DedupeIndex dedupeIndex;
+    private final Optional<TransactionColumnStore> columnStore;
+    private final boolean aiEnabled;
+    private final String provider;
+
+    public AiStatusController(Optional<ModelRouter> modelRouter,
+                              DeferredParseQueue deferredParseQueue,
+                              PromptCompactor promptCompactor,
+                              DedupeIndex dedupeIndex,
+                              Optional<TransactionColumnStore> columnStore,
+                              @Value("${app.ai.enabled:true}") boolean aiEnabled,
+                              @Value("${app.ai.provider:ollama}") String provider) {
+        this.modelRouter = modelRouter;
+        this.deferredParseQueue = deferredParseQueue;
+        this.promptCompactor = promptCompactor;
+        this.dedupeIndex = dedupeIndex;
+        this.columnStore = columnStore;
+        this.aiEnabled = aiEnabled;
+        this.provider = provider;
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getAiStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", aiEnabled);
+        status.put("provider", provider);
+        modelRouter.ifPresent(router -> {
+            status.put("minConfidence", router.getMinConfidence());
+            status.put("tiers", router.stats());
+        });
+        status.put("deferredQueueSize", deferredParseQueue.size());
+        status.put("promptCompaction", promptCompactor.stats());
+        status.put("dedupeIndex", dedupeIndex.stats());
+        columnStore.ifPresent(store -> status.put("columnStore", store.stats()));
+        return ResponseEntity.ok(status);
+    }
+}
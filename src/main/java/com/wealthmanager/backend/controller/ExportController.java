@@ -0,0 +1,75 @@
+package com.wealthmanager.backend.controller;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * File exports of transactions and Clean Ledger entries (CSV or NDJSON, optionally gzip). The body is
+ * written from a database cursor while the response is sent (chunked), so any number of rows can be
+ * exported without paging.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@Slf4j
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportService.Format f = parse(format, from, to);
+        log.debug("Exporting transactions format={}, from={}, to={}, gzip={}", f, from, to, gzip);
+        return file("transactions", f, gzip, out -> exportService.exportTransactions(f, gzip, from, to, out));
+    }
+
+    @GetMapping("/portfolio/ledger/export")
+    public ResponseEntity<StreamingResponseBody> exportLedger(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportService.Format f = parse(format, from, to);
+        log.debug("Exporting ledger format={}, from={}, to={}, gzip={}", f, from, to, gzip);
+        return file("clean-ledger", f, gzip, out -> exportService.exportLedger(f, gzip, from, to, out));
+    }
+
+    /** Validated before the response starts, so bad input is still a 400 rather than a broken download. */
+    private static ExportService.Format parse(String format, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        return ExportService.Format.parse(format);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> file(String name, ExportService.Format format, boolean gzip,
+                                                              StreamingResponseBody body) {
+        String filename = name + "." + format.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip
+                        ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType(format.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
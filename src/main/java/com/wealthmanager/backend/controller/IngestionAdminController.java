@@ -0,0 +1,67 @@
+package com.wealthmanager.backend.controller;
+
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.IngestionParseStateResponse;
+import com.wealthmanager.backend.model.dto.MessageSearchHit;
+import com.wealthmanager.backend.model.dto.RequeueRequest;
+import com.wealthmanager.backend.service.IngestionService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin operations on raw ingestions (dead-letter inspection and requeue).
+ * Lives under /api/v1/bridge so it requires the X-API-KEY header.
+ */
+@RestController
+@RequestMapping("/api/v1/bridge/admin/ingestions")
+@Slf4j
+public class IngestionAdminController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final IngestionService ingestionService;
+
+    public IngestionAdminController(IngestionService ingestionService) {
+        this.ingestionService = ingestionService;
+    }
+
+    @GetMapping("/unparseable")
+    public ResponseEntity<Page<IngestionParseStateResponse>> getUnparseable(
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(ingestionService.getUnparseable(pageable));
+    }
+
+    /** Ranked full-text search over raw SMS/email bodies; pass the returned nextCursor as cursor. */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<MessageSearchHit>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Searching raw ingestions q='{}', cursor={}, size={}", q, cursor, size);
+        return ResponseEntity.ok(ingestionService.searchMessages(q, cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+    }
+
+    @PostMapping("/requeue")
+    public ResponseEntity<Map<String, Object>> requeue(@Valid @RequestBody RequeueRequest request) {
+        log.info("Requeue requested for {} ingestion(s)", request.ids().size());
+        int requeued = ingestionService.requeueForParsing(request.ids());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("requested", request.ids().size());
+        response.put("requeued", requeued);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -25,9 +25,10 @@ public class McpInfoController {
                 "endpoint", "/mcp/message",
                 "description", "MCP server for Wealth Manager. Connect to /mcp/message for SSE transport.",
                 "tools", Map.of(
-                        "transaction", new String[]{"get_transaction_type", "list_transactions_by_type"},
+                        "transaction", new String[]{"get_transaction_type", "list_transactions_by_type", "get_spend_breakdown", "search_transactions"},
                         "portfolio", new String[]{
                                 "get_portfolio_holdings",
+                                "get_portfolio_holdings_as_of",
                                 "get_stock_holdings",
                                 "get_mutual_fund_holdings",
                                 "get_portfolio_summary",
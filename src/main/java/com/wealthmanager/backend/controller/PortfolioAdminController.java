@@ -0,0 +1,48 @@
+package com.wealthmanager.backend.controller;
+
+import com.wealthmanager.backend.service.LedgerProjector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Admin operations on the ledger-projected portfolio (projection state and rebuild).
+ * Lives under /api/v1/bridge so it requires the X-API-KEY header.
+ */
+@RestController
+@RequestMapping("/api/v1/bridge/admin/portfolio")
+@Slf4j
+public class PortfolioAdminController {
+
+    private final Optional<LedgerProjector> ledgerProjector;
+
+    public PortfolioAdminController(Optional<LedgerProjector> ledgerProjector) {
+        this.ledgerProjector = ledgerProjector;
+    }
+
+    @GetMapping("/projection")
+    public ResponseEntity<Map<String, Object>> getProjection() {
+        return ledgerProjector.map(p -> ResponseEntity.ok(p.status()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Recompute positions from the newest snapshot, or from the whole ledger with {@code fromScratch=true}
+     * (use after a parser fix changed ledger entries the snapshots already include).
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(@RequestParam(defaultValue = "false") boolean fromScratch) {
+        if (ledgerProjector.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        log.info("Portfolio projection rebuild requested (fromScratch={})", fromScratch);
+        return ResponseEntity.ok(ledgerProjector.get().rebuild(fromScratch));
+    }
+}
@@ -0,0 +1,49 @@
+package com.wealthmanager.backend.controller;
+
+import com.wealthmanager.backend.model.dto.CleanLedgerEntryResponse;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.PortfolioAsOfResponse;
+import com.wealthmanager.backend.service.CleanLedgerService;
+import com.wealthmanager.backend.service.PortfolioHistoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/portfolio")
+@Slf4j
+public class PortfolioController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final PortfolioHistoryService portfolioHistoryService;
+    private final CleanLedgerService cleanLedgerService;
+
+    public PortfolioController(PortfolioHistoryService portfolioHistoryService, CleanLedgerService cleanLedgerService) {
+        this.portfolioHistoryService = portfolioHistoryService;
+        this.cleanLedgerService = cleanLedgerService;
+    }
+
+    /** Positions held at the end of {@code date} (yyyy-MM-dd). */
+    @GetMapping("/holdings/as-of")
+    public ResponseEntity<PortfolioAsOfResponse> getHoldingsAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("Fetching portfolio positions as of {}", date);
+        return ResponseEntity.ok(portfolioHistoryService.getPositionsAsOf(date));
+    }
+
+    /** Clean Ledger entries, newest first, with keyset pagination (pass the returned nextCursor as cursor). */
+    @GetMapping("/ledger")
+    public ResponseEntity<CursorPage<CleanLedgerEntryResponse>> getLedgerPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Fetching ledger entries after cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(cleanLedgerService.getEntriesPage(cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+    }
+}
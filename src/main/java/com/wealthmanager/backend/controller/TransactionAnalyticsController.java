@@ -0,0 +1,54 @@
+package com.wealthmanager.backend.controller;
+
+import com.wealthmanager.backend.model.TransactionRollup;
+import com.wealthmanager.backend.model.dto.SpendBucket;
+import com.wealthmanager.backend.service.TransactionAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spend by category or merchant over a date range, from the pre-aggregated transaction rollups.
+ */
+@RestController
+@RequestMapping("/api/v1/transactions/analytics")
+@Slf4j
+public class TransactionAnalyticsController {
+
+    private final TransactionAnalyticsService transactionAnalyticsService;
+
+    public TransactionAnalyticsController(TransactionAnalyticsService transactionAnalyticsService) {
+        this.transactionAnalyticsService = transactionAnalyticsService;
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<SpendBucket>> getSpendByCategory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = TransactionAnalyticsService.GRANULARITY_MONTH) String granularity,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Fetching spend by category from={} to={} granularity={} type={}", from, to, granularity, type);
+        return ResponseEntity.ok(transactionAnalyticsService.getSpend(
+                TransactionRollup.CATEGORY, from, to, granularity, type, limit));
+    }
+
+    @GetMapping("/merchants")
+    public ResponseEntity<List<SpendBucket>> getSpendByMerchant(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = TransactionAnalyticsService.GRANULARITY_MONTH) String granularity,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Fetching spend by merchant from={} to={} granularity={} type={}", from, to, granularity, type);
+        return ResponseEntity.ok(transactionAnalyticsService.getSpend(
+                TransactionRollup.MERCHANT, from, to, granularity, type, limit));
+    }
+}
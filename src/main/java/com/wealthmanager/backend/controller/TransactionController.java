@@ -1,17 +1,25 @@
 package com.wealthmanager.backend.controller;
 
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.TransactionFilter;
 import com.wealthmanager.backend.model.dto.TransactionResponse;
+import com.wealthmanager.backend.model.dto.TransactionSearchHit;
 import com.wealthmanager.backend.service.TransactionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -19,6 +27,8 @@ import java.util.Map;
 @Slf4j
 public class TransactionController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TransactionService transactionService;
 
     public TransactionController(TransactionService transactionService) {
@@ -33,6 +43,52 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    /** Keyset pagination: pass the returned nextCursor as cursor; no total count, constant cost per page. */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<TransactionResponse>> getTransactionsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Fetching transactions after cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(transactionService.getTransactionsPage(cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+    }
+
+    /**
+     * Filtered search (all criteria optional) with keyset pagination; merchant matches by prefix,
+     * dates and amounts are inclusive.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<TransactionResponse>> searchTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String merchant,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        TransactionFilter filter = new TransactionFilter(from, to,
+                type != null && !type.isBlank() ? type.toUpperCase(Locale.ROOT) : null,
+                category != null && !category.isBlank() ? category : null,
+                merchant != null && !merchant.isBlank() ? merchant.trim() : null,
+                minAmount, maxAmount);
+        log.debug("Searching transactions filter={}, cursor={}, size={}", filter, cursor, size);
+        return ResponseEntity.ok(transactionService.searchTransactions(filter, cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+    }
+
+    /**
+     * Ranked full-text search over merchant, category and description, with fuzzy merchant matching
+     * ("swigy" finds Swiggy); pass the returned nextCursor as cursor.
+     */
+    @GetMapping("/text-search")
+    public ResponseEntity<CursorPage<TransactionSearchHit>> searchText(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Text search q='{}', cursor={}, size={}", q, cursor, size);
+        return ResponseEntity.ok(transactionService.searchText(q, cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponse> getTransactionById(@PathVariable Long id) {
         log.debug("Fetching transaction id={}", id);
@@ -0,0 +1,12 @@
+package com.wealthmanager.backend.exception;
+
+/**
+ * Thrown when request input is invalid (a malformed cursor, an unknown format, an empty range);
+ * {@link GlobalExceptionHandler} maps it to 400. Anything else that escapes a controller is a 500.
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
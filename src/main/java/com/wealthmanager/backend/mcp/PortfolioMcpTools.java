@@ -1,14 +1,19 @@
 package com.wealthmanager.backend.mcp;
 
 import com.wealthmanager.backend.model.dto.CleanLedgerEntryResponse;
+import com.wealthmanager.backend.model.dto.PortfolioAsOfResponse;
 import com.wealthmanager.backend.model.dto.PortfolioHoldingResponse;
+import com.wealthmanager.backend.model.dto.ProjectedPosition;
 import com.wealthmanager.backend.service.CleanLedgerService;
+import com.wealthmanager.backend.service.PortfolioHistoryService;
 import com.wealthmanager.backend.service.PortfolioService;
 import org.springaicommunity.mcp.annotation.McpTool;
 import org.springaicommunity.mcp.annotation.McpToolParam;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,10 +28,13 @@ public class PortfolioMcpTools {
 
     private final PortfolioService portfolioService;
     private final CleanLedgerService cleanLedgerService;
+    private final PortfolioHistoryService portfolioHistoryService;
 
-    public PortfolioMcpTools(PortfolioService portfolioService, CleanLedgerService cleanLedgerService) {
+    public PortfolioMcpTools(PortfolioService portfolioService, CleanLedgerService cleanLedgerService,
+                             PortfolioHistoryService portfolioHistoryService) {
         this.portfolioService = portfolioService;
         this.cleanLedgerService = cleanLedgerService;
+        this.portfolioHistoryService = portfolioHistoryService;
     }
 
     /**
@@ -43,6 +51,31 @@ public class PortfolioMcpTools {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns the holdings the user had at the end of a past date, rebuilt from the clean ledger.
+     */
+    @McpTool(
+            name = "get_portfolio_holdings_as_of",
+            description = "Fetch the stocks and mutual funds the user held at the end of a given date (yyyy-MM-dd), rebuilt from the clean ledger. Use for questions like 'what did I own at the end of March'. Returns instrument type, symbol, name and quantity per position."
+    )
+    public Map<String, Object> getPortfolioHoldingsAsOf(
+            @McpToolParam(description = "Date in yyyy-MM-dd format, e.g. 2025-03-31", required = true) String date) {
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        LocalDate asOf;
+        try {
+            asOf = LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            result.put("error", "Invalid date '" + date + "', expected yyyy-MM-dd");
+            return result;
+        }
+        PortfolioAsOfResponse response = portfolioHistoryService.getPositionsAsOf(asOf);
+        result.put("date", response.date().toString());
+        result.put("holdingsCount", response.positions().size());
+        result.put("holdings", response.positions().stream().map(this::positionToMap).collect(Collectors.toList()));
+        return result;
+    }
+
     /**
      * Returns only stock holdings.
      */
@@ -97,7 +130,7 @@ public class PortfolioMcpTools {
             String type = "MUTUAL_FUND".equalsIgnoreCase(instrumentType) ? PortfolioService.INSTRUMENT_MUTUAL_FUND : PortfolioService.INSTRUMENT_STOCK;
             entries = cleanLedgerService.getEntriesByInstrumentType(type, PageRequest.of(0, 50));
         } else {
-            entries = cleanLedgerService.getAllEntries(PageRequest.of(0, 50)).getContent();
+            entries = cleanLedgerService.getEntriesPage(null, 50).items();
         }
         return entries.stream().map(this::ledgerEntryToMap).collect(Collectors.toList());
     }
@@ -116,6 +149,16 @@ public class PortfolioMcpTools {
         return m;
     }
 
+    private Map<String, Object> positionToMap(ProjectedPosition p) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("instrumentType", p.instrumentType());
+        m.put("symbol", p.symbol() != null ? p.symbol() : "");
+        m.put("name", p.name() != null ? p.name() : "");
+        m.put("quantity", p.quantity());
+        m.put("lastLedgerDate", p.lastLedgerDate() != null ? p.lastLedgerDate().toString() : "");
+        return m;
+    }
+
     private Map<String, Object> ledgerEntryToMap(CleanLedgerEntryResponse e) {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("id", e.id());
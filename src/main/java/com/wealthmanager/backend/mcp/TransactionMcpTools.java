@@ -1,13 +1,23 @@
 package com.wealthmanager.backend.mcp;
 
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.TransactionRollup;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.SpendBucket;
 import com.wealthmanager.backend.model.dto.TransactionResponse;
+import com.wealthmanager.backend.model.dto.TransactionSearchHit;
+import com.wealthmanager.backend.service.TransactionAnalyticsService;
 import com.wealthmanager.backend.service.TransactionService;
 import org.springaicommunity.mcp.annotation.McpTool;
 import org.springaicommunity.mcp.annotation.McpToolParam;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -22,9 +32,12 @@ public class TransactionMcpTools {
     private static final String TYPE_DEBIT = "DEBIT";
 
     private final TransactionService transactionService;
+    private final TransactionAnalyticsService transactionAnalyticsService;
 
-    public TransactionMcpTools(TransactionService transactionService) {
+    public TransactionMcpTools(TransactionService transactionService,
+                               TransactionAnalyticsService transactionAnalyticsService) {
         this.transactionService = transactionService;
+        this.transactionAnalyticsService = transactionAnalyticsService;
     }
 
     /**
@@ -80,4 +93,87 @@ public class TransactionMcpTools {
                 ))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Total spend per category or merchant over a date range.
+     */
+    @McpTool(
+            name = "get_spend_breakdown",
+            description = "Total amount and count of transactions per category or per merchant between two dates (yyyy-MM-dd, inclusive). Use groupBy 'category' or 'merchant' and optionally type 'DEBIT' (spending) or 'CREDIT' (income). Returns up to 20 groups, largest first."
+    )
+    public Map<String, Object> getSpendBreakdown(
+            @McpToolParam(description = "Start date, yyyy-MM-dd", required = true) String from,
+            @McpToolParam(description = "End date (inclusive), yyyy-MM-dd", required = true) String to,
+            @McpToolParam(description = "category or merchant", required = false) String groupBy,
+            @McpToolParam(description = "Optional: DEBIT or CREDIT", required = false) String type) {
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = LocalDate.parse(from.trim());
+            end = LocalDate.parse(to.trim());
+        } catch (DateTimeParseException e) {
+            result.put("error", "Invalid date, expected yyyy-MM-dd");
+            return result;
+        }
+        if (start.isAfter(end)) {
+            result.put("error", "from must not be after to");
+            return result;
+        }
+        String dimension = "merchant".equalsIgnoreCase(groupBy) ? TransactionRollup.MERCHANT : TransactionRollup.CATEGORY;
+        String txnType = TYPE_CREDIT.equalsIgnoreCase(type) ? TYPE_CREDIT : TYPE_DEBIT.equalsIgnoreCase(type) ? TYPE_DEBIT : null;
+        List<SpendBucket> buckets = transactionAnalyticsService.getSpend(
+                dimension, start, end, TransactionAnalyticsService.GRANULARITY_TOTAL, txnType, 20);
+
+        result.put("from", start.toString());
+        result.put("to", end.toString());
+        result.put("groupBy", dimension.toLowerCase(Locale.ROOT));
+        result.put("groups", buckets.stream()
+                .map(b -> {
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("name", b.name() != null ? b.name() : "(none)");
+                    m.put("transactionType", b.transactionType());
+                    m.put("currency", b.currency());
+                    m.put("count", b.transactionCount());
+                    m.put("amount", b.totalAmount());
+                    return m;
+                })
+                .collect(Collectors.toList()));
+        return result;
+    }
+
+    @McpTool(
+            name = "search_transactions",
+            description = "Search transactions by words in the merchant name, category or description (e.g. 'swiggy', 'rent', 'amazon prime'). Tolerates misspelled merchant names. Returns up to 20 matches, most relevant first."
+    )
+    public Map<String, Object> searchTransactions(
+            @McpToolParam(description = "Words to search for", required = true) String query) {
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        CursorPage<TransactionSearchHit> page;
+        try {
+            page = transactionService.searchText(query, null, 20);
+        } catch (BadRequestException e) {
+            result.put("error", e.getMessage());
+            return result;
+        }
+        result.put("query", query);
+        result.put("matches", page.items().stream()
+                .map(h -> {
+                    TransactionResponse t = h.transaction();
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("id", t.id());
+                    m.put("transactionType", t.transactionType());
+                    m.put("amount", t.amount());
+                    m.put("currency", t.currency());
+                    m.put("merchantName", t.merchantName() != null ? t.merchantName() : "");
+                    m.put("category", t.category() != null ? t.category() : "");
+                    m.put("transactionDate", t.transactionDate() != null ? t.transactionDate().toString() : "");
+                    return m;
+                })
+                .collect(Collectors.toList()));
+        result.put("hasMore", page.hasMore());
+        return result;
+    }
 }
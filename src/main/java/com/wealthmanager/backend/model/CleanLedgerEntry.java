@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,8 +26,10 @@ import java.time.LocalDateTime;
 @Builder
 public class CleanLedgerEntry {
 
+    /** Allocated one at a time: the position projector replays entries in id order. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clean_ledger_entry_id_seq")
+    @SequenceGenerator(name = "clean_ledger_entry_id_seq", sequenceName = "clean_ledger_entry_id_seq", allocationSize = 1)
     private Long id;
 
     @Column(name = "raw_ingestion_id")
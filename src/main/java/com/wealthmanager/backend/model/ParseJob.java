@@ -0,0 +1,58 @@
+package com.wealthmanager.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable queue entry asking for a raw ingestion to be parsed. Deleted in the same transaction
+ * that stores the extraction results.
+ */
+@Entity
+@Table(name = "parse_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParseJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parse_job_id_seq")
+    @SequenceGenerator(name = "parse_job_id_seq", sequenceName = "parse_job_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "raw_ingestion_id", nullable = false)
+    private Long rawIngestionId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /** Hidden from workers until this time (set when claimed: the visibility timeout). */
+    @Column(name = "visible_at", nullable = false)
+    private LocalDateTime visibleAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (visibleAt == null) {
+            visibleAt = createdAt;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
@@ -27,7 +28,8 @@ import java.time.LocalDateTime;
 public class PortfolioHolding {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "portfolio_holding_id_seq")
+    @SequenceGenerator(name = "portfolio_holding_id_seq", sequenceName = "portfolio_holding_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "raw_ingestion_id")
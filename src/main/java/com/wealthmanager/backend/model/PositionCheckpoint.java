@@ -0,0 +1,59 @@
+package com.wealthmanager.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Portfolio positions at the start of a month: every ledger entry dated before {@code checkpointDate}
+ * (JSON list of positions). Used as the starting point of point-in-time queries.
+ */
+@Entity
+@Table(name = "position_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PositionCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "position_checkpoint_id_seq")
+    @SequenceGenerator(name = "position_checkpoint_id_seq", sequenceName = "position_checkpoint_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "checkpoint_date", nullable = false, unique = true)
+    private LocalDateTime checkpointDate;
+
+    /** Highest clean_ledger_entry id that existed when the checkpoint was built. */
+    @Column(name = "ledger_entry_id", nullable = false)
+    private Long ledgerEntryId;
+
+    @Column(name = "position_count", nullable = false)
+    private Integer positionCount;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String positions;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.wealthmanager.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projected portfolio positions as of a ledger high-water mark (JSON list of positions).
+ */
+@Entity
+@Table(name = "position_snapshot")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PositionSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "position_snapshot_id_seq")
+    @SequenceGenerator(name = "position_snapshot_id_seq", sequenceName = "position_snapshot_id_seq", allocationSize = 1)
+    private Long id;
+
+    /** Highest clean_ledger_entry id included in this snapshot. */
+    @Column(name = "ledger_entry_id", nullable = false)
+    private Long ledgerEntryId;
+
+    @Column(name = "position_count", nullable = false)
+    private Integer positionCount;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String positions;
+
+    /** Ledger ids below the high-water mark not yet seen (possibly uncommitted) when taken; JSON list or null. */
+    @Column(name = "pending_entry_ids", columnDefinition = "TEXT")
+    private String pendingEntryIds;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
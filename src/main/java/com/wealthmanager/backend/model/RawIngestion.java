@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,8 +25,16 @@ import java.time.LocalDateTime;
 @Builder
 public class RawIngestion {
 
+    /** Waiting for (another) parse attempt. */
+    public static final String PARSE_PENDING = "PENDING";
+    /** At least one transaction was extracted and stored. */
+    public static final String PARSE_PARSED = "PARSED";
+    /** Dead-lettered: retries exhausted; only an admin requeue brings it back. */
+    public static final String PARSE_UNPARSEABLE = "UNPARSEABLE";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "raw_ingestion_id_seq")
+    @SequenceGenerator(name = "raw_ingestion_id_seq", sequenceName = "raw_ingestion_id_seq", allocationSize = 1)
     private Long id;
 
     @Column(nullable = false, length = 20)
@@ -54,6 +63,26 @@ public class RawIngestion {
     @Builder.Default
     private Boolean ingested = false;
 
+    /** Backlog worker lease: the row is skipped by other workers until this time. */
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "parse_status", nullable = false, length = 20)
+    @Builder.Default
+    private String parseStatus = PARSE_PENDING;
+
+    @Column(name = "parse_attempts", nullable = false)
+    @Builder.Default
+    private Integer parseAttempts = 0;
+
+    /** Why the last attempt produced nothing (exception class, or NoTransactionExtracted). */
+    @Column(name = "last_parse_error", length = 100)
+    private String lastParseError;
+
+    /** Earliest time the backlog worker may try this row again. */
+    @Column(name = "next_parse_at")
+    private LocalDateTime nextParseAt;
+
     @PrePersist
     protected void onCreate() {
         if (receivedAt == null) {
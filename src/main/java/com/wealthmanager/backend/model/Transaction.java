@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,7 +27,8 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_seq")
+    @SequenceGenerator(name = "transaction_id_seq", sequenceName = "transaction_id_seq", allocationSize = 1)
     private Long id;
 
     @Column(name = "raw_ingestion_id")
@@ -54,7 +56,10 @@ public class Transaction {
     @Column(columnDefinition = "TEXT")
     private String description;
 
-    /** Hash of amount+currency+type+date+merchant for deduplication (SMS vs email same txn). */
+    /**
+     * Hash of amount+currency+type+date+merchant for deduplication (SMS vs email same txn).
+     * 16 hex digits of the 64-bit DedupeIndex key; rows stored before that hold a SHA-256 hex.
+     */
     @Column(name = "dedupe_key", length = 64)
     private String dedupeKey;
 
@@ -0,0 +1,81 @@
+package com.wealthmanager.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Transaction count and amount for one day or month, one category or merchant, type and currency.
+ */
+@Entity
+@Table(name = "transaction_rollup")
+@IdClass(TransactionRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionRollup {
+
+    public static final String DAY = "D";
+    public static final String MONTH = "M";
+    public static final String CATEGORY = "CATEGORY";
+    public static final String MERCHANT = "MERCHANT";
+
+    @Id
+    @Column(length = 1)
+    private String granularity;
+
+    /** The day, or the first day of the month. */
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDate bucketStart;
+
+    @Id
+    @Column(length = 10)
+    private String dimension;
+
+    /** Category or merchant name; empty when the transaction has none. */
+    @Id
+    @Column(name = "dimension_value")
+    private String dimensionValue;
+
+    @Id
+    @Column(name = "transaction_type", length = 10)
+    private String transactionType;
+
+    @Id
+    @Column(length = 10)
+    private String currency;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 20, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String granularity;
+        private LocalDate bucketStart;
+        private String dimension;
+        private String dimensionValue;
+        private String transactionType;
+        private String currency;
+    }
+}
@@ -0,0 +1,51 @@
+package com.wealthmanager.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running transaction count and debit/credit sums for one currency, maintained on every insert.
+ */
+@Entity
+@Table(name = "transaction_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionTotals {
+
+    @Id
+    @Column(length = 10)
+    private String currency;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "debit_total", nullable = false, precision = 20, scale = 2)
+    private BigDecimal debitTotal;
+
+    @Column(name = "credit_total", nullable = false, precision = 20, scale = 2)
+    private BigDecimal creditTotal;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,14 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back as {@code cursor} to get the
+ * following page; it is null on the last page. No total count is computed.
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,19 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Dedupe fields of a stored transaction: what the exact key and the fuzzy rule compare, the stored
+ * dedupe key, and the channel ({@code source} of the ingestion it was parsed from, null if none).
+ */
+public record DedupeCandidate(
+        BigDecimal amount,
+        String currency,
+        String transactionType,
+        LocalDateTime transactionDate,
+        String merchantName,
+        String dedupeKey,
+        String source
+) {
+}
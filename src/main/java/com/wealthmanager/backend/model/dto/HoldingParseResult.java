@@ -0,0 +1,23 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A holding movement extracted from raw SMS/email text (SIP allotment, purchase or redemption).
+ * Persisted as a Clean Ledger entry; non-redemptions also update the portfolio holding.
+ */
+public record HoldingParseResult(
+        String entryType,
+        String instrumentType,
+        String name,
+        BigDecimal quantity
+) {
+    public boolean isRedemption() {
+        return "REDEMPTION".equals(entryType);
+    }
+
+    /** Short names double as the symbol; longer free-text names do not fit the symbol column. */
+    public String symbol() {
+        return name != null && name.length() <= 50 ? name : null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.time.LocalDateTime;
+
+public record IngestionParseStateResponse(
+        Long id,
+        String source,
+        String sourceId,
+        String senderAddress,
+        LocalDateTime receivedAt,
+        String parseStatus,
+        Integer parseAttempts,
+        String lastParseError,
+        LocalDateTime nextParseAt
+) {}
@@ -0,0 +1,18 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A raw SMS/email matching a text search: the message, an excerpt around the first match and its
+ * relevance (higher is better).
+ */
+public record MessageSearchHit(
+        Long id,
+        String source,
+        String senderAddress,
+        LocalDateTime receivedAt,
+        String parseStatus,
+        String snippet,
+        double rank
+) {
+}
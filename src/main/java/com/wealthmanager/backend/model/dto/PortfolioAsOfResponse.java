@@ -0,0 +1,17 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Portfolio positions at the end of {@code date}, rebuilt from the nearest position checkpoint
+ * ({@code checkpointDate}, null if none) plus {@code replayedEntries} later ledger entries.
+ */
+public record PortfolioAsOfResponse(
+        LocalDate date,
+        LocalDateTime checkpointDate,
+        int replayedEntries,
+        List<ProjectedPosition> positions
+) {
+}
@@ -0,0 +1,27 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A signed change to one portfolio position: positive for purchases/SIPs, negative for redemptions.
+ * Deltas from one ingestion are merged per (instrumentType, symbol) before they are applied.
+ */
+public record PositionDelta(
+        String instrumentType,
+        String symbol,
+        String name,
+        BigDecimal quantity,
+        Long rawIngestionId,
+        LocalDateTime at
+) {
+    public static PositionDelta of(HoldingParseResult h, Long rawIngestionId, LocalDateTime at) {
+        BigDecimal quantity = h.isRedemption() ? h.quantity().negate() : h.quantity();
+        return new PositionDelta(h.instrumentType(), h.symbol(), h.name(), quantity, rawIngestionId, at);
+    }
+
+    public PositionDelta plus(PositionDelta other) {
+        return new PositionDelta(instrumentType, symbol, other.name != null ? other.name : name,
+                quantity.add(other.quantity), other.rawIngestionId, other.at);
+    }
+}
@@ -0,0 +1,17 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One portfolio position as projected from the Clean Ledger (also the element type of position snapshots).
+ */
+public record ProjectedPosition(
+        String instrumentType,
+        String symbol,
+        String name,
+        BigDecimal quantity,
+        Long rawIngestionId,
+        LocalDateTime lastLedgerDate
+) {
+}
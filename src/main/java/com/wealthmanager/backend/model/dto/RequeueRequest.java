@@ -0,0 +1,14 @@
+package com.wealthmanager.backend.model.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record RequeueRequest(
+
+        @NotEmpty(message = "ids must not be empty")
+        @Size(max = 1000, message = "At most 1000 ids per request")
+        List<Long> ids
+) {
+}
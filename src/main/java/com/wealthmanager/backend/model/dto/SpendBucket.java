@@ -0,0 +1,18 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Spend of one category or merchant in one period (a day, a month, or the whole range starting at
+ * {@code period}); {@code name} is null for transactions without a category or merchant.
+ */
+public record SpendBucket(
+        LocalDate period,
+        String name,
+        String transactionType,
+        String currency,
+        long transactionCount,
+        BigDecimal totalAmount
+) {
+}
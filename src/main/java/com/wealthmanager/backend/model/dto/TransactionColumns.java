@@ -0,0 +1,16 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** The columns of a transaction the in-memory analytics column store keeps. */
+public record TransactionColumns(
+        Long id,
+        BigDecimal amount,
+        String currency,
+        String transactionType,
+        LocalDateTime transactionDate,
+        String category,
+        String merchantName
+) {
+}
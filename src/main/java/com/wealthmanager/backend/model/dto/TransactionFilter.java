@@ -0,0 +1,19 @@
+package com.wealthmanager.backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Criteria for transaction search; null fields are not filtered on. Dates and amounts are inclusive,
+ * {@code merchantPrefix} matches the start of the merchant name ignoring case.
+ */
+public record TransactionFilter(
+        LocalDate from,
+        LocalDate to,
+        String type,
+        String category,
+        String merchantPrefix,
+        BigDecimal minAmount,
+        BigDecimal maxAmount
+) {
+}
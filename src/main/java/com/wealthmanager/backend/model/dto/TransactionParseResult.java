@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * Result of parsing raw SMS/email text into a transaction.
@@ -20,6 +21,6 @@ public record TransactionParseResult(
 ) {
     /** DEBIT or CREDIT. */
     public String transactionType() {
-        return transactionType == null ? null : transactionType.toUpperCase();
+        return transactionType == null ? null : transactionType.toUpperCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,10 @@
+package com.wealthmanager.backend.model.dto;
+
+/**
+ * A transaction matching a text search, with its relevance (higher is better).
+ */
+public record TransactionSearchHit(
+        TransactionResponse transaction,
+        double rank
+) {
+}
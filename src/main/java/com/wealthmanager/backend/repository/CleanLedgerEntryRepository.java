@@ -1,19 +1,76 @@
 package com.wealthmanager.backend.repository;
 
 import com.wealthmanager.backend.model.CleanLedgerEntry;
+import com.wealthmanager.backend.model.dto.CleanLedgerEntryResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CleanLedgerEntryRepository extends JpaRepository<CleanLedgerEntry, Long> {
 
-    Page<CleanLedgerEntry> findAllByOrderByLedgerDateDesc(Pageable pageable);
+    /** Read paths select straight into {@link CleanLedgerEntryResponse}: no managed entities or snapshots. */
+    String SELECT_RESPONSE = "SELECT new com.wealthmanager.backend.model.dto.CleanLedgerEntryResponse("
+            + "e.id, e.rawIngestionId, e.entryType, e.instrumentType, e.symbol, e.name, e.quantity, e.price, "
+            + "e.amount, e.currency, e.ledgerDate, e.description, e.createdAt) FROM CleanLedgerEntry e ";
 
-    List<CleanLedgerEntry> findByInstrumentTypeOrderByLedgerDateDesc(String instrumentType, Pageable pageable);
+    int EXPORT_FETCH_SIZE = 500;
 
-    List<CleanLedgerEntry> findByRawIngestionId(Long rawIngestionId);
+    @Query(value = SELECT_RESPONSE + "ORDER BY e.ledgerDate DESC",
+            countQuery = "SELECT COUNT(e) FROM CleanLedgerEntry e")
+    Page<CleanLedgerEntryResponse> findResponses(Pageable pageable);
+
+    /** First page of the keyset listing (idx_clean_ledger_date_id); no count query. */
+    @Query(SELECT_RESPONSE + "ORDER BY e.ledgerDate DESC, e.id DESC")
+    List<CleanLedgerEntryResponse> findFirstResponsePage(Pageable pageable);
+
+    /** Entries after the cursor (date, id) in (date desc, id desc) order, as one row-value comparison on idx_clean_ledger_date_id. */
+    @Query(SELECT_RESPONSE + "WHERE (e.ledgerDate, e.id) < (:date, :id) "
+            + "ORDER BY e.ledgerDate DESC, e.id DESC")
+    List<CleanLedgerEntryResponse> findResponsePageAfter(@Param("date") LocalDateTime date, @Param("id") long id, Pageable pageable);
+
+    /**
+     * All entries dated in [from, to) (either bound optional), oldest first, for export, through a
+     * server-side cursor {@value #EXPORT_FETCH_SIZE} rows at a time; close the stream.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query(SELECT_RESPONSE + "WHERE (:from IS NULL OR e.ledgerDate >= :from) "
+            + "AND (:to IS NULL OR e.ledgerDate < :to) ORDER BY e.ledgerDate, e.id")
+    Stream<CleanLedgerEntryResponse> streamResponses(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(SELECT_RESPONSE + "WHERE e.instrumentType = :instrumentType ORDER BY e.ledgerDate DESC")
+    List<CleanLedgerEntryResponse> findResponsesByInstrumentType(@Param("instrumentType") String instrumentType, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE e.rawIngestionId = :rawIngestionId")
+    List<CleanLedgerEntryResponse> findResponsesByRawIngestionId(@Param("rawIngestionId") Long rawIngestionId);
+
+    /** Next ledger entries after the projector's high-water mark, in id order. */
+    List<CleanLedgerEntry> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /** Entries dated in [from, to), in date order (idx_clean_ledger_date); replayed on top of a position checkpoint. */
+    List<CleanLedgerEntry> findByLedgerDateGreaterThanEqualAndLedgerDateLessThanOrderByLedgerDateAscIdAsc(
+            LocalDateTime from, LocalDateTime to);
+
+    /** Entries dated before {@code to}, in date order; used when no checkpoint precedes the target date. */
+    List<CleanLedgerEntry> findByLedgerDateLessThanOrderByLedgerDateAscIdAsc(LocalDateTime to);
+
+    @Query("SELECT MAX(e.id) FROM CleanLedgerEntry e WHERE e.createdAt < :before")
+    Long findMaxIdCreatedBefore(@Param("before") LocalDateTime before);
+
+    @Query("SELECT MIN(e.ledgerDate) FROM CleanLedgerEntry e")
+    LocalDateTime findMinLedgerDate();
+
+    /** Earliest ledger date among entries with id > {@code id} (entries newer than a checkpoint). */
+    @Query("SELECT MIN(e.ledgerDate) FROM CleanLedgerEntry e WHERE e.id > :id")
+    LocalDateTime findMinLedgerDateAfterId(@Param("id") Long id);
 }
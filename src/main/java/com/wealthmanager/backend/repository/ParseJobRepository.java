@@ -0,0 +1,36 @@
+package com.wealthmanager.backend.repository;
+
+import com.wealthmanager.backend.model.ParseJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ParseJobRepository extends JpaRepository<ParseJob, Long> {
+
+    /**
+     * Lock the oldest visible jobs, skipping rows another worker holds. Must run inside a transaction.
+     */
+    @Query(value = "SELECT * FROM parse_job WHERE visible_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ParseJob> lockVisible(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /** The job, locked until the transaction ends (ownership check before saving its results). */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM ParseJob j WHERE j.id = :id")
+    Optional<ParseJob> findByIdForUpdate(@Param("id") Long id);
+
+    /** Hide claimed jobs for the visibility timeout and count the attempt. */
+    @Modifying
+    @Query("UPDATE ParseJob j SET j.visibleAt = :until, j.attempts = j.attempts + 1 WHERE j.id IN :ids")
+    int hideUntil(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+}
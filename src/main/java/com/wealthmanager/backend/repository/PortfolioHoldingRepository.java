@@ -1,18 +1,78 @@
 package com.wealthmanager.backend.repository;
 
 import com.wealthmanager.backend.model.PortfolioHolding;
+import com.wealthmanager.backend.model.dto.PortfolioHoldingResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PortfolioHoldingRepository extends JpaRepository<PortfolioHolding, Long> {
 
-    List<PortfolioHolding> findAllByOrderByInstrumentTypeAscSymbolAsc();
+    /** Read paths select straight into {@link PortfolioHoldingResponse}: no managed entities or snapshots. */
+    String SELECT_RESPONSE = "SELECT new com.wealthmanager.backend.model.dto.PortfolioHoldingResponse("
+            + "h.id, h.rawIngestionId, h.instrumentType, h.symbol, h.name, h.quantity, h.averagePrice, "
+            + "h.currentValue, h.currency, h.lastUpdated, h.createdAt) FROM PortfolioHolding h ";
 
-    List<PortfolioHolding> findByInstrumentTypeOrderBySymbolAsc(String instrumentType);
+    @Query(SELECT_RESPONSE + "ORDER BY h.instrumentType, h.symbol")
+    List<PortfolioHoldingResponse> findAllResponses();
+
+    @Query(SELECT_RESPONSE + "WHERE h.instrumentType = :instrumentType ORDER BY h.symbol")
+    List<PortfolioHoldingResponse> findResponsesByInstrumentType(@Param("instrumentType") String instrumentType);
 
     Optional<PortfolioHolding> findByInstrumentTypeAndSymbol(String instrumentType, String symbol);
+
+    Optional<PortfolioHolding> findFirstByInstrumentTypeAndSymbolIsNullAndNameOrderByIdAsc(String instrumentType, String name);
+
+    /** Rows of the given symbols (the projector reads only the positions it is about to write). */
+    List<PortfolioHolding> findBySymbolIn(Collection<String> symbols);
+
+    /** Symbol-less rows with the given names. */
+    List<PortfolioHolding> findBySymbolIsNullAndNameIn(Collection<String> names);
+
+    /**
+     * Insert the holding, or add its quantity to the existing (instrument type, symbol) row, in one
+     * atomic round trip (PostgreSQL). Price, value and name are only overwritten when given.
+     * Holdings without a symbol never conflict (NULLs are distinct) and always insert.
+     *
+     * @return the row as stored after the insert or update
+     */
+    @Query(value = "INSERT INTO portfolio_holding (raw_ingestion_id, instrument_type, symbol, name, quantity, "
+            + "average_price, current_value, currency, last_updated, created_at) "
+            + "VALUES (CAST(:#{#h.rawIngestionId} AS BIGINT), :#{#h.instrumentType}, CAST(:#{#h.symbol} AS VARCHAR), "
+            + "CAST(:#{#h.name} AS VARCHAR), :#{#h.quantity}, CAST(:#{#h.averagePrice} AS NUMERIC), "
+            + "CAST(:#{#h.currentValue} AS NUMERIC), :#{#h.currency}, :#{#h.lastUpdated}, :#{#h.createdAt}) "
+            + "ON CONFLICT (instrument_type, symbol) DO UPDATE SET "
+            + "quantity = portfolio_holding.quantity + EXCLUDED.quantity, "
+            + "average_price = COALESCE(EXCLUDED.average_price, portfolio_holding.average_price), "
+            + "current_value = COALESCE(EXCLUDED.current_value, portfolio_holding.current_value), "
+            + "name = COALESCE(EXCLUDED.name, portfolio_holding.name), "
+            + "last_updated = EXCLUDED.last_updated, "
+            + "raw_ingestion_id = EXCLUDED.raw_ingestion_id "
+            + "RETURNING *", nativeQuery = true)
+    PortfolioHolding upsertAddingQuantity(@Param("h") PortfolioHolding h);
+
+    /**
+     * Add a negative delta to an existing position in place, never going below zero (a redemption of
+     * units bought before ingestion started). Positions that do not exist are left alone.
+     *
+     * @return number of rows updated (0 or 1)
+     */
+    @Modifying
+    @Query("UPDATE PortfolioHolding h SET h.quantity = CASE WHEN h.quantity + :delta < 0 THEN 0 ELSE h.quantity + :delta END, "
+            + "h.lastUpdated = :at, h.rawIngestionId = :rawIngestionId "
+            + "WHERE h.instrumentType = :instrumentType AND h.symbol = :symbol")
+    int decrementQuantity(@Param("instrumentType") String instrumentType,
+                          @Param("symbol") String symbol,
+                          @Param("delta") BigDecimal delta,
+                          @Param("at") LocalDateTime at,
+                          @Param("rawIngestionId") Long rawIngestionId);
 }
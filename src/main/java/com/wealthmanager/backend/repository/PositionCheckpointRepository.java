@@ -0,0 +1,27 @@
+package com.wealthmanager.backend.repository;
+
+import com.wealthmanager.backend.model.PositionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PositionCheckpointRepository extends JpaRepository<PositionCheckpoint, Long> {
+
+    /** Nearest checkpoint at or before {@code date}. */
+    Optional<PositionCheckpoint> findTopByCheckpointDateLessThanEqualOrderByCheckpointDateDesc(LocalDateTime date);
+
+    Optional<PositionCheckpoint> findTopByOrderByCheckpointDateDesc();
+
+    @Query("SELECT MAX(c.ledgerEntryId) FROM PositionCheckpoint c")
+    Long findMaxLedgerEntryId();
+
+    @Modifying
+    @Query("DELETE FROM PositionCheckpoint c WHERE c.checkpointDate > :date")
+    int deleteByCheckpointDateAfter(@Param("date") LocalDateTime date);
+}
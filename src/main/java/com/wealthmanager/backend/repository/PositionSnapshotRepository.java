@@ -0,0 +1,23 @@
+package com.wealthmanager.backend.repository;
+
+import com.wealthmanager.backend.model.PositionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PositionSnapshotRepository extends JpaRepository<PositionSnapshot, Long> {
+
+    Optional<PositionSnapshot> findTopByOrderByLedgerEntryIdDescIdDesc();
+
+    List<PositionSnapshot> findTop3ByOrderByLedgerEntryIdDescIdDesc();
+
+    @Modifying
+    @Query("DELETE FROM PositionSnapshot s WHERE s.id NOT IN :keep")
+    int deleteAllExcept(@Param("keep") List<Long> keep);
+}
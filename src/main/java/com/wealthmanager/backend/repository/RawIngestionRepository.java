@@ -1,16 +1,86 @@
 package com.wealthmanager.backend.repository;
 
 import com.wealthmanager.backend.model.RawIngestion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RawIngestionRepository extends JpaRepository<RawIngestion, Long> {
 
     List<RawIngestion> findByProcessedFalse();
 
+    /**
+     * Ids and ranks of messages whose body matches {@code tsquery}, best first, after the (rank, id)
+     * cursor if given (PostgreSQL: GIN index idx_raw_ingestion_search_vector).
+     */
+    @Query(value = "SELECT s.id, s.rank FROM ("
+            + "SELECT r.id, CAST(ts_rank(r.search_vector, to_tsquery('simple', :tsquery)) AS double precision) AS rank "
+            + "FROM raw_ingestion r WHERE r.search_vector @@ to_tsquery('simple', :tsquery)) s "
+            + "WHERE CAST(:afterRank AS double precision) IS NULL "
+            + "OR (s.rank, s.id) < (CAST(:afterRank AS double precision), CAST(:afterId AS BIGINT)) "
+            + "ORDER BY s.rank DESC, s.id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> searchText(@Param("tsquery") String tsquery,
+                              @Param("afterRank") Double afterRank,
+                              @Param("afterId") Long afterId,
+                              @Param("limit") int limit);
+
+    /**
+     * Lock the next unprocessed, unleased rows after {@code afterId} (keyset order) whose retry backoff
+     * has elapsed and that have no pending parse job. Rows locked by another worker are skipped rather
+     * than waited on. Must run inside a transaction.
+     */
+    @Query(value = "SELECT id FROM raw_ingestion WHERE processed = FALSE AND parse_status = 'PENDING' "
+            + "AND id > :afterId "
+            + "AND (claimed_until IS NULL OR claimed_until < :now) "
+            + "AND (next_parse_at IS NULL OR next_parse_at <= :now) "
+            + "AND NOT EXISTS (SELECT 1 FROM parse_job j WHERE j.raw_ingestion_id = raw_ingestion.id) "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockNextUnclaimed(@Param("afterId") long afterId,
+                                 @Param("now") LocalDateTime now,
+                                 @Param("limit") int limit);
+
+    /** The row, locked against concurrent writers until the transaction ends (lease check before saving results). */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RawIngestion r WHERE r.id = :id")
+    Optional<RawIngestion> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE RawIngestion r SET r.claimedUntil = :until WHERE r.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+    Page<RawIngestion> findByParseStatusOrderByIdDesc(String parseStatus, Pageable pageable);
+
+    /** Reset retry state so the backlog worker picks the rows up on its next run. */
+    @Modifying
+    @Query("UPDATE RawIngestion r SET r.parseStatus = 'PENDING', r.parseAttempts = 0, r.lastParseError = NULL, "
+            + "r.nextParseAt = NULL, r.claimedUntil = NULL WHERE r.id IN :ids AND r.processed = FALSE")
+    int requeueForParsing(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Insert unless a row with the same source id exists, in one round trip (PostgreSQL).
+     *
+     * @return the new id, or empty if the source id was already stored (possibly by a concurrent writer)
+     */
+    @Query(value = "INSERT INTO raw_ingestion (source, source_id, sender_address, raw_body, received_at, "
+            + "processed, processed_at, ingested, parse_status, parse_attempts) "
+            + "VALUES (:#{#r.source}, CAST(:#{#r.sourceId} AS VARCHAR), CAST(:#{#r.senderAddress} AS VARCHAR), "
+            + ":#{#r.rawBody}, :#{#r.receivedAt}, :#{#r.processed}, CAST(:#{#r.processedAt} AS TIMESTAMP), "
+            + ":#{#r.ingested}, :#{#r.parseStatus}, :#{#r.parseAttempts}) "
+            + "ON CONFLICT (source_id) WHERE source_id IS NOT NULL DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("r") RawIngestion r);
+
     boolean existsBySourceId(String sourceId);
 
     boolean existsBySourceIdAndIngestedTrue(String sourceId);
@@ -0,0 +1,19 @@
+package com.wealthmanager.backend.repository;
+
+import com.wealthmanager.backend.model.Transaction;
+
+import java.util.List;
+import java.util.Map;
+
+/** Multi-row writes of {@link TransactionRepository} that Spring Data queries cannot express. */
+public interface TransactionBatchRepository {
+
+    /**
+     * Insert all transactions in one statement, skipping those whose dedupe key is already stored
+     * (PostgreSQL: {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT DO NOTHING RETURNING}).
+     *
+     * @return the new id per inserted dedupe key; keys that were already stored (possibly by a
+     * concurrent writer) are absent
+     */
+    Map<String, Long> insertAllIfAbsent(List<Transaction> transactions);
+}
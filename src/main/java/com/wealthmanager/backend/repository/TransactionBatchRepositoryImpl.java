@@ -0,0 +1,94 @@
+package com.wealthmanager.backend.repository;
+
+import com.wealthmanager.backend.model.Transaction;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One round trip for a whole parsed message: each column is bound as one array and unnested into
+ * rows, so the statement and its plan do not depend on the batch size. Ids come from the column
+ * default (see V11), as with the other native inserts.
+ */
+class TransactionBatchRepositoryImpl implements TransactionBatchRepository {
+
+    private static final String INSERT_ALL = "INSERT INTO transaction (raw_ingestion_id, amount, currency, "
+            + "merchant_name, category, transaction_type, transaction_date, description, dedupe_key, created_at) "
+            + "SELECT * FROM unnest(CAST(? AS BIGINT[]), CAST(? AS NUMERIC[]), CAST(? AS VARCHAR[]), "
+            + "CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]), CAST(? AS TIMESTAMP[]), "
+            + "CAST(? AS TEXT[]), CAST(? AS VARCHAR[]), CAST(? AS TIMESTAMP[])) "
+            + "ON CONFLICT (dedupe_key) WHERE dedupe_key IS NOT NULL DO NOTHING RETURNING id, dedupe_key";
+
+    private final EntityManager entityManager;
+
+    TransactionBatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Map<String, Long> insertAllIfAbsent(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Map.of();
+        }
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> insertAll(connection, transactions));
+    }
+
+    private static Map<String, Long> insertAll(Connection connection, List<Transaction> transactions) throws SQLException {
+        int n = transactions.size();
+        Object[] rawIngestionIds = new Object[n];
+        Object[] amounts = new Object[n];
+        Object[] currencies = new Object[n];
+        Object[] merchants = new Object[n];
+        Object[] categories = new Object[n];
+        Object[] types = new Object[n];
+        Object[] dates = new Object[n];
+        Object[] descriptions = new Object[n];
+        Object[] dedupeKeys = new Object[n];
+        Object[] createdAts = new Object[n];
+        for (int i = 0; i < n; i++) {
+            Transaction t = transactions.get(i);
+            rawIngestionIds[i] = t.getRawIngestionId();
+            amounts[i] = t.getAmount();
+            currencies[i] = t.getCurrency();
+            merchants[i] = t.getMerchantName();
+            categories[i] = t.getCategory();
+            types[i] = t.getTransactionType();
+            dates[i] = timestamp(t.getTransactionDate());
+            descriptions[i] = t.getDescription();
+            dedupeKeys[i] = t.getDedupeKey();
+            createdAts[i] = timestamp(t.getCreatedAt());
+        }
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ALL)) {
+            ps.setArray(1, connection.createArrayOf("bigint", rawIngestionIds));
+            ps.setArray(2, connection.createArrayOf("numeric", amounts));
+            ps.setArray(3, connection.createArrayOf("varchar", currencies));
+            ps.setArray(4, connection.createArrayOf("varchar", merchants));
+            ps.setArray(5, connection.createArrayOf("varchar", categories));
+            ps.setArray(6, connection.createArrayOf("varchar", types));
+            ps.setArray(7, connection.createArrayOf("timestamp", dates));
+            ps.setArray(8, connection.createArrayOf("text", descriptions));
+            ps.setArray(9, connection.createArrayOf("varchar", dedupeKeys));
+            ps.setArray(10, connection.createArrayOf("timestamp", createdAts));
+            Map<String, Long> ids = new HashMap<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                }
+            }
+            return ids;
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+}
@@ -1,33 +1,123 @@
 package com.wealthmanager.backend.repository;
 
 import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.DedupeCandidate;
+import com.wealthmanager.backend.model.dto.TransactionColumns;
+import com.wealthmanager.backend.model.dto.TransactionResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction>,
+        TransactionBatchRepository {
 
-    boolean existsByDedupeKeyAndTransactionDateBetween(String dedupeKey, LocalDateTime start, LocalDateTime end);
+    /**
+     * Read paths select straight into {@link TransactionResponse} with a constructor expression: no
+     * managed entities, no dirty-checking snapshots, only the columns the response needs.
+     */
+    String SELECT_RESPONSE = "SELECT new com.wealthmanager.backend.model.dto.TransactionResponse("
+            + "t.id, t.amount, t.currency, t.merchantName, t.category, t.transactionType, t.transactionDate, "
+            + "t.description, t.createdAt) FROM Transaction t ";
 
-    Page<Transaction> findAllByOrderByTransactionDateDesc(Pageable pageable);
+    int EXPORT_FETCH_SIZE = 500;
 
-    List<Transaction> findByCategory(String category);
+    String SELECT_DEDUPE_CANDIDATE = "SELECT new com.wealthmanager.backend.model.dto.DedupeCandidate("
+            + "t.amount, t.currency, t.transactionType, t.transactionDate, t.merchantName, t.dedupeKey, r.source) "
+            + "FROM Transaction t LEFT JOIN RawIngestion r ON r.id = t.rawIngestionId ";
 
-    List<Transaction> findByTransactionTypeOrderByTransactionDateDesc(String transactionType, Pageable pageable);
+    /** Dedupe fields and channel of transactions in a date range. */
+    @Query(SELECT_DEDUPE_CANDIDATE + "WHERE t.transactionDate BETWEEN :start AND :end")
+    List<DedupeCandidate> findDedupeFieldsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
-    @Query("SELECT COUNT(t) FROM Transaction t")
-    long countAll();
+    /** Dedupe fields and channel of transactions with one of the given amounts in a date range (index miss fallback). */
+    @Query(SELECT_DEDUPE_CANDIDATE + "WHERE t.amount IN :amounts AND t.transactionDate BETWEEN :start AND :end")
+    List<DedupeCandidate> findDedupeFieldsByAmounts(@Param("amounts") Collection<BigDecimal> amounts,
+                                                    @Param("start") LocalDateTime start,
+                                                    @Param("end") LocalDateTime end);
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.transactionType = 'DEBIT'")
-    BigDecimal sumDebitAmount();
+    /** Analytics columns of transactions after {@code afterId}, in id order. */
+    @Query("SELECT new com.wealthmanager.backend.model.dto.TransactionColumns(t.id, t.amount, t.currency, "
+            + "t.transactionType, t.transactionDate, t.category, t.merchantName) "
+            + "FROM Transaction t WHERE t.id > :afterId ORDER BY t.id")
+    List<TransactionColumns> findColumnsAfterId(@Param("afterId") long afterId, Pageable pageable);
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.transactionType = 'CREDIT'")
-    BigDecimal sumCreditAmount();
+    /**
+     * Ids and ranks of transactions whose merchant/category/description match {@code tsquery}, or whose
+     * merchant contains a word trigram-similar to {@code term}, best first, after the (rank, id) cursor if given
+     * (PostgreSQL: GIN indexes idx_transaction_search_vector and idx_transaction_merchant_trgm).
+     * <p>
+     * Full-text hits rank in [1, 2) and fuzzy-only merchant hits in [0, 0.5], so a misspelling never
+     * outranks a real match; within each band the normalized ts_rank_cd (rank / (rank + 1)) and the
+     * merchant word similarity are weighted equally.
+     */
+    @Query(value = "SELECT s.id, s.rank FROM ("
+            + "SELECT t.id, CAST("
+            + "CASE WHEN t.search_vector @@ to_tsquery('simple', :tsquery) THEN 1 ELSE 0 END "
+            + "+ 0.5 * ts_rank_cd(t.search_vector, to_tsquery('simple', :tsquery), 32) "
+            + "+ 0.5 * word_similarity(:term, lower(t.merchant_name)) AS double precision) AS rank "
+            + "FROM transaction t "
+            + "WHERE t.search_vector @@ to_tsquery('simple', :tsquery) OR :term <% lower(t.merchant_name)) s "
+            + "WHERE CAST(:afterRank AS double precision) IS NULL "
+            + "OR (s.rank, s.id) < (CAST(:afterRank AS double precision), CAST(:afterId AS BIGINT)) "
+            + "ORDER BY s.rank DESC, s.id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> searchText(@Param("tsquery") String tsquery,
+                              @Param("term") String term,
+                              @Param("afterRank") Double afterRank,
+                              @Param("afterId") Long afterId,
+                              @Param("limit") int limit);
+
+    @Query(value = SELECT_RESPONSE + "ORDER BY t.transactionDate DESC",
+            countQuery = "SELECT COUNT(t) FROM Transaction t")
+    Page<TransactionResponse> findResponses(Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE t.id = :id")
+    Optional<TransactionResponse> findResponseById(@Param("id") Long id);
+
+    /** Responses for the given ids, in no particular order. */
+    @Query(SELECT_RESPONSE + "WHERE t.id IN :ids")
+    List<TransactionResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** First page of the keyset listing (idx_transaction_date_id); no count query. */
+    @Query(SELECT_RESPONSE + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionResponse> findFirstResponsePage(Pageable pageable);
+
+    /** Rows after the cursor (date, id) in (date desc, id desc) order, as one row-value comparison on idx_transaction_date_id. */
+    @Query(SELECT_RESPONSE + "WHERE (t.transactionDate, t.id) < (:date, :id) "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionResponse> findResponsePageAfter(@Param("date") LocalDateTime date, @Param("id") long id, Pageable pageable);
+
+    /**
+     * All rows dated in [from, to) (either bound optional), oldest first, for export. Read through a
+     * server-side cursor {@value #EXPORT_FETCH_SIZE} rows at a time (PostgreSQL needs an open
+     * transaction for that); close the stream.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query(SELECT_RESPONSE + "WHERE (:from IS NULL OR t.transactionDate >= :from) "
+            + "AND (:to IS NULL OR t.transactionDate < :to) ORDER BY t.transactionDate, t.id")
+    Stream<TransactionResponse> streamResponses(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(SELECT_RESPONSE + "WHERE t.transactionType = :type ORDER BY t.transactionDate DESC")
+    List<TransactionResponse> findResponsesByType(@Param("type") String transactionType, Pageable pageable);
+
+    /** Count, debit sum and credit sum per currency over the whole table (reconciliation of transaction_totals). */
+    @Query("SELECT t.currency, COUNT(t), "
+            + "COALESCE(SUM(CASE WHEN t.transactionType = 'DEBIT' THEN t.amount END), 0), "
+            + "COALESCE(SUM(CASE WHEN t.transactionType = 'CREDIT' THEN t.amount END), 0) "
+            + "FROM Transaction t GROUP BY t.currency")
+    List<Object[]> sumByCurrency();
 }
@@ -0,0 +1,48 @@
+package com.wealthmanager.backend.repository;
+
+import com.wealthmanager.backend.model.TransactionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, TransactionRollup.Key> {
+
+    /** Add to one bucket, creating it on first use (PostgreSQL). */
+    @Modifying
+    @Query(value = "INSERT INTO transaction_rollup (granularity, bucket_start, dimension, dimension_value, "
+            + "transaction_type, currency, transaction_count, total_amount) "
+            + "VALUES (:#{#r.granularity}, :#{#r.bucketStart}, :#{#r.dimension}, :#{#r.dimensionValue}, "
+            + ":#{#r.transactionType}, :#{#r.currency}, :#{#r.transactionCount}, :#{#r.totalAmount}) "
+            + "ON CONFLICT (granularity, bucket_start, dimension, dimension_value, transaction_type, currency) DO UPDATE SET "
+            + "transaction_count = transaction_rollup.transaction_count + EXCLUDED.transaction_count, "
+            + "total_amount = transaction_rollup.total_amount + EXCLUDED.total_amount", nativeQuery = true)
+    int add(@Param("r") TransactionRollup r);
+
+    /** Buckets of one granularity starting in [from, to), optionally of one transaction type. */
+    @Query("SELECT r FROM TransactionRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to "
+            + "AND (:type IS NULL OR r.transactionType = :type)")
+    List<TransactionRollup> findBuckets(@Param("granularity") String granularity,
+                                        @Param("dimension") String dimension,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("type") String type);
+
+    /** Buckets in [from, to) summed per dimension value (for whole-range totals without per-bucket rows). */
+    @Query("SELECT r.dimensionValue, r.transactionType, r.currency, SUM(r.transactionCount), SUM(r.totalAmount) "
+            + "FROM TransactionRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to "
+            + "AND (:type IS NULL OR r.transactionType = :type) "
+            + "GROUP BY r.dimensionValue, r.transactionType, r.currency")
+    List<Object[]> sumBuckets(@Param("granularity") String granularity,
+                              @Param("dimension") String dimension,
+                              @Param("from") LocalDate from,
+                              @Param("to") LocalDate to,
+                              @Param("type") String type);
+}
@@ -0,0 +1,39 @@
+package com.wealthmanager.backend.repository;
+
+import com.wealthmanager.backend.model.TransactionTotals;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface TransactionTotalsRepository extends JpaRepository<TransactionTotals, String> {
+
+    /**
+     * Add to the totals of one currency, creating its row on first use (PostgreSQL). The row stays locked
+     * until the surrounding transaction commits, so concurrent inserts in one currency apply in turn.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO transaction_totals (currency, transaction_count, debit_total, credit_total, updated_at) "
+            + "VALUES (:currency, :count, :debit, :credit, NOW()) "
+            + "ON CONFLICT (currency) DO UPDATE SET "
+            + "transaction_count = transaction_totals.transaction_count + EXCLUDED.transaction_count, "
+            + "debit_total = transaction_totals.debit_total + EXCLUDED.debit_total, "
+            + "credit_total = transaction_totals.credit_total + EXCLUDED.credit_total, "
+            + "updated_at = NOW()", nativeQuery = true)
+    int addTotals(@Param("currency") String currency,
+                  @Param("count") long count,
+                  @Param("debit") BigDecimal debit,
+                  @Param("credit") BigDecimal credit);
+
+    /** All totals rows, locked against concurrent {@link #addTotals} until the transaction ends (reconciliation). */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TransactionTotals t ORDER BY t.currency")
+    List<TransactionTotals> findAllForUpdate();
+}
@@ -0,0 +1,142 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.ai.TransactionParser;
+import com.wealthmanager.backend.repository.RawIngestionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains unprocessed ingestions in small claimed batches.
+ * <p>
+ * Each batch is claimed in a short transaction ({@code SELECT id ... FOR UPDATE SKIP LOCKED} in id
+ * order, then a lease is stamped on the rows), so concurrent workers - threads or nodes - never pick the
+ * same row. The claimed rows are parsed in parallel, bounded by {@code app.ai.backlog-concurrency}, and
+ * each one commits on its own. Only ids are read when claiming; bodies are loaded per item.
+ * Rows that yield nothing keep their lease and are retried once it expires.
+ */
+@Component
+@Slf4j
+public class BacklogWorker {
+
+    private final RawIngestionRepository rawIngestionRepository;
+    private final TransactionParsingService transactionParsingService;
+    private final TransactionParser transactionParser;
+    private final DeferredParseQueue deferredParseQueue;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long leaseMs;
+    private final ExecutorService executor;
+
+    public BacklogWorker(RawIngestionRepository rawIngestionRepository,
+                         TransactionParsingService transactionParsingService,
+                         TransactionParser transactionParser,
+                         DeferredParseQueue deferredParseQueue,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${app.ai.backlog-concurrency:2}") int concurrency,
+                         @Value("${app.ai.backlog-batch-size:10}") int batchSize,
+                         @Value("${app.ai.backlog-claim-lease-ms:900000}") long leaseMs) {
+        this.rawIngestionRepository = rawIngestionRepository;
+        this.transactionParsingService = transactionParsingService;
+        this.transactionParser = transactionParser;
+        this.deferredParseQueue = deferredParseQueue;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "backlog-parse-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Process all unprocessed ingestions (e.g. from scheduler or on startup).
+     *
+     * @return number of ingestions that produced at least one transaction
+     */
+    public int processBacklog() {
+        if (!transactionParser.isAvailable()) {
+            log.info("Backlog: parser unavailable, skipping run ({} ingestion(s) deferred)", deferredParseQueue.size());
+            return 0;
+        }
+        int processed = 0;
+        int claimedTotal = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = claimBatch(afterId);
+            if (ids.isEmpty()) {
+                break;
+            }
+            claimedTotal += ids.size();
+            afterId = ids.get(ids.size() - 1);
+
+            List<Future<Boolean>> results = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                results.add(executor.submit(() -> transactionParsingService.processClaimed(id)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    if (results.get(i).get()) {
+                        processed++;
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("Parse failed for ingestion id={}: {}", ids.get(i), e.getCause().getMessage(), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return processed;
+                }
+            }
+
+            if (!transactionParser.isAvailable()) {
+                log.warn("Backlog: parser became unavailable, stopping run; remaining rows wait for the next run");
+                break;
+            }
+        }
+        if (claimedTotal == 0) {
+            log.debug("Backlog: no unprocessed ingestions");
+        } else if (processed > 0) {
+            log.info("Processed {} of {} claimed ingestions from backlog", processed, claimedTotal);
+        } else {
+            log.warn("Backlog: 0 transactions saved from {} ingestion(s). Check LLM/parser logs above.", claimedTotal);
+        }
+        return processed;
+    }
+
+    /** Lock and lease the next batch in one short transaction; the lease outlives the lock. */
+    private List<Long> claimBatch(long afterId) {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> locked = rawIngestionRepository.lockNextUnclaimed(afterId, now, batchSize);
+            if (!locked.isEmpty()) {
+                rawIngestionRepository.claim(locked, now.plusNanos(leaseMs * 1_000_000));
+            }
+            return locked;
+        });
+        return ids != null ? ids : List.of();
+    }
+
+    /** Process unprocessed ingestions every 5 minutes. */
+    @Scheduled(fixedDelayString = "${app.ai.backlog-interval-ms:300000}")
+    public void processBacklogScheduled() {
+        processBacklog();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
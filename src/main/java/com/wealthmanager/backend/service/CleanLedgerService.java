@@ -2,15 +2,17 @@ package com.wealthmanager.backend.service;
 
 import com.wealthmanager.backend.model.CleanLedgerEntry;
 import com.wealthmanager.backend.model.dto.CleanLedgerEntryResponse;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.PageCursor;
 import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -24,22 +26,33 @@ public class CleanLedgerService {
     }
 
     public Page<CleanLedgerEntryResponse> getAllEntries(Pageable pageable) {
-        return cleanLedgerEntryRepository.findAllByOrderByLedgerDateDesc(pageable)
-                .map(this::toResponse);
+        return cleanLedgerEntryRepository.findResponses(pageable);
+    }
+
+    /** Keyset page: newest first, continuing after {@code cursor} (null for the first page); never counts. */
+    public CursorPage<CleanLedgerEntryResponse> getEntriesPage(String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<CleanLedgerEntryResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = cleanLedgerEntryRepository.findFirstResponsePage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = cleanLedgerEntryRepository.findResponsePageAfter(after.date(), after.id(), limit);
+        }
+        boolean hasMore = rows.size() > size;
+        List<CleanLedgerEntryResponse> page = hasMore ? rows.subList(0, size) : rows;
+        String next = hasMore
+                ? new PageCursor(page.get(size - 1).ledgerDate(), page.get(size - 1).id()).encode()
+                : null;
+        return new CursorPage<>(page, next, hasMore);
     }
 
     public List<CleanLedgerEntryResponse> getEntriesByInstrumentType(String instrumentType, Pageable pageable) {
-        return cleanLedgerEntryRepository.findByInstrumentTypeOrderByLedgerDateDesc(instrumentType, pageable)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return cleanLedgerEntryRepository.findResponsesByInstrumentType(instrumentType, pageable);
     }
 
     public List<CleanLedgerEntryResponse> getEntriesByRawIngestionId(Long rawIngestionId) {
-        return cleanLedgerEntryRepository.findByRawIngestionId(rawIngestionId)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return cleanLedgerEntryRepository.findResponsesByRawIngestionId(rawIngestionId);
     }
 
     @Transactional
@@ -0,0 +1,374 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.DedupeCandidate;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index of recent transaction dedupe keys: day bucket (epoch day of the transaction date)
+ * to an open-addressing set of 64-bit keys. Lookups are lock-free; inserts lock only their day bucket.
+ * <p>
+ * The key is a 64-bit hash over the normalized amount, currency, type, day and merchant, computed
+ * without building strings. The index is warmed from stored transactions on startup and keeps the
+ * last {@code app.dedupe.window-days} days; a miss is not proof of absence (older dates, other nodes),
+ * so callers confirm misses against the database.
+ * <p>
+ * Each day bucket also serves as a blocking index for fuzzy matching: merchant names grouped by
+ * (amount, currency, type), with the channel (ingestion source) they arrived on. A transaction whose
+ * exact key misses is compared only with the merchants in its own block on the same day and the days
+ * either side that came from another channel, e.g. SMS "AMAZON" against email "Amazon Pay India Pvt
+ * Ltd", never with the whole table. One channel does not report the same payment twice, so a similar
+ * line from the same channel, or the very same merchant on another day, is a repeat purchase.
+ */
+@Component
+@Slf4j
+public class DedupeIndex {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final TransactionRepository transactionRepository;
+    private final int windowDays;
+    private final boolean fuzzyEnabled;
+    private final double fuzzyThreshold;
+    private final Map<Long, DayBucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder fuzzyHits = new LongAdder();
+
+    public DedupeIndex(TransactionRepository transactionRepository,
+                       @Value("${app.dedupe.window-days:8}") int windowDays,
+                       @Value("${app.dedupe.fuzzy.enabled:true}") boolean fuzzyEnabled,
+                       @Value("${app.dedupe.fuzzy.threshold:0.88}") double fuzzyThreshold) {
+        this.transactionRepository = transactionRepository;
+        this.windowDays = windowDays;
+        this.fuzzyEnabled = fuzzyEnabled;
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    /**
+     * Dedupe key: same amount (to the paisa), currency, type, day and merchant (trimmed, upper-cased,
+     * whitespace collapsed) = same transaction, e.g. the SMS and the email for one payment.
+     */
+    public static long key(BigDecimal amount, String currency, String transactionType,
+                           LocalDateTime transactionDate, String merchantName) {
+        long h = FNV_OFFSET;
+        h = mix(h, amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0L);
+        h = mixText(h, currency, false);
+        h = mixText(h, transactionType, false);
+        h = mix(h, transactionDate != null ? transactionDate.toLocalDate().toEpochDay() : Long.MIN_VALUE);
+        h = mixText(h, merchantName, true);
+        return fmix(h);
+    }
+
+    public static long key(Transaction t) {
+        return key(t.getAmount(), t.getCurrency(), t.getTransactionType(), t.getTransactionDate(), t.getMerchantName());
+    }
+
+    /** Blocking key for fuzzy matching: amount, currency and type, without day or merchant. */
+    static long blockKey(BigDecimal amount, String currency, String transactionType) {
+        long h = FNV_OFFSET;
+        h = mix(h, amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0L);
+        h = mixText(h, currency, false);
+        h = mixText(h, transactionType, false);
+        return fmix(h);
+    }
+
+    /** Stored form of the key (transaction.dedupe_key): 16 lower-case hex digits. */
+    public static String toStoredKey(long key) {
+        return HexFormat.of().toHexDigits(key);
+    }
+
+    /**
+     * Stored key of the {@code occurrence}-th repeat (1-based) of an identical line within one message,
+     * e.g. the second ₹100 toll on a statement: the hex key plus {@code "-<occurrence>"}.
+     */
+    public static String toStoredKey(long key, int occurrence) {
+        return toStoredKey(key) + "-" + occurrence;
+    }
+
+    public boolean contains(LocalDateTime transactionDate, long key) {
+        DayBucket bucket = buckets.get(transactionDate.toLocalDate().toEpochDay());
+        boolean hit = bucket != null && bucket.contains(key);
+        (hit ? hits : misses).increment();
+        return hit;
+    }
+
+    public void add(LocalDateTime transactionDate, long key) {
+        long day = transactionDate.toLocalDate().toEpochDay();
+        if (day < oldestDay()) {
+            return;
+        }
+        buckets.computeIfAbsent(day, d -> new DayBucket()).add(key);
+    }
+
+    /** Index a stored transaction, received on channel {@code source}, for both exact and fuzzy lookups. */
+    public void add(BigDecimal amount, String currency, String transactionType,
+                    LocalDateTime transactionDate, String merchantName, String source) {
+        long day = transactionDate.toLocalDate().toEpochDay();
+        if (day < oldestDay()) {
+            return;
+        }
+        DayBucket bucket = buckets.computeIfAbsent(day, d -> new DayBucket());
+        bucket.add(key(amount, currency, transactionType, transactionDate, merchantName));
+        String merchant = MerchantSimilarity.normalize(merchantName);
+        if (fuzzyEnabled && !merchant.isEmpty() && source != null) {
+            bucket.addMerchant(blockKey(amount, currency, transactionType), new ChannelMerchant(merchant, source));
+        }
+    }
+
+    public void add(Transaction t, String source) {
+        add(t.getAmount(), t.getCurrency(), t.getTransactionType(), t.getTransactionDate(), t.getMerchantName(), source);
+    }
+
+    /**
+     * Fuzzy lookup for a transaction from channel {@code source} whose exact key missed: compares its
+     * merchant with the other channels' merchants in the same (amount, currency, type) block on day-1,
+     * day and day+1.
+     *
+     * @return the matching stored merchant (normalized), or null
+     */
+    public String findSimilarMerchant(Transaction t, String source) {
+        String merchant = MerchantSimilarity.normalize(t.getMerchantName());
+        if (!fuzzyEnabled || merchant.isEmpty() || source == null) {
+            return null;
+        }
+        long block = blockKey(t.getAmount(), t.getCurrency(), t.getTransactionType());
+        long day = t.getTransactionDate().toLocalDate().toEpochDay();
+        for (long d = day - 1; d <= day + 1; d++) {
+            DayBucket bucket = buckets.get(d);
+            if (bucket == null) {
+                continue;
+            }
+            for (ChannelMerchant candidate : bucket.merchants(block)) {
+                if (isSimilar(merchant, day, source, candidate.merchant(), d, candidate.source())) {
+                    fuzzyHits.increment();
+                    return candidate.merchant();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same fuzzy rule against a stored row (database fallback): same amount, currency and type,
+     * transaction day within one day, another channel, similar merchant.
+     */
+    public boolean isFuzzyMatch(Transaction t, String source, DedupeCandidate stored) {
+        if (!fuzzyEnabled || t.getAmount() == null || stored.amount() == null || t.getAmount().compareTo(stored.amount()) != 0
+                || !equalsIgnoreCase(t.getCurrency(), stored.currency())
+                || !equalsIgnoreCase(t.getTransactionType(), stored.transactionType())) {
+            return false;
+        }
+        long day = t.getTransactionDate().toLocalDate().toEpochDay();
+        long storedDay = stored.transactionDate().toLocalDate().toEpochDay();
+        return Math.abs(day - storedDay) <= 1 && isSimilar(MerchantSimilarity.normalize(t.getMerchantName()), day, source,
+                MerchantSimilarity.normalize(stored.merchantName()), storedDay, stored.source());
+    }
+
+    /**
+     * Only another channel's report of the payment is a fuzzy duplicate (SMS vs email); the same
+     * merchant on a different day is a repeat purchase (daily commute fare), never a duplicate.
+     */
+    private boolean isSimilar(String merchant, long day, String source,
+                              String storedMerchant, long storedDay, String storedSource) {
+        if (source == null || storedSource == null || source.equalsIgnoreCase(storedSource)) {
+            return false;
+        }
+        if (merchant.equals(storedMerchant) && day != storedDay) {
+            return false;
+        }
+        return MerchantSimilarity.scoreNormalized(merchant, storedMerchant) >= fuzzyThreshold;
+    }
+
+    private static boolean equalsIgnoreCase(String a, String b) {
+        return a == null ? b == null : a.trim().equalsIgnoreCase(b == null ? null : b.trim());
+    }
+
+    /** Load keys of stored transactions inside the window (recomputed from fields, so older key formats count too). */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        LocalDateTime start = LocalDate.ofEpochDay(oldestDay()).atStartOfDay();
+        List<DedupeCandidate> rows = transactionRepository.findDedupeFieldsBetween(start, LocalDateTime.now().plusDays(1));
+        for (DedupeCandidate c : rows) {
+            add(c.amount(), c.currency(), c.transactionType(), c.transactionDate(), c.merchantName(), c.source());
+        }
+        log.info("Dedupe index warmed with {} transaction(s) from the last {} day(s)", rows.size(), windowDays);
+    }
+
+    @Scheduled(fixedDelayString = "${app.dedupe.evict-interval-ms:3600000}")
+    public void evictExpired() {
+        long oldest = oldestDay();
+        buckets.keySet().removeIf(day -> day < oldest);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("windowDays", windowDays);
+        m.put("dayBuckets", buckets.size());
+        m.put("keys", buckets.values().stream().mapToInt(DayBucket::size).sum());
+        m.put("hits", hits.sum());
+        m.put("misses", misses.sum());
+        m.put("fuzzyEnabled", fuzzyEnabled);
+        m.put("fuzzyHits", fuzzyHits.sum());
+        return m;
+    }
+
+    private long oldestDay() {
+        return LocalDate.now().toEpochDay() - windowDays;
+    }
+
+    private static long mix(long h, long v) {
+        for (int i = 0; i < 8; i++) {
+            h ^= (v >>> (i * 8)) & 0xff;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static long mixText(long h, String s, boolean normalizeSpaces) {
+        if (s != null) {
+            int start = 0;
+            int end = s.length();
+            while (start < end && Character.isWhitespace(s.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+                end--;
+            }
+            boolean inSpace = false;
+            for (int i = start; i < end; i++) {
+                char c = s.charAt(i);
+                if (normalizeSpaces && Character.isWhitespace(c)) {
+                    if (inSpace) {
+                        continue;
+                    }
+                    inSpace = true;
+                    c = ' ';
+                } else {
+                    inSpace = false;
+                    c = Character.toUpperCase(c);
+                }
+                h ^= c;
+                h *= FNV_PRIME;
+            }
+        }
+        // Field separator, so ("AB", "C") and ("A", "BC") differ
+        h ^= 0x1f;
+        return h * FNV_PRIME;
+    }
+
+    /** Murmur3 finalizer: spreads FNV output over all 64 bits for open addressing. */
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** A normalized merchant name and the channel (ingestion source) it was reported on. */
+    record ChannelMerchant(String merchant, String source) {
+    }
+
+    /**
+     * Open-addressing long set. Readers go through the volatile table without locking; writers
+     * synchronize on the bucket and publish a new table when growing. 0 marks an empty slot, so the
+     * key 0 is folded onto 1 (one extra collision in 2^64).
+     */
+    static final class DayBucket {
+
+        private volatile AtomicLongArray table = new AtomicLongArray(64);
+        private int size;
+        /** Blocking index: (amount, currency, type) block key -> normalized merchants seen that day, per channel. */
+        private final Map<Long, List<ChannelMerchant>> merchantsByBlock = new ConcurrentHashMap<>();
+
+        void addMerchant(long block, ChannelMerchant merchant) {
+            merchantsByBlock.merge(block, List.of(merchant), (existing, added) -> {
+                if (existing.contains(merchant)) {
+                    return existing;
+                }
+                List<ChannelMerchant> merged = new ArrayList<>(existing.size() + 1);
+                merged.addAll(existing);
+                merged.add(merchant);
+                return List.copyOf(merged);
+            });
+        }
+
+        List<ChannelMerchant> merchants(long block) {
+            return merchantsByBlock.getOrDefault(block, List.of());
+        }
+
+        boolean contains(long key) {
+            long k = key == 0 ? 1 : key;
+            AtomicLongArray t = table;
+            int mask = t.length() - 1;
+            for (int i = (int) k & mask; ; i = (i + 1) & mask) {
+                long v = t.get(i);
+                if (v == k) {
+                    return true;
+                }
+                if (v == 0) {
+                    return false;
+                }
+            }
+        }
+
+        synchronized void add(long key) {
+            long k = key == 0 ? 1 : key;
+            if ((size + 1) * 2 > table.length()) {
+                AtomicLongArray grown = new AtomicLongArray(table.length() * 2);
+                AtomicLongArray old = table;
+                for (int i = 0; i < old.length(); i++) {
+                    long v = old.get(i);
+                    if (v != 0) {
+                        insert(grown, v);
+                    }
+                }
+                table = grown;
+            }
+            if (insert(table, k)) {
+                size++;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private static boolean insert(AtomicLongArray t, long k) {
+            int mask = t.length() - 1;
+            for (int i = (int) k & mask; ; i = (i + 1) & mask) {
+                long v = t.get(i);
+                if (v == k) {
+                    return false;
+                }
+                if (v == 0) {
+                    t.set(i, k);
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.wealthmanager.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory FIFO of raw ingestion ids whose parsing was deferred because the model was unavailable.
+ * Entries are still processed=false in the database, so anything lost on restart or dropped on
+ * overflow is picked up again by the backlog scan.
+ */
+@Component
+@Slf4j
+public class DeferredParseQueue {
+
+    private final Queue<Long> queue = new ConcurrentLinkedQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    /** Reserved slots; taken with compare-and-set before adding, so concurrent offers never exceed capacity. */
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    public DeferredParseQueue(@Value("${app.ai.deferred.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /** @return false if the queue is full (the row is left for the backlog scan) */
+    public boolean defer(Long rawIngestionId) {
+        if (queued.contains(rawIngestionId)) {
+            return true;
+        }
+        if (!reserveSlot()) {
+            log.warn("Deferred parse queue full ({}); ingestion id={} left for backlog scan", capacity, rawIngestionId);
+            return false;
+        }
+        if (queued.add(rawIngestionId)) {
+            queue.add(rawIngestionId);
+        } else {
+            // Queued concurrently by another caller
+            size.decrementAndGet();
+        }
+        return true;
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Removes up to {@code max} ids in arrival order. */
+    public List<Long> poll(int max) {
+        List<Long> batch = new ArrayList<>(Math.min(max, size.get()));
+        Long id;
+        while (batch.size() < max && (id = queue.poll()) != null) {
+            queued.remove(id);
+            size.decrementAndGet();
+            batch.add(id);
+        }
+        return batch;
+    }
+
+    public int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,183 @@
+package com.wealthmanager.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.dto.CleanLedgerEntryResponse;
+import com.wealthmanager.backend.model.dto.TransactionResponse;
+import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams whole tables as CSV or NDJSON. Rows come from a forward-only cursor as response records
+ * (no managed entities) and are written as they arrive, so memory stays flat however many rows
+ * there are. Each export runs in one read-only transaction, which PostgreSQL needs to keep the cursor
+ * open.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /** @throws BadRequestException for anything but csv or ndjson (case-insensitive) */
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("format must be csv or ndjson");
+            }
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] TRANSACTION_HEADER = {
+            "id", "amount", "currency", "merchantName", "category", "transactionType", "transactionDate",
+            "description", "createdAt"};
+    private static final String[] LEDGER_HEADER = {
+            "id", "rawIngestionId", "entryType", "instrumentType", "symbol", "name", "quantity", "price", "amount",
+            "currency", "ledgerDate", "description", "createdAt"};
+
+    private final TransactionRepository transactionRepository;
+    private final CleanLedgerEntryRepository cleanLedgerEntryRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(TransactionRepository transactionRepository,
+                         CleanLedgerEntryRepository cleanLedgerEntryRepository,
+                         ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.cleanLedgerEntryRepository = cleanLedgerEntryRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write transactions dated in [from, to] (both optional, inclusive), oldest first.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportTransactions(Format format, boolean gzip, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        try (Stream<TransactionResponse> rows = transactionRepository.streamResponses(startOf(from), endOf(to))) {
+            long count = write(rows, format, gzip, TRANSACTION_HEADER, t -> new Object[]{
+                    t.id(), t.amount(), t.currency(), t.merchantName(), t.category(), t.transactionType(),
+                    t.transactionDate(), t.description(), t.createdAt()}, out);
+            log.info("Exported {} transaction(s) as {}{}", count, format, gzip ? " (gzip)" : "");
+            return count;
+        }
+    }
+
+    /**
+     * Write Clean Ledger entries dated in [from, to] (both optional, inclusive), oldest first.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportLedger(Format format, boolean gzip, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        try (Stream<CleanLedgerEntryResponse> rows = cleanLedgerEntryRepository.streamResponses(startOf(from), endOf(to))) {
+            long count = write(rows, format, gzip, LEDGER_HEADER, e -> new Object[]{
+                    e.id(), e.rawIngestionId(), e.entryType(), e.instrumentType(), e.symbol(), e.name(),
+                    e.quantity(), e.price(), e.amount(), e.currency(), e.ledgerDate(), e.description(),
+                    e.createdAt()}, out);
+            log.info("Exported {} ledger entr(ies) as {}{}", count, format, gzip ? " (gzip)" : "");
+            return count;
+        }
+    }
+
+    private <T> long write(Stream<T> rows, Format format, boolean gzip, String[] header,
+                           Function<T, Object[]> csvValues, OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long count = 0;
+        if (format == Format.CSV) {
+            writeCsvLine(writer, header);
+        }
+        Iterator<T> it = rows.iterator();
+        while (it.hasNext()) {
+            T row = it.next();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, csvValues.apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            count++;
+        }
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        return count;
+    }
+
+    /** RFC 4180: fields with commas, quotes or line breaks are quoted, quotes doubled; null is empty. */
+    static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String v = values[i].toString();
+            boolean quote = false;
+            for (int c = 0; c < v.length() && !quote; c++) {
+                char ch = v.charAt(c);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (quote) {
+                writer.write('"');
+                writer.write(v.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(v);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static LocalDateTime startOf(LocalDate from) {
+        return from != null ? from.atStartOfDay() : null;
+    }
+
+    private static LocalDateTime endOf(LocalDate to) {
+        return to != null ? to.plusDays(1).atStartOfDay() : null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.ParseJob;
+import com.wealthmanager.backend.model.RawIngestion;
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.HoldingParseResult;
+import com.wealthmanager.backend.repository.ParseJobRepository;
+import com.wealthmanager.backend.repository.RawIngestionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Unified extraction for a new ingestion: the row is loaded once, holdings are template-matched and
+ * transactions come from a single parser call, then both are persisted in one database transaction.
+ * Replaces the two independent async jobs (transaction parsing and holdings parsing) per ingestion.
+ */
+@Service
+@Slf4j
+public class ExtractionService {
+
+    private final RawIngestionRepository rawIngestionRepository;
+    private final TransactionParsingService transactionParsingService;
+    private final HoldingsParsingService holdingsParsingService;
+    private final TransactionTemplate transactionTemplate;
+    private final ParseJobRepository parseJobRepository;
+
+    public ExtractionService(RawIngestionRepository rawIngestionRepository,
+                             TransactionParsingService transactionParsingService,
+                             HoldingsParsingService holdingsParsingService,
+                             TransactionTemplate transactionTemplate,
+                             ParseJobRepository parseJobRepository) {
+        this.rawIngestionRepository = rawIngestionRepository;
+        this.transactionParsingService = transactionParsingService;
+        this.holdingsParsingService = holdingsParsingService;
+        this.transactionTemplate = transactionTemplate;
+        this.parseJobRepository = parseJobRepository;
+    }
+
+    /**
+     * Triggered asynchronously after new ingestion (SMS or email).
+     */
+    @Async
+    public void processAsync(Long ingestionId) {
+        try {
+            rawIngestionRepository.findById(ingestionId).ifPresent(this::process);
+        } catch (Exception e) {
+            log.warn("Async extraction failed for ingestion id={}: {}", ingestionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Extract transactions and holdings from one ingestion and persist them together.
+     * The model call happens before the database transaction opens, so no connection is held while
+     * waiting on the LLM. If the model is unavailable, holdings are still saved and the transaction
+     * part is deferred (the deferred drain only re-runs transaction parsing); a failed attempt is
+     * recorded for backoff like any other.
+     */
+    public void process(RawIngestion ingestion) {
+        process(ingestion, null, 0);
+    }
+
+    /**
+     * As {@link #process(RawIngestion)}, deleting the given parse job in the same transaction as the
+     * results, so a job is completed exactly when its results are committed. Results are dropped if the
+     * job is gone or was claimed again since {@code claimedAttempts} (its visibility timeout ran out
+     * while the model was running and another worker took it over).
+     */
+    public void process(RawIngestion ingestion, Long parseJobId, int claimedAttempts) {
+        List<HoldingParseResult> holdings = holdingsParsingService.extract(ingestion);
+
+        Optional<List<Transaction>> transactions = TransactionParsingService.isParseable(ingestion)
+                ? transactionParsingService.tryExtract(ingestion)
+                : Optional.empty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (parseJobId != null && !stillClaimed(parseJobId, claimedAttempts)) {
+                return;
+            }
+            transactions.ifPresent(extracted -> transactionParsingService.persist(ingestion, extracted));
+            holdingsParsingService.persist(ingestion, holdings);
+            if (parseJobId != null) {
+                parseJobRepository.deleteById(parseJobId);
+            }
+        });
+        log.debug("Extraction finished for ingestion id={}: {} transaction(s), {} holding movement(s)",
+                ingestion.getId(), transactions.map(List::size).orElse(0), holdings.size());
+    }
+
+    /**
+     * Give up on a parse job that kept failing: template-matched holdings are saved and the job is
+     * deleted in one transaction, and transaction parsing is left to the backlog retry schedule, which
+     * only parses transactions. The holdings cannot have been saved before, since a job is deleted
+     * in the same transaction as its results.
+     */
+    public void processHoldingsOnly(RawIngestion ingestion, Long parseJobId, int claimedAttempts) {
+        List<HoldingParseResult> holdings = holdingsParsingService.extract(ingestion);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!stillClaimed(parseJobId, claimedAttempts)) {
+                return;
+            }
+            holdingsParsingService.persist(ingestion, holdings);
+            parseJobRepository.deleteById(parseJobId);
+        });
+        log.debug("Holdings-only extraction finished for ingestion id={}: {} holding movement(s)",
+                ingestion.getId(), holdings.size());
+    }
+
+    /**
+     * Lock the job row and check it still carries this worker's claim. Ledger entries are not
+     * idempotent, so a second run of the same job must not write them again. Call inside the
+     * persisting transaction: the lock holds a concurrent completion off until this one commits.
+     */
+    private boolean stillClaimed(Long parseJobId, int claimedAttempts) {
+        Optional<ParseJob> current = parseJobRepository.findByIdForUpdate(parseJobId);
+        if (current.isPresent() && Objects.equals(current.get().getAttempts(), claimedAttempts)) {
+            return true;
+        }
+        log.info("Dropped results of parse job id={}: {}", parseJobId,
+                current.isPresent() ? "claimed again by another worker" : "already completed");
+        return false;
+    }
+}
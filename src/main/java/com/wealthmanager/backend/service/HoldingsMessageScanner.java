@@ -0,0 +1,324 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.dto.HoldingParseResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds holding movements in SMS/email text in one left-to-right pass, without regex backtracking or
+ * lower-cased copies of the body. The text is split into word, number and punctuation tokens (offsets
+ * only), then each position is tried against four shapes; keywords are compared in place, ignoring case:
+ * <ul>
+ *   <li>{@code purchased|bought|SIP|redeemed|sold <qty> units|shares [of] <name>}</li>
+ *   <li>{@code SIP|invested|investment|purchase|purchased [of] [Rs.|INR|₹] <qty> in|for|into <name>}
+ *       (name ends before "fund", "mutual fund" or "scheme")</li>
+ *   <li>{@code units|shares credited|allotted|purchased|bought: <qty> [of|in|for] <name>}</li>
+ *   <li>{@code <qty> units|shares [of] <name>}</li>
+ * </ul>
+ * A name is a run of words on one line separated only by whitespace, ending at punctuation or a stop word
+ * ("at", "for", "has", "been", ...). A match consumes its tokens, so each mention is reported once.
+ * Movements are redemptions when their verb is sold/redeemed or such a word appears earlier in the
+ * message; the instrument type is decided once per message from its keywords.
+ */
+final class HoldingsMessageScanner {
+
+    private static final int WORD = 0;
+    private static final int NUMBER = 1;
+    private static final int PUNCT = 2;
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private static final String[] BUY_SELL_VERBS = {"purchased", "bought", "sip", "redeemed", "sold"};
+    private static final String[] SELL_VERBS = {"redeemed", "sold"};
+    private static final String[] INVEST_VERBS = {"sip", "invested", "investment", "purchase", "purchased"};
+    private static final String[] INVEST_PREPOSITIONS = {"in", "for", "into"};
+    private static final String[] UNITS = {"unit", "units", "share", "shares"};
+    private static final String[] CREDIT_VERBS = {"credited", "allotted", "purchased", "bought"};
+    private static final String[] NAME_PREFIXES = {"of", "in", "for"};
+    private static final String[] STOP_WORDS = {
+            "at", "for", "has", "have", "had", "been", "is", "are", "was", "were", "will", "on", "via", "to", "with"};
+    private static final String[] FUND_SUFFIXES = {"fund", "scheme"};
+
+    private static final String[] MUTUAL_FUND_HINTS = {"mf", "sip", "nav"};
+    private static final String[] STOCK_HINTS = {"share", "stock", "equity", "nse", "bse"};
+
+    private final CharSequence text;
+    private int[] kind = new int[64];
+    private int[] start = new int[64];
+    private int[] end = new int[64];
+    private int count;
+    private boolean mutualFundHint;
+    private boolean stockHint;
+
+    private HoldingsMessageScanner(CharSequence text) {
+        this.text = text;
+    }
+
+    static List<HoldingParseResult> scan(CharSequence text) {
+        HoldingsMessageScanner scanner = new HoldingsMessageScanner(text);
+        scanner.tokenize();
+        return scanner.match();
+    }
+
+    private void tokenize() {
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (isAsciiDigit(c)) {
+                int j = i + 1;
+                while (j < n && (isAsciiDigit(text.charAt(j))
+                        || ((text.charAt(j) == '.' || text.charAt(j) == ',') && j + 1 < n && isAsciiDigit(text.charAt(j + 1))))) {
+                    j++;
+                }
+                if (j < n && isAsciiLetter(text.charAt(j))) {
+                    j = endOfWord(j);
+                    add(WORD, i, j);
+                } else {
+                    add(NUMBER, i, j);
+                }
+                i = j;
+            } else if (isAsciiLetter(c)) {
+                int j = endOfWord(i);
+                add(WORD, i, j);
+                i = j;
+            } else {
+                add(PUNCT, i, i + 1);
+                i++;
+            }
+        }
+    }
+
+    private int endOfWord(int from) {
+        int j = from;
+        while (j < text.length() && (isAsciiLetter(text.charAt(j)) || isAsciiDigit(text.charAt(j)))) {
+            j++;
+        }
+        return j;
+    }
+
+    private void add(int type, int s, int e) {
+        if (count == kind.length) {
+            kind = Arrays.copyOf(kind, count * 2);
+            start = Arrays.copyOf(start, count * 2);
+            end = Arrays.copyOf(end, count * 2);
+        }
+        kind[count] = type;
+        start[count] = s;
+        end[count] = e;
+        if (type == WORD) {
+            noteInstrumentHints(count);
+        }
+        count++;
+    }
+
+    /** Substring hints, as words like "SIPs" or "NAV:" still count; "mutual fund" may span two words. */
+    private void noteInstrumentHints(int t) {
+        if (!mutualFundHint) {
+            mutualFundHint = containsAny(t, MUTUAL_FUND_HINTS)
+                    || (t > 0 && kind[t - 1] == WORD && start[t] == end[t - 1] + 1 && text.charAt(end[t - 1]) == ' '
+                    && endsWith(t - 1, "mutual") && startsWith(t, "fund"));
+        }
+        if (!stockHint) {
+            stockHint = containsAny(t, STOCK_HINTS);
+        }
+    }
+
+    private List<HoldingParseResult> match() {
+        List<HoldingParseResult> results = new ArrayList<>();
+        String instrumentType = mutualFundHint || !stockHint
+                ? PortfolioService.INSTRUMENT_MUTUAL_FUND
+                : PortfolioService.INSTRUMENT_STOCK;
+        boolean sellSeen = false;
+        int t = 0;
+        while (t < count) {
+            int next = matchAt(t, sellSeen, instrumentType, results);
+            int stop = next > t ? next : t + 1;
+            for (; t < stop; t++) {
+                sellSeen = sellSeen || (kind[t] == WORD && containsAny(t, SELL_VERBS));
+            }
+        }
+        return results;
+    }
+
+    /** @return index after the consumed tokens, or {@code t} if no movement starts here */
+    private int matchAt(int t, boolean sellSeen, String instrumentType, List<HoldingParseResult> out) {
+        // verb qty units [of] name
+        if (isWord(t, BUY_SELL_VERBS) && kind(t + 1) == NUMBER && isWord(t + 2, UNITS)) {
+            boolean sell = sellSeen || isWord(t, SELL_VERBS);
+            int name = isWord(t + 3, "of") ? t + 4 : t + 3;
+            int after = emit(t + 1, name, false, sell, instrumentType, out);
+            if (after > 0) {
+                return after;
+            }
+        }
+        // verb [of] [Rs.|INR|₹] qty in|for|into name
+        if (isWord(t, INVEST_VERBS)) {
+            int q = isWord(t + 1, "of") ? t + 2 : t + 1;
+            if (isWord(q, "rs")) {
+                q = isPunct(q + 1, '.') ? q + 2 : q + 1;
+            } else if (isWord(q, "inr") || isPunct(q, '₹')) {
+                q++;
+            }
+            if (kind(q) == NUMBER && isWord(q + 1, INVEST_PREPOSITIONS)) {
+                int after = emit(q, q + 2, true, sellSeen, instrumentType, out);
+                if (after > 0) {
+                    return after;
+                }
+            }
+        }
+        // units|shares credited|allotted...: qty [of|in|for] name
+        if (isWord(t, UNITS) && isWord(t + 1, CREDIT_VERBS) && isPunct(t + 2, ':') && kind(t + 3) == NUMBER) {
+            int name = isWord(t + 4, NAME_PREFIXES) ? t + 5 : t + 4;
+            int after = emit(t + 3, name, false, sellSeen, instrumentType, out);
+            if (after > 0) {
+                return after;
+            }
+        }
+        // qty units|shares [of] name
+        if (kind(t) == NUMBER && isWord(t + 1, UNITS)) {
+            int name = isWord(t + 2, "of") ? t + 3 : t + 2;
+            int after = emit(t, name, false, sellSeen, instrumentType, out);
+            if (after > 0) {
+                return after;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Read the name starting at token {@code from} and add the movement.
+     *
+     * @return index after the name, or 0 if there is no name or no positive quantity
+     */
+    private int emit(int qtyToken, int from, boolean fundSuffixEndsName, boolean sell,
+                     String instrumentType, List<HoldingParseResult> out) {
+        int last = -1;
+        for (int t = from; t < count && kind[t] != PUNCT; t++) {
+            if (t > from && !isWhitespaceBetween(t - 1, t)) {
+                break;
+            }
+            if (isWord(t, STOP_WORDS)) {
+                break;
+            }
+            if (fundSuffixEndsName && (isWord(t, FUND_SUFFIXES) || (isWord(t, "mutual") && isWord(t + 1, "fund")))) {
+                break;
+            }
+            if (kind[t] == NUMBER && !isInteger(t)) {
+                break;
+            }
+            last = t;
+        }
+        if (last < 0) {
+            return 0;
+        }
+        BigDecimal quantity = quantity(qtyToken);
+        if (quantity == null || quantity.signum() <= 0) {
+            return 0;
+        }
+        int nameEnd = Math.min(end[last], start[from] + MAX_NAME_LENGTH);
+        String name = text.subSequence(start[from], nameEnd).toString().trim();
+        out.add(new HoldingParseResult(sell ? "REDEMPTION" : "SIP", instrumentType, name, quantity));
+        return last + 1;
+    }
+
+    private BigDecimal quantity(int t) {
+        StringBuilder digits = new StringBuilder(end[t] - start[t]);
+        for (int i = start[t]; i < end[t]; i++) {
+            char c = text.charAt(i);
+            if (c != ',') {
+                digits.append(c);
+            }
+        }
+        try {
+            return new BigDecimal(digits.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean isInteger(int t) {
+        for (int i = start[t]; i < end[t]; i++) {
+            if (!isAsciiDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Names stay on one line: statement and contract-note lines each carry their own movement. */
+    private boolean isWhitespaceBetween(int a, int b) {
+        for (int i = end[a]; i < start[b]; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c) || c == '\n' || c == '\r') {
+                return false;
+            }
+        }
+        return end[a] < start[b];
+    }
+
+    private int kind(int t) {
+        return t < count ? kind[t] : -1;
+    }
+
+    private boolean isPunct(int t, char c) {
+        return t < count && kind[t] == PUNCT && text.charAt(start[t]) == c;
+    }
+
+    private boolean isWord(int t, String word) {
+        return t < count && kind[t] == WORD && end[t] - start[t] == word.length()
+                && regionMatches(start[t], word);
+    }
+
+    private boolean isWord(int t, String[] words) {
+        for (String w : words) {
+            if (isWord(t, w)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsAny(int t, String[] needles) {
+        for (String needle : needles) {
+            for (int i = start[t]; i + needle.length() <= end[t]; i++) {
+                if (regionMatches(i, needle)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean startsWith(int t, String prefix) {
+        return end[t] - start[t] >= prefix.length() && regionMatches(start[t], prefix);
+    }
+
+    private boolean endsWith(int t, String suffix) {
+        return end[t] - start[t] >= suffix.length() && regionMatches(end[t] - suffix.length(), suffix);
+    }
+
+    /** Case-insensitive match of lower-case ASCII {@code s} at {@code offset}. */
+    private boolean regionMatches(int offset, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = text.charAt(offset + i);
+            if (c != s.charAt(i) && (char) (c | 0x20) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
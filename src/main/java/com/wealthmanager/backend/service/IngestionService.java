@@ -1,33 +1,63 @@
 package com.wealthmanager.backend.service;
 
+import com.wealthmanager.backend.model.ParseJob;
 import com.wealthmanager.backend.model.RawIngestion;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.IngestionParseStateResponse;
+import com.wealthmanager.backend.model.dto.MessageSearchHit;
+import com.wealthmanager.backend.model.dto.SearchCursor;
 import com.wealthmanager.backend.model.dto.SmsPayload;
+import com.wealthmanager.backend.repository.ParseJobRepository;
 import com.wealthmanager.backend.repository.RawIngestionRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class IngestionService {
 
+    private static final int SNIPPET_LENGTH = 160;
+
     private final RawIngestionRepository rawIngestionRepository;
     private final NotificationService notificationService;
     private final TransactionParsingService transactionParsingService;
     private final HoldingsParsingService holdingsParsingService;
+    private final ExtractionService extractionService;
+    private final ParseJobRepository parseJobRepository;
+    private final boolean unifiedExtraction;
+    private final boolean jobQueueEnabled;
 
     public IngestionService(RawIngestionRepository rawIngestionRepository,
                             NotificationService notificationService,
                             TransactionParsingService transactionParsingService,
-                            HoldingsParsingService holdingsParsingService) {
+                            HoldingsParsingService holdingsParsingService,
+                            ExtractionService extractionService,
+                            ParseJobRepository parseJobRepository,
+                            @Value("${app.ingestion.unified-extraction:true}") boolean unifiedExtraction,
+                            @Value("${app.ingestion.job-queue.enabled:true}") boolean jobQueueEnabled) {
         this.rawIngestionRepository = rawIngestionRepository;
         this.notificationService = notificationService;
         this.transactionParsingService = transactionParsingService;
         this.holdingsParsingService = holdingsParsingService;
+        this.extractionService = extractionService;
+        this.parseJobRepository = parseJobRepository;
+        this.unifiedExtraction = unifiedExtraction;
+        this.jobQueueEnabled = jobQueueEnabled;
     }
 
     @Transactional
@@ -42,19 +72,14 @@ public class IngestionService {
                 .rawBody(payload.body())
                 .receivedAt(receivedAt)
                 .processed(false)
-                .ingested(false)
+                .ingested(true)
                 .build();
 
         RawIngestion saved = rawIngestionRepository.save(ingestion);
-        
-        // Mark as successfully ingested
-        saved.setIngested(true);
-        saved = rawIngestionRepository.save(saved);
         log.info("Saved raw ingestion id={}, ingested=true", saved.getId());
 
         notificationService.notifyNewIngestion(saved);
-        transactionParsingService.processAsync(saved.getId());
-        holdingsParsingService.processAsync(saved.getId());
+        dispatchExtraction(saved.getId());
         return saved;
     }
 
@@ -70,34 +95,29 @@ public class IngestionService {
     @Transactional
     public RawIngestion ingestEmail(String gmailMessageId, String sender,
                                     String body, LocalDateTime receivedAt) {
-        // Check if already ingested using the ingested indicator
-        if (isAlreadyIngested(gmailMessageId)) {
-            log.debug("Skipping already ingested email gmailId={}", gmailMessageId);
-            return null;
-        }
-
         log.info("Ingesting email from sender={}, gmailId={}", sender, gmailMessageId);
 
-        RawIngestion ingestion = RawIngestion.builder()
+        RawIngestion saved = RawIngestion.builder()
                 .source("EMAIL")
                 .sourceId(gmailMessageId)
                 .senderAddress(sender)
                 .rawBody(body)
                 .receivedAt(receivedAt != null ? receivedAt : LocalDateTime.now())
                 .processed(false)
-                .ingested(false)
+                .ingested(true)
                 .build();
 
-        RawIngestion saved = rawIngestionRepository.save(ingestion);
-        
-        // Mark as successfully ingested
-        saved.setIngested(true);
-        saved = rawIngestionRepository.save(saved);
+        // Insert and duplicate check in one statement: a concurrent poll of the same message gets nothing back
+        Optional<Long> id = rawIngestionRepository.insertIfAbsent(saved);
+        if (id.isEmpty()) {
+            log.debug("Skipping already ingested email gmailId={}", gmailMessageId);
+            return null;
+        }
+        saved.setId(id.get());
         log.info("Saved email ingestion id={}, gmailId={}, ingested=true", saved.getId(), gmailMessageId);
 
         notificationService.notifyNewIngestion(saved);
-        transactionParsingService.processAsync(saved.getId());
-        holdingsParsingService.processAsync(saved.getId());
+        dispatchExtraction(saved.getId());
         return saved;
     }
 
@@ -121,7 +141,7 @@ public class IngestionService {
             return false;
         }
         
-        String lowerBody = body.toLowerCase();
+        String lowerBody = body.toLowerCase(Locale.ROOT);
         
         // Must contain financial keywords
         String[] requiredKeywords = {
@@ -172,11 +192,6 @@ public class IngestionService {
             return;
         }
         
-        // Check if already ingested using the ingested indicator
-        if (isAlreadyIngested(gmailMessageId)) {
-            return;
-        }
-        
         RawIngestion skipped = RawIngestion.builder()
                 .source("EMAIL")
                 .sourceId(gmailMessageId)
@@ -187,11 +202,105 @@ public class IngestionService {
                 .processedAt(LocalDateTime.now())
                 .ingested(true) // Mark as ingested to prevent re-ingestion attempts
                 .build();
-        
-        rawIngestionRepository.save(skipped);
+
+        if (rawIngestionRepository.insertIfAbsent(skipped).isEmpty()) {
+            return;
+        }
         log.debug("Marked email gmailId={} as skipped (not fit for ingestion), ingested=true", gmailMessageId);
     }
 
+    /**
+     * Dead-lettered ingestions (retries exhausted), newest first.
+     */
+    public Page<IngestionParseStateResponse> getUnparseable(Pageable pageable) {
+        return rawIngestionRepository.findByParseStatusOrderByIdDesc(RawIngestion.PARSE_UNPARSEABLE, pageable)
+                .map(r -> new IngestionParseStateResponse(
+                        r.getId(),
+                        r.getSource(),
+                        r.getSourceId(),
+                        r.getSenderAddress(),
+                        r.getReceivedAt(),
+                        r.getParseStatus(),
+                        r.getParseAttempts(),
+                        r.getLastParseError(),
+                        r.getNextParseAt()
+                ));
+    }
+
+    /**
+     * Ranked text search over raw message bodies (word prefixes), best first, continuing after
+     * {@code cursor}. Hits carry an excerpt around the first matching word instead of the full body.
+     * PostgreSQL only (tsvector).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MessageSearchHit> searchMessages(String q, String cursor, int size) {
+        String tsQuery = TextSearchQuery.toTsQuery(q);
+        SearchCursor after = cursor != null && !cursor.isBlank() ? SearchCursor.decode(cursor) : null;
+        List<Object[]> ranked = rawIngestionRepository.searchText(tsQuery,
+                after != null ? after.rank() : null, after != null ? after.id() : null, size + 1);
+
+        boolean hasMore = ranked.size() > size;
+        List<Object[]> page = hasMore ? ranked.subList(0, size) : ranked;
+        List<Long> ids = page.stream().map(r -> ((Number) r[0]).longValue()).toList();
+        Map<Long, RawIngestion> byId = rawIngestionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(RawIngestion::getId, Function.identity()));
+        String firstTerm = TextSearchQuery.toTrigramTerm(q).split(" ")[0];
+        List<MessageSearchHit> hits = new ArrayList<>(page.size());
+        for (Object[] r : page) {
+            RawIngestion m = byId.get(((Number) r[0]).longValue());
+            if (m != null) {
+                hits.add(new MessageSearchHit(m.getId(), m.getSource(), m.getSenderAddress(), m.getReceivedAt(),
+                        m.getParseStatus(), snippet(m.getRawBody(), firstTerm), ((Number) r[1]).doubleValue()));
+            }
+        }
+        String next = null;
+        if (hasMore) {
+            Object[] last = page.get(size - 1);
+            next = new SearchCursor(((Number) last[1]).doubleValue(), ((Number) last[0]).longValue()).encode();
+        }
+        return new CursorPage<>(hits, next, hasMore);
+    }
+
+    /**
+     * Put the given (unprocessed) ingestions back into the parse queue with a fresh retry budget.
+     *
+     * @return number of rows requeued
+     */
+    @Transactional
+    public int requeueForParsing(List<Long> ids) {
+        int requeued = rawIngestionRepository.requeueForParsing(ids);
+        log.info("Requeued {} of {} requested ingestion(s) for parsing", requeued, ids.size());
+        return requeued;
+    }
+
+    /**
+     * Job queue (default): a parse_job row is written in the ingest transaction, so the work is
+     * visible to workers only once the ingestion has committed and survives a crash.
+     * Otherwise: unified mode runs one async job that loads the row once and persists transactions
+     * and holdings together, or the two parsers run as independent async jobs.
+     */
+    private void dispatchExtraction(Long ingestionId) {
+        if (jobQueueEnabled) {
+            parseJobRepository.save(ParseJob.builder().rawIngestionId(ingestionId).build());
+        } else if (unifiedExtraction) {
+            extractionService.processAsync(ingestionId);
+        } else {
+            transactionParsingService.processAsync(ingestionId);
+            holdingsParsingService.processAsync(ingestionId);
+        }
+    }
+
+    /** Up to {@value #SNIPPET_LENGTH} characters of {@code body} around the first occurrence of {@code term}. */
+    static String snippet(String body, String term) {
+        if (body.length() <= SNIPPET_LENGTH) {
+            return body;
+        }
+        int at = Math.max(0, body.toLowerCase(Locale.ROOT).indexOf(term));
+        int start = Math.max(0, Math.min(at - SNIPPET_LENGTH / 4, body.length() - SNIPPET_LENGTH));
+        int end = start + SNIPPET_LENGTH;
+        return (start > 0 ? "…" : "") + body.substring(start, end).trim() + (end < body.length() ? "…" : "");
+    }
+
     private LocalDateTime parseReceivedAt(String receivedAt) {
         if (receivedAt == null || receivedAt.isBlank()) {
             return LocalDateTime.now();
@@ -0,0 +1,438 @@
+package com.wealthmanager.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealthmanager.backend.model.CleanLedgerEntry;
+import com.wealthmanager.backend.model.PortfolioHolding;
+import com.wealthmanager.backend.model.PositionSnapshot;
+import com.wealthmanager.backend.model.dto.ProjectedPosition;
+import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
+import com.wealthmanager.backend.repository.PortfolioHoldingRepository;
+import com.wealthmanager.backend.repository.PositionSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maintains portfolio_holding as a projection of clean_ledger_entry.
+ * <p>
+ * New ledger entries are applied in id order to an in-memory {@link PositionProjection}; only the
+ * positions they change are written back. Every {@code snapshot-every} applied entries the whole
+ * projection is stored as a {@link PositionSnapshot} with its ledger high-water mark, so a rebuild (at
+ * startup, after a failed write, or on demand after a parser fix) restores the newest snapshot and
+ * replays only the entries after it. A rebuild from scratch ignores snapshots and replays the whole ledger.
+ * <p>
+ * Ledger ids are taken one at a time, so a missing id below the high-water mark is either a rolled-back
+ * insert or a transaction that took a lower id but has not committed yet. Such ids are kept as pending
+ * and re-read on every catch-up for {@code late-commit-window-ms}; an entry that shows up is applied
+ * then. Pending ids are stored with each snapshot, so a rebuild keeps looking for them too.
+ * <p>
+ * Only one node writes portfolio_holding: the one holding a PostgreSQL session advisory lock on its own
+ * (unpooled) connection. Other nodes skip catch-ups and rebuilds until the holder goes away; on other
+ * databases the node always writes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.portfolio.projection", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LedgerProjector {
+
+    private static final TypeReference<List<ProjectedPosition>> POSITIONS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Long>> IDS = new TypeReference<>() {
+    };
+    /** pg advisory lock key of the projection writer ("LEDGPROJ"). */
+    private static final long WRITER_LOCK_KEY = 0x4c454447_50524f4aL;
+    /** Bound on pending ids, so a sequence jump cannot fill memory. */
+    private static final int MAX_PENDING_IDS = 10_000;
+
+    private final CleanLedgerEntryRepository cleanLedgerEntryRepository;
+    private final PositionSnapshotRepository positionSnapshotRepository;
+    private final PortfolioHoldingRepository portfolioHoldingRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long lateCommitWindowMs;
+    private final int snapshotEvery;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private PositionProjection projection = new PositionProjection();
+    /** Missing ledger ids below the high-water mark -> when to stop looking for them (epoch ms). */
+    private final TreeMap<Long, Long> pendingIds = new TreeMap<>();
+    private Connection writerLockConnection;
+    private boolean inSync;
+    private long appliedSinceSnapshot;
+    private Long lastSnapshotLedgerEntryId;
+    private long lastRebuildMs;
+
+    public LedgerProjector(CleanLedgerEntryRepository cleanLedgerEntryRepository,
+                           PositionSnapshotRepository positionSnapshotRepository,
+                           PortfolioHoldingRepository portfolioHoldingRepository,
+                           ObjectMapper objectMapper,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${app.portfolio.projection.batch-size:1000}") int batchSize,
+                           @Value("${app.portfolio.projection.late-commit-window-ms:600000}") long lateCommitWindowMs,
+                           @Value("${app.portfolio.projection.snapshot-every:500}") int snapshotEvery,
+                           @Value("${spring.datasource.url}") String url,
+                           @Value("${spring.datasource.username:}") String username,
+                           @Value("${spring.datasource.password:}") String password) {
+        this.cleanLedgerEntryRepository = cleanLedgerEntryRepository;
+        this.positionSnapshotRepository = positionSnapshotRepository;
+        this.portfolioHoldingRepository = portfolioHoldingRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.lateCommitWindowMs = lateCommitWindowMs;
+        this.snapshotEvery = snapshotEvery;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        try {
+            if (holdsWriterLock()) {
+                rebuild(false);
+            }
+        } catch (Exception e) {
+            // Retried by the scheduled catch-up
+            log.warn("Initial portfolio projection failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Apply new ledger entries; resynchronizes from the last snapshot if a previous write failed or this
+     * node has just become the writer.
+     */
+    @Scheduled(fixedDelayString = "${app.portfolio.projection.interval-ms:10000}")
+    public synchronized void scheduledCatchUp() {
+        try {
+            if (!holdsWriterLock()) {
+                return;
+            }
+            if (inSync) {
+                catchUp();
+            } else {
+                rebuild(false);
+            }
+        } catch (Exception e) {
+            log.warn("Ledger projection failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /** @return number of ledger entries applied */
+    public synchronized int catchUp() {
+        Set<String> changed = new LinkedHashSet<>();
+        int applied = replay(changed);
+        if (!changed.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeHoldings(changed, false));
+            } catch (RuntimeException e) {
+                // The projection is ahead of the table now; rebuild on the next tick
+                inSync = false;
+                throw e;
+            }
+        }
+        appliedSinceSnapshot += applied;
+        if (appliedSinceSnapshot >= snapshotEvery) {
+            snapshot(false);
+        }
+        if (applied > 0) {
+            log.debug("Projected {} ledger entr(ies), {} position(s) changed, high-water mark {}",
+                    applied, changed.size(), projection.highWaterMark());
+        }
+        return applied;
+    }
+
+    /**
+     * Recompute all positions: from the newest snapshot (or the empty state when {@code fromScratch}),
+     * replay the ledger entries after it, then make portfolio_holding match exactly and store a new snapshot.
+     */
+    public synchronized Map<String, Object> rebuild(boolean fromScratch) {
+        if (!holdsWriterLock()) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("skipped", "another node holds the projection writer lock");
+            return result;
+        }
+        long started = System.currentTimeMillis();
+        PositionProjection rebuilt = new PositionProjection();
+        pendingIds.clear();
+        boolean discardSnapshots = fromScratch;
+        Optional<PositionSnapshot> snapshot = fromScratch
+                ? Optional.empty()
+                : positionSnapshotRepository.findTopByOrderByLedgerEntryIdDescIdDesc();
+        if (snapshot.isPresent()) {
+            try {
+                rebuilt.restore(objectMapper.readValue(snapshot.get().getPositions(), POSITIONS),
+                        snapshot.get().getLedgerEntryId());
+                if (snapshot.get().getPendingEntryIds() != null) {
+                    long lookUntil = System.currentTimeMillis() + lateCommitWindowMs;
+                    for (Long id : objectMapper.readValue(snapshot.get().getPendingEntryIds(), IDS)) {
+                        pendingIds.put(id, lookUntil);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                log.warn("Position snapshot id={} is unreadable ({}); replaying the full ledger",
+                        snapshot.get().getId(), e.getMessage());
+                snapshot = Optional.empty();
+                discardSnapshots = true;
+                rebuilt = new PositionProjection();
+                pendingIds.clear();
+            }
+        }
+        projection = rebuilt;
+        int replayed = replay(new LinkedHashSet<>());
+        transactionTemplate.executeWithoutResult(status -> writeHoldings(null, true));
+        inSync = true;
+        if (replayed > 0 || discardSnapshots) {
+            snapshot(discardSnapshots);
+        }
+        lastRebuildMs = System.currentTimeMillis() - started;
+        log.info("Portfolio projection rebuilt {} in {} ms: {} position(s), replayed {} ledger entr(ies), high-water mark {}",
+                snapshot.map(s -> "from snapshot at ledger id " + s.getLedgerEntryId()).orElse("from the full ledger"),
+                lastRebuildMs, projection.size(), replayed, projection.highWaterMark());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fromSnapshotLedgerEntryId", snapshot.map(PositionSnapshot::getLedgerEntryId).orElse(null));
+        result.put("replayedEntries", replayed);
+        result.put("positions", projection.size());
+        result.put("highWaterMark", projection.highWaterMark());
+        result.put("durationMs", lastRebuildMs);
+        return result;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("writer", writerLockConnection != null || !isPostgres());
+        status.put("inSync", inSync);
+        status.put("highWaterMark", projection.highWaterMark());
+        status.put("pendingEntryIds", pendingIds.size());
+        status.put("positions", projection.size());
+        status.put("appliedSinceSnapshot", appliedSinceSnapshot);
+        status.put("lastSnapshotLedgerEntryId", lastSnapshotLedgerEntryId);
+        status.put("lastRebuildMs", lastRebuildMs);
+        return status;
+    }
+
+    /**
+     * Apply pending ids that have committed since, then the entries after the high-water mark,
+     * collecting the keys of changed positions.
+     */
+    private int replay(Set<String> changed) {
+        long now = System.currentTimeMillis();
+        int applied = 0;
+        if (!pendingIds.isEmpty()) {
+            for (CleanLedgerEntry entry : cleanLedgerEntryRepository.findAllById(new ArrayList<>(pendingIds.keySet()))) {
+                pendingIds.remove(entry.getId());
+                apply(entry, changed);
+                applied++;
+            }
+            // Rolled back, or committed too late to be told apart from a rolled-back insert
+            pendingIds.values().removeIf(lookUntil -> lookUntil < now);
+        }
+        LocalDateTime recent = LocalDateTime.now().minusNanos(lateCommitWindowMs * 1_000_000);
+        while (true) {
+            List<CleanLedgerEntry> batch = cleanLedgerEntryRepository.findByIdGreaterThanOrderByIdAsc(
+                    projection.highWaterMark(), PageRequest.of(0, batchSize));
+            for (CleanLedgerEntry entry : batch) {
+                // Ids skipped just before a recent entry may still commit; older gaps are rollbacks
+                if (entry.getCreatedAt() != null && entry.getCreatedAt().isAfter(recent)) {
+                    for (long id = projection.highWaterMark() + 1; id < entry.getId() && pendingIds.size() < MAX_PENDING_IDS; id++) {
+                        pendingIds.put(id, now + lateCommitWindowMs);
+                    }
+                }
+                apply(entry, changed);
+            }
+            applied += batch.size();
+            if (batch.size() < batchSize) {
+                return applied;
+            }
+        }
+    }
+
+    private void apply(CleanLedgerEntry entry, Set<String> changed) {
+        String key = projection.apply(entry);
+        if (key != null) {
+            changed.add(key);
+        }
+    }
+
+    /**
+     * Whether this node is the projection writer: holds the session advisory lock on its own connection,
+     * taking it if free. A node that has just taken it rebuilds before writing, since its in-memory
+     * positions may be stale.
+     */
+    private boolean holdsWriterLock() {
+        if (!isPostgres()) {
+            return true;
+        }
+        try {
+            if (writerLockConnection != null) {
+                if (writerLockConnection.isValid(2)) {
+                    return true;
+                }
+                log.warn("Portfolio projection writer lock connection lost; re-acquiring");
+                releaseWriterLock();
+            }
+            Connection connection = DriverManager.getConnection(url, username, password);
+            boolean acquired;
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                ps.setLong(1, WRITER_LOCK_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    acquired = rs.next() && rs.getBoolean(1);
+                }
+            }
+            if (!acquired) {
+                connection.close();
+                return false;
+            }
+            writerLockConnection = connection;
+            inSync = false;
+            log.info("This node is now the portfolio projection writer");
+            return true;
+        } catch (SQLException e) {
+            log.warn("Could not take the portfolio projection writer lock: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isPostgres() {
+        return url.startsWith("jdbc:postgresql:");
+    }
+
+    /** Closing the session releases the advisory lock. */
+    @PreDestroy
+    synchronized void releaseWriterLock() {
+        if (writerLockConnection != null) {
+            try {
+                writerLockConnection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the projection writer lock connection failed: {}", e.getMessage());
+            }
+            writerLockConnection = null;
+        }
+    }
+
+    /**
+     * Write projected positions to portfolio_holding: only {@code keys}, reading just their rows, or
+     * every position when {@code exact}, in which case rows the projection does not know are deleted.
+     */
+    private void writeHoldings(Collection<String> keys, boolean exact) {
+        Map<String, PortfolioHolding> stored = new HashMap<>();
+        List<PortfolioHolding> unknown = new ArrayList<>();
+        for (PortfolioHolding h : exact ? portfolioHoldingRepository.findAll() : findStored(keys)) {
+            String key = PositionProjection.key(h.getInstrumentType(), h.getSymbol(), h.getName());
+            if (stored.putIfAbsent(key, h) != null || projection.get(key) == null) {
+                unknown.add(h);
+            }
+        }
+        List<PortfolioHolding> toSave = new ArrayList<>();
+        for (ProjectedPosition p : exact ? projection.positions() : toPositions(keys)) {
+            PortfolioHolding h = stored.get(PositionProjection.key(p.instrumentType(), p.symbol(), p.name()));
+            if (h == null) {
+                h = PortfolioHolding.builder()
+                        .instrumentType(p.instrumentType())
+                        .symbol(p.symbol())
+                        .currency("INR")
+                        .build();
+            }
+            h.setName(p.name());
+            h.setQuantity(p.quantity());
+            h.setRawIngestionId(p.rawIngestionId());
+            h.setLastUpdated(p.lastLedgerDate() != null ? p.lastLedgerDate() : LocalDateTime.now());
+            toSave.add(h);
+        }
+        portfolioHoldingRepository.saveAll(toSave);
+        if (exact && !unknown.isEmpty()) {
+            portfolioHoldingRepository.deleteAll(unknown);
+            log.info("Removed {} portfolio holding row(s) not backed by the ledger", unknown.size());
+        }
+    }
+
+    /** Rows that may hold the given positions: one query by symbol, one by name for symbol-less ones. */
+    private List<PortfolioHolding> findStored(Collection<String> keys) {
+        Set<String> symbols = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (ProjectedPosition p : toPositions(keys)) {
+            if (p.symbol() != null) {
+                symbols.add(p.symbol());
+            } else if (p.name() != null) {
+                names.add(p.name());
+            }
+        }
+        List<PortfolioHolding> rows = new ArrayList<>();
+        if (!symbols.isEmpty()) {
+            rows.addAll(portfolioHoldingRepository.findBySymbolIn(symbols));
+        }
+        if (!names.isEmpty()) {
+            rows.addAll(portfolioHoldingRepository.findBySymbolIsNullAndNameIn(names));
+        }
+        return rows;
+    }
+
+    private List<ProjectedPosition> toPositions(Collection<String> keys) {
+        List<ProjectedPosition> positions = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            positions.add(projection.get(key));
+        }
+        return positions;
+    }
+
+    /** Store the projection with its high-water mark; keeps the three newest snapshots (only the new one after a rebuild from scratch). */
+    private void snapshot(boolean replaceAll) {
+        String json;
+        String pendingJson;
+        try {
+            json = objectMapper.writeValueAsString(projection.positions());
+            pendingJson = pendingIds.isEmpty() ? null : objectMapper.writeValueAsString(pendingIds.keySet());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize position snapshot: {}", e.getMessage());
+            return;
+        }
+        PositionSnapshot saved = transactionTemplate.execute(status -> {
+            PositionSnapshot s = positionSnapshotRepository.save(PositionSnapshot.builder()
+                    .ledgerEntryId(projection.highWaterMark())
+                    .positionCount(projection.size())
+                    .positions(json)
+                    .pendingEntryIds(pendingJson)
+                    .build());
+            List<Long> keep = replaceAll
+                    ? List.of(s.getId())
+                    : positionSnapshotRepository.findTop3ByOrderByLedgerEntryIdDescIdDesc().stream()
+                            .map(PositionSnapshot::getId).toList();
+            positionSnapshotRepository.deleteAllExcept(keep);
+            return s;
+        });
+        appliedSinceSnapshot = 0;
+        lastSnapshotLedgerEntryId = saved != null ? saved.getLedgerEntryId() : lastSnapshotLedgerEntryId;
+        log.info("Stored position snapshot at ledger id {} ({} position(s))", projection.highWaterMark(), projection.size());
+    }
+}
@@ -0,0 +1,138 @@
+package com.wealthmanager.backend.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Similarity of merchant names as written by different channels, e.g. "AMAZON" (SMS),
+ * "Amazon Pay India Pvt Ltd" (email) or "amazon@apl" (UPI VPA).
+ * Names are normalized (upper-cased, the handle of a VPA dropped, punctuation to spaces, legal, geo and
+ * payment-channel words dropped), then scored as the higher of Jaro-Winkler and token containment of
+ * multi-word names.
+ * <p>
+ * One word alone ("UBER" against "UBER EATS", "PAYTM" against "PAYTM MALL") names a brand, not a
+ * merchant: when one name is a single word that starts the other, the score is capped at
+ * {@link #BRAND_ONLY_SCORE}, since Jaro-Winkler alone would rate such pairs about 0.9.
+ */
+final class MerchantSimilarity {
+
+    private static final Set<String> NOISE_TOKENS = Set.of(
+            "PVT", "PRIVATE", "LTD", "LIMITED", "LLP", "INC", "CO", "CORP", "COMPANY", "THE",
+            "INDIA", "IN", "ONLINE", "SERVICES", "SERVICE", "PAY", "PAYMENTS", "TECHNOLOGIES", "RETAIL");
+
+    /**
+     * Score given when every word of the shorter name appears in the longer one and the shorter name
+     * has at least {@link #MIN_CONTAINMENT_TOKENS} words.
+     */
+    private static final double CONTAINMENT_SCORE = 0.95;
+    private static final int MIN_CONTAINMENT_TOKENS = 2;
+    /** Upper bound for a single brand word against a longer name it starts; below any sensible threshold. */
+    private static final double BRAND_ONLY_SCORE = 0.5;
+
+    private MerchantSimilarity() {
+    }
+
+    /** @return similarity in [0, 1]; 0 if either name is missing */
+    static double score(String a, String b) {
+        return scoreNormalized(normalize(a), normalize(b));
+    }
+
+    /** As {@link #score} for names already passed through {@link #normalize}. */
+    static double scoreNormalized(String na, String nb) {
+        if (na.isEmpty() || nb.isEmpty()) {
+            return 0.0;
+        }
+        if (na.equals(nb)) {
+            return 1.0;
+        }
+        if (isBrandPrefix(na, nb) || isBrandPrefix(nb, na)) {
+            return Math.min(jaroWinkler(na, nb), BRAND_ONLY_SCORE);
+        }
+        double jw = jaroWinkler(na, nb);
+        return containsAllTokens(na, nb) ? Math.max(jw, CONTAINMENT_SCORE) : jw;
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        // "amazon@apl": the part after @ is the payment app's handle
+        int at = name.indexOf('@');
+        if (at > 0) {
+            name = name.substring(0, at);
+        }
+        StringBuilder out = new StringBuilder(name.length());
+        for (String token : name.toUpperCase(Locale.ROOT).split("[^A-Z0-9]+")) {
+            if (!token.isEmpty() && !NOISE_TOKENS.contains(token)) {
+                if (!out.isEmpty()) {
+                    out.append(' ');
+                }
+                out.append(token);
+            }
+        }
+        return out.toString();
+    }
+
+    /** {@code single} is one word and the first word of the multi-word {@code other}. */
+    private static boolean isBrandPrefix(String single, String other) {
+        return single.indexOf(' ') < 0 && other.startsWith(single + " ");
+    }
+
+    private static boolean containsAllTokens(String a, String b) {
+        String[] shorter = (a.length() <= b.length() ? a : b).split(" ");
+        if (shorter.length < MIN_CONTAINMENT_TOKENS) {
+            return false;
+        }
+        Set<String> longer = Set.copyOf(Arrays.asList((a.length() <= b.length() ? b : a).split(" ")));
+        for (String token : shorter) {
+            if (!longer.contains(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static double jaroWinkler(String s1, String s2) {
+        int len1 = s1.length();
+        int len2 = s2.length();
+        int window = Math.max(0, Math.max(len1, len2) / 2 - 1);
+        boolean[] matched1 = new boolean[len1];
+        boolean[] matched2 = new boolean[len2];
+        int matches = 0;
+        for (int i = 0; i < len1; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(len2 - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matched2[j] && s1.charAt(i) == s2.charAt(j)) {
+                    matched1[i] = true;
+                    matched2[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < len1; i++) {
+            if (matched1[i]) {
+                while (!matched2[j]) {
+                    j++;
+                }
+                if (s1.charAt(i) != s2.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / len1 + m / len2 + (m - transpositions / 2.0) / m) / 3.0;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(len1, len2)) && s1.charAt(prefix) == s2.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+}
@@ -0,0 +1,107 @@
+package com.wealthmanager.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Holds one connection in {@code LISTEN parse_job} and wakes {@link ParseJobWorker} when a job
+ * commits, so new ingestions are picked up immediately instead of on the next poll.
+ * The connection is opened with {@link DriverManager}, outside the Hikari pool, so the listener never
+ * takes a pooled connection away from request and worker threads.
+ * Reconnects with a delay if the connection drops. On databases other than PostgreSQL the listener
+ * stops and the worker's poll is the only trigger.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ingestion.job-queue", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ParseJobListener {
+
+    private static final String CHANNEL = "parse_job";
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final ParseJobWorker worker;
+    private final boolean enabled;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ParseJobListener(@Value("${spring.datasource.url}") String url,
+                            @Value("${spring.datasource.username:}") String username,
+                            @Value("${spring.datasource.password:}") String password,
+                            ParseJobWorker worker,
+                            @Value("${app.ingestion.job-queue.listen:true}") boolean enabled) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.worker = worker;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Parse job LISTEN disabled; relying on polling");
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listenLoop, "parse-job-listen");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        if (!url.startsWith("jdbc:postgresql:")) {
+            log.info("Database is not PostgreSQL; parse job LISTEN/NOTIFY unavailable, relying on polling");
+            return;
+        }
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                try (Statement st = connection.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for parse job notifications on channel '{}'", CHANNEL);
+                // Jobs committed while we were not listening
+                worker.wakeUp();
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications != null && notifications.length > 0) {
+                        worker.wakeUp();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Parse job listener connection lost ({}); reconnecting in {} ms", e.getMessage(), RECONNECT_DELAY_MS);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.ai.TransactionParser;
+import com.wealthmanager.backend.model.ParseJob;
+import com.wealthmanager.backend.model.RawIngestion;
+import com.wealthmanager.backend.repository.ParseJobRepository;
+import com.wealthmanager.backend.repository.RawIngestionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the durable parse_job queue.
+ * <p>
+ * Jobs are claimed in a short transaction with {@code FOR UPDATE SKIP LOCKED} and hidden for the
+ * visibility timeout; each claimed job runs unified extraction and is deleted in the same transaction
+ * as its results. A job whose worker dies becomes visible again and is retried elsewhere; after
+ * {@code max-attempts} claims it is dropped: its holdings are still extracted and saved with the job's
+ * deletion, and transaction parsing is left to the backlog retry schedule.
+ * Woken by {@link ParseJobListener} (Postgres NOTIFY) and by a fallback poll.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ingestion.job-queue", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ParseJobWorker {
+
+    private final ParseJobRepository parseJobRepository;
+    private final RawIngestionRepository rawIngestionRepository;
+    private final ExtractionService extractionService;
+    private final TransactionParser transactionParser;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long visibilityTimeoutMs;
+    private final int maxAttempts;
+    private final ExecutorService dispatcher;
+    private final ExecutorService workers;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    public ParseJobWorker(ParseJobRepository parseJobRepository,
+                          RawIngestionRepository rawIngestionRepository,
+                          ExtractionService extractionService,
+                          TransactionParser transactionParser,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${app.ingestion.job-queue.concurrency:2}") int concurrency,
+                          @Value("${app.ingestion.job-queue.batch-size:10}") int batchSize,
+                          @Value("${app.ingestion.job-queue.visibility-timeout-ms:600000}") long visibilityTimeoutMs,
+                          @Value("${app.ingestion.job-queue.max-attempts:5}") int maxAttempts) {
+        this.parseJobRepository = parseJobRepository;
+        this.rawIngestionRepository = rawIngestionRepository;
+        this.extractionService = extractionService;
+        this.transactionParser = transactionParser;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.visibilityTimeoutMs = visibilityTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.dispatcher = Executors.newSingleThreadExecutor(r -> daemon(r, "parse-job-dispatch"));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, concurrency),
+                r -> daemon(r, "parse-job-" + threadCount.incrementAndGet()));
+    }
+
+    /**
+     * Request a drain. Cheap and safe to call from any thread; concurrent requests coalesce into
+     * one more pass of the running drain.
+     */
+    public void wakeUp() {
+        if (draining.compareAndSet(false, true)) {
+            dispatcher.execute(this::drainUntilEmpty);
+        } else {
+            rerun.set(true);
+        }
+    }
+
+    /** Fallback for missed notifications (and the only trigger on databases without LISTEN/NOTIFY). */
+    @Scheduled(fixedDelayString = "${app.ingestion.job-queue.poll-interval-ms:10000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    private void drainUntilEmpty() {
+        try {
+            do {
+                rerun.set(false);
+                drain();
+            } while (rerun.get());
+        } catch (Exception e) {
+            log.warn("Parse job drain failed: {}", e.getMessage(), e);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /** @return number of jobs completed */
+    int drain() {
+        int completed = 0;
+        while (transactionParser.isAvailable()) {
+            List<ParseJob> jobs = claimBatch();
+            if (jobs.isEmpty()) {
+                break;
+            }
+            List<Future<Boolean>> results = new ArrayList<>(jobs.size());
+            for (ParseJob job : jobs) {
+                results.add(workers.submit(() -> runJob(job)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    if (results.get(i).get()) {
+                        completed++;
+                    }
+                } catch (ExecutionException e) {
+                    // Job stays hidden until its visibility timeout, then is retried
+                    log.warn("Parse job id={} failed: {}", jobs.get(i).getId(), e.getCause().getMessage(), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return completed;
+                }
+            }
+        }
+        if (completed > 0) {
+            log.info("Completed {} parse job(s)", completed);
+        }
+        return completed;
+    }
+
+    /** {@code job} is as read before the claim, so this worker's claim is attempt {@code attempts + 1}. */
+    private boolean runJob(ParseJob job) {
+        Optional<RawIngestion> ingestion = rawIngestionRepository.findById(job.getRawIngestionId());
+        if (ingestion.isEmpty()) {
+            parseJobRepository.deleteById(job.getId());
+            return false;
+        }
+        int claimedAttempts = job.getAttempts() + 1;
+        if (job.getAttempts() >= maxAttempts) {
+            log.warn("Dropping parse job id={} for ingestion id={} after {} attempt(s); holdings saved, backlog retry applies",
+                    job.getId(), job.getRawIngestionId(), job.getAttempts());
+            extractionService.processHoldingsOnly(ingestion.get(), job.getId(), claimedAttempts);
+            return false;
+        }
+        extractionService.process(ingestion.get(), job.getId(), claimedAttempts);
+        return true;
+    }
+
+    /**
+     * Lock and hide the next visible jobs in one short transaction. Jobs that have already been
+     * claimed {@code max-attempts} times are hidden too; {@link #runJob} drops them.
+     */
+    private List<ParseJob> claimBatch() {
+        List<ParseJob> jobs = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ParseJob> locked = parseJobRepository.lockVisible(now, batchSize);
+            if (!locked.isEmpty()) {
+                parseJobRepository.hideUntil(locked.stream().map(ParseJob::getId).toList(),
+                        now.plusNanos(visibilityTimeoutMs * 1_000_000));
+            }
+            return locked;
+        });
+        return jobs != null ? jobs : List.of();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+    }
+}
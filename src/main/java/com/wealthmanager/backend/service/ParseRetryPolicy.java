@@ -0,0 +1,42 @@
+package com.wealthmanager.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Exponential backoff for ingestions that yield no transaction: the n-th failed attempt waits
+ * {@code base * 2^(n-1)}, capped at {@code max-delay}; after {@code max-attempts} the row is dead-lettered.
+ */
+@Component
+public class ParseRetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+
+    public ParseRetryPolicy(@Value("${app.ai.retry.max-attempts:5}") int maxAttempts,
+                            @Value("${app.ai.retry.base-delay-ms:600000}") long baseDelayMs,
+                            @Value("${app.ai.retry.max-delay-ms:86400000}") long maxDelayMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = Duration.ofMillis(baseDelayMs);
+        this.maxDelay = Duration.ofMillis(maxDelayMs);
+    }
+
+    /** @param attempts failed attempts so far, including the one just made */
+    public boolean isExhausted(int attempts) {
+        return attempts >= maxAttempts;
+    }
+
+    /** @param attempts failed attempts so far, including the one just made */
+    public LocalDateTime nextAttemptAt(int attempts, LocalDateTime now) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = baseDelay.multipliedBy(1L << shift);
+        if (delay.compareTo(maxDelay) > 0) {
+            delay = maxDelay;
+        }
+        return now.plus(delay);
+    }
+}
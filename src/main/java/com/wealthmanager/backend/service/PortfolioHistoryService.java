@@ -0,0 +1,237 @@
+package com.wealthmanager.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealthmanager.backend.model.CleanLedgerEntry;
+import com.wealthmanager.backend.model.PositionCheckpoint;
+import com.wealthmanager.backend.model.dto.PortfolioAsOfResponse;
+import com.wealthmanager.backend.model.dto.ProjectedPosition;
+import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
+import com.wealthmanager.backend.repository.PositionCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Point-in-time portfolio positions. Positions at the start of every month are stored as
+ * {@link PositionCheckpoint}s; a query restores the nearest checkpoint at or before the target and
+ * replays only the ledger entries dated between the two, so its cost is bounded by one month of
+ * entries however long the ledger gets. Entries are replayed in ledger-date order with the same rules
+ * as the live projection.
+ * <p>
+ * Ledger entries can arrive with an old date (a backfilled email, a re-parse). A query skips the
+ * checkpoints such an entry invalidates and replays from an older one; the scheduled refresh drops
+ * them and rebuilds them. Queries never write, so they are safe to serve from every node; the refresh
+ * runs on one node at a time under a PostgreSQL advisory lock.
+ */
+@Service
+@Slf4j
+public class PortfolioHistoryService {
+
+    private static final TypeReference<List<ProjectedPosition>> POSITIONS = new TypeReference<>() {
+    };
+    /** pg advisory lock key of the checkpoint refresh ("POSCHKPT"). */
+    private static final long REFRESH_LOCK_KEY = 0x504f5343_484b5054L;
+
+    private final CleanLedgerEntryRepository cleanLedgerEntryRepository;
+    private final PositionCheckpointRepository positionCheckpointRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long settleMs;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Clock clock;
+
+    public PortfolioHistoryService(CleanLedgerEntryRepository cleanLedgerEntryRepository,
+                                   PositionCheckpointRepository positionCheckpointRepository,
+                                   ObjectMapper objectMapper,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.portfolio.projection.settle-ms:10000}") long settleMs,
+                                   @Value("${spring.datasource.url}") String url,
+                                   @Value("${spring.datasource.username:}") String username,
+                                   @Value("${spring.datasource.password:}") String password,
+                                   Clock clock) {
+        this.cleanLedgerEntryRepository = cleanLedgerEntryRepository;
+        this.positionCheckpointRepository = positionCheckpointRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.settleMs = settleMs;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.clock = clock;
+    }
+
+    /** Positions held at the end of {@code date}; positions that were fully redeemed are left out. */
+    public PortfolioAsOfResponse getPositionsAsOf(LocalDate date) {
+        LocalDateTime target = date.plusDays(1).atStartOfDay();
+        PositionProjection projection = new PositionProjection();
+        Optional<PositionCheckpoint> checkpoint = findValidCheckpoint(target);
+        List<CleanLedgerEntry> entries;
+        if (checkpoint.isPresent() && restore(projection, checkpoint.get())) {
+            entries = cleanLedgerEntryRepository.findByLedgerDateGreaterThanEqualAndLedgerDateLessThanOrderByLedgerDateAscIdAsc(
+                    checkpoint.get().getCheckpointDate(), target);
+        } else {
+            checkpoint = Optional.empty();
+            entries = cleanLedgerEntryRepository.findByLedgerDateLessThanOrderByLedgerDateAscIdAsc(target);
+        }
+        entries.forEach(projection::apply);
+
+        List<ProjectedPosition> held = projection.positions().stream()
+                .filter(p -> p.quantity().signum() > 0)
+                .toList();
+        return new PortfolioAsOfResponse(date, checkpoint.map(PositionCheckpoint::getCheckpointDate).orElse(null),
+                entries.size(), held);
+    }
+
+    @Scheduled(fixedDelayString = "${app.portfolio.checkpoints.interval-ms:3600000}")
+    public void scheduledRefresh() {
+        try {
+            refreshCheckpoints();
+        } catch (Exception e) {
+            log.warn("Position checkpoint refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Drop checkpoints invalidated by entries added since they were built, then build the missing
+     * monthly checkpoints up to the start of the current month. Skipped while another node is refreshing.
+     *
+     * @return number of checkpoints built
+     */
+    public synchronized int refreshCheckpoints() {
+        if (!url.startsWith("jdbc:postgresql:")) {
+            return refresh();
+        }
+        // Session-level lock on a dedicated connection; closing it releases the lock
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                ps.setLong(1, REFRESH_LOCK_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || !rs.getBoolean(1)) {
+                        log.debug("Position checkpoint refresh skipped: another node is refreshing");
+                        return 0;
+                    }
+                }
+            }
+            return refresh();
+        } catch (SQLException e) {
+            log.warn("Could not take the position checkpoint refresh lock: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private int refresh() {
+        Long maxId = cleanLedgerEntryRepository.findMaxIdCreatedBefore(
+                LocalDateTime.now(clock).minusNanos(settleMs * 1_000_000));
+        if (maxId == null) {
+            return 0;
+        }
+        Long builtUpTo = positionCheckpointRepository.findMaxLedgerEntryId();
+        if (builtUpTo != null) {
+            LocalDateTime earliestNew = cleanLedgerEntryRepository.findMinLedgerDateAfterId(builtUpTo);
+            if (earliestNew != null) {
+                Integer dropped = transactionTemplate.execute(status ->
+                        positionCheckpointRepository.deleteByCheckpointDateAfter(earliestNew));
+                if (dropped != null && dropped > 0) {
+                    log.info("Dropped {} position checkpoint(s) after {}: older ledger entries arrived", dropped, earliestNew);
+                }
+            }
+        }
+
+        PositionProjection projection = new PositionProjection();
+        LocalDateTime from;
+        Optional<PositionCheckpoint> last = positionCheckpointRepository.findTopByOrderByCheckpointDateDesc();
+        if (last.isPresent() && restore(projection, last.get())) {
+            from = last.get().getCheckpointDate();
+        } else {
+            if (last.isPresent()) {
+                transactionTemplate.executeWithoutResult(status -> positionCheckpointRepository.deleteAllInBatch());
+            }
+            LocalDateTime first = cleanLedgerEntryRepository.findMinLedgerDate();
+            if (first == null) {
+                return 0;
+            }
+            from = first.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        }
+
+        LocalDateTime end = LocalDate.now(clock).withDayOfMonth(1).atStartOfDay();
+        int built = 0;
+        for (LocalDateTime next = from.plusMonths(1); !next.isAfter(end); next = next.plusMonths(1)) {
+            cleanLedgerEntryRepository.findByLedgerDateGreaterThanEqualAndLedgerDateLessThanOrderByLedgerDateAscIdAsc(from, next)
+                    .forEach(projection::apply);
+            if (!store(projection, next, maxId)) {
+                break;
+            }
+            from = next;
+            built++;
+        }
+        if (built > 0) {
+            log.info("Built {} position checkpoint(s) up to {}", built, from);
+        }
+        return built;
+    }
+
+    /**
+     * Newest checkpoint at or before {@code target} that no later-added entry is dated before. When the
+     * nearest one is stale, the search moves to the checkpoints at or before that entry's date.
+     */
+    private Optional<PositionCheckpoint> findValidCheckpoint(LocalDateTime target) {
+        LocalDateTime upTo = target;
+        while (true) {
+            Optional<PositionCheckpoint> checkpoint =
+                    positionCheckpointRepository.findTopByCheckpointDateLessThanEqualOrderByCheckpointDateDesc(upTo);
+            if (checkpoint.isEmpty()) {
+                return checkpoint;
+            }
+            LocalDateTime earliestNew = cleanLedgerEntryRepository.findMinLedgerDateAfterId(checkpoint.get().getLedgerEntryId());
+            if (earliestNew == null || !earliestNew.isBefore(checkpoint.get().getCheckpointDate())) {
+                return checkpoint;
+            }
+            upTo = earliestNew;
+        }
+    }
+
+    private boolean restore(PositionProjection projection, PositionCheckpoint checkpoint) {
+        try {
+            projection.restore(objectMapper.readValue(checkpoint.getPositions(), POSITIONS), checkpoint.getLedgerEntryId());
+            return true;
+        } catch (JsonProcessingException e) {
+            log.warn("Position checkpoint {} is unreadable ({}); replaying from the start of the ledger",
+                    checkpoint.getCheckpointDate(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean store(PositionProjection projection, LocalDateTime checkpointDate, long ledgerEntryId) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(projection.positions());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize position checkpoint {}: {}", checkpointDate, e.getMessage());
+            return false;
+        }
+        positionCheckpointRepository.save(PositionCheckpoint.builder()
+                .checkpointDate(checkpointDate)
+                .ledgerEntryId(ledgerEntryId)
+                .positionCount(projection.size())
+                .positions(json)
+                .build());
+        return true;
+    }
+}
@@ -2,17 +2,19 @@ package com.wealthmanager.backend.service;
 
 import com.wealthmanager.backend.model.PortfolioHolding;
 import com.wealthmanager.backend.model.dto.PortfolioHoldingResponse;
+import com.wealthmanager.backend.model.dto.PositionDelta;
 import com.wealthmanager.backend.repository.PortfolioHoldingRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 @Service
 @Slf4j
@@ -29,17 +31,11 @@ public class PortfolioService {
     }
 
     public List<PortfolioHoldingResponse> getAllHoldings() {
-        return portfolioHoldingRepository.findAllByOrderByInstrumentTypeAscSymbolAsc()
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return portfolioHoldingRepository.findAllResponses();
     }
 
     public List<PortfolioHoldingResponse> getHoldingsByInstrumentType(String instrumentType) {
-        return portfolioHoldingRepository.findByInstrumentTypeOrderBySymbolAsc(instrumentType)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return portfolioHoldingRepository.findResponsesByInstrumentType(instrumentType);
     }
 
     public List<PortfolioHoldingResponse> getStockHoldings() {
@@ -51,11 +47,11 @@ public class PortfolioService {
     }
 
     public Map<String, Object> getPortfolioSummary() {
-        List<PortfolioHolding> all = portfolioHoldingRepository.findAllByOrderByInstrumentTypeAscSymbolAsc();
-        long stockCount = all.stream().filter(h -> INSTRUMENT_STOCK.equals(h.getInstrumentType())).count();
-        long mfCount = all.stream().filter(h -> INSTRUMENT_MUTUAL_FUND.equals(h.getInstrumentType())).count();
+        List<PortfolioHoldingResponse> all = portfolioHoldingRepository.findAllResponses();
+        long stockCount = all.stream().filter(h -> INSTRUMENT_STOCK.equals(h.instrumentType())).count();
+        long mfCount = all.stream().filter(h -> INSTRUMENT_MUTUAL_FUND.equals(h.instrumentType())).count();
         java.math.BigDecimal totalValue = all.stream()
-                .map(PortfolioHolding::getCurrentValue)
+                .map(PortfolioHoldingResponse::currentValue)
                 .filter(java.util.Objects::nonNull)
                 .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
 
@@ -67,40 +63,61 @@ public class PortfolioService {
         return summary;
     }
 
+    /**
+     * Apply the position changes from one ingestion. Deltas are first merged per (instrument type,
+     * symbol), so a message listing the same fund twice costs one statement; each merged delta is then
+     * applied atomically in the database (no read-modify-write): net increases through the
+     * {@code ON CONFLICT} upsert, net decreases as an in-place decrement floored at zero.
+     * Positions are touched in key order so concurrent ingestions cannot deadlock on each other's rows.
+     * Symbol-less (long-named) holdings have no key: increases insert a row, decreases are skipped.
+     *
+     * @return number of positions changed
+     */
     @Transactional
-    public PortfolioHoldingResponse upsertHolding(PortfolioHolding holding) {
-        String symbol = holding.getSymbol() != null ? holding.getSymbol() : "";
-        Optional<PortfolioHolding> existing = portfolioHoldingRepository.findByInstrumentTypeAndSymbol(
-                holding.getInstrumentType(), symbol);
-        PortfolioHolding toSave;
-        if (existing.isPresent()) {
-            PortfolioHolding e = existing.get();
-            e.setQuantity(e.getQuantity().add(holding.getQuantity()));
-            if (holding.getAveragePrice() != null) e.setAveragePrice(holding.getAveragePrice());
-            if (holding.getCurrentValue() != null) e.setCurrentValue(holding.getCurrentValue());
-            if (holding.getName() != null) e.setName(holding.getName());
-            e.setLastUpdated(LocalDateTime.now());
-            e.setRawIngestionId(holding.getRawIngestionId());
-            toSave = portfolioHoldingRepository.save(e);
-        } else {
-            toSave = portfolioHoldingRepository.save(holding);
+    public int applyDeltas(Collection<PositionDelta> deltas) {
+        int changed = 0;
+        for (PositionDelta d : merge(deltas)) {
+            int sign = d.quantity().signum();
+            if (sign > 0) {
+                portfolioHoldingRepository.upsertAddingQuantity(PortfolioHolding.builder()
+                        .rawIngestionId(d.rawIngestionId())
+                        .instrumentType(d.instrumentType())
+                        .symbol(d.symbol())
+                        .name(d.name())
+                        .quantity(d.quantity())
+                        .currency("INR")
+                        .lastUpdated(d.at())
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                changed++;
+            } else if (sign < 0 && d.symbol() != null) {
+                int updated = portfolioHoldingRepository.decrementQuantity(
+                        d.instrumentType(), d.symbol(), d.quantity(), d.at(), d.rawIngestionId());
+                if (updated == 0) {
+                    log.info("Redemption of {} {} {} has no stored position; ledger entry only",
+                            d.quantity().negate(), d.instrumentType(), d.symbol());
+                }
+                changed += updated;
+            } else if (sign < 0) {
+                log.debug("Skipping redemption for symbol-less holding '{}'", d.name());
+            }
         }
-        return toResponse(toSave);
+        return changed;
     }
 
-    private PortfolioHoldingResponse toResponse(PortfolioHolding h) {
-        return new PortfolioHoldingResponse(
-                h.getId(),
-                h.getRawIngestionId(),
-                h.getInstrumentType(),
-                h.getSymbol(),
-                h.getName(),
-                h.getQuantity(),
-                h.getAveragePrice(),
-                h.getCurrentValue(),
-                h.getCurrency(),
-                h.getLastUpdated(),
-                h.getCreatedAt()
-        );
+    /** Sum deltas per (instrument type, symbol), in key order; symbol-less deltas pass through unmerged. */
+    static List<PositionDelta> merge(Collection<PositionDelta> deltas) {
+        Map<String, PositionDelta> byKey = new TreeMap<>();
+        List<PositionDelta> unkeyed = new ArrayList<>();
+        for (PositionDelta d : deltas) {
+            if (d.symbol() == null) {
+                unkeyed.add(d);
+            } else {
+                byKey.merge(d.instrumentType() + '\u0000' + d.symbol(), d, PositionDelta::plus);
+            }
+        }
+        List<PositionDelta> merged = new ArrayList<>(byKey.values());
+        merged.addAll(unkeyed);
+        return merged;
     }
 }
@@ -0,0 +1,88 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.CleanLedgerEntry;
+import com.wealthmanager.backend.model.dto.ProjectedPosition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory fold of Clean Ledger entries into positions, keyed by (instrument type, symbol) or, for
+ * symbol-less holdings, (instrument type, name). Same rules as direct updates: purchases/SIPs add,
+ * redemptions subtract but never below zero, and a redemption of an unknown position is ignored.
+ * Not thread-safe; {@link LedgerProjector} serializes access and {@link PortfolioHistoryService} uses one per query.
+ */
+final class PositionProjection {
+
+    private final Map<String, ProjectedPosition> positions = new HashMap<>();
+    private long highWaterMark;
+
+    static String key(String instrumentType, String symbol, String name) {
+        return symbol != null
+                ? instrumentType + '\u0000' + symbol
+                : instrumentType + "\u0000\u0000" + name;
+    }
+
+    static boolean isRedemption(String entryType) {
+        return "REDEMPTION".equals(entryType) || "SELL".equals(entryType);
+    }
+
+    /**
+     * Apply one entry (in id order for the live projection, ledger-date order for history) and advance
+     * the high-water mark.
+     *
+     * @return key of the changed position, or null if the entry changed nothing
+     */
+    String apply(CleanLedgerEntry e) {
+        highWaterMark = Math.max(highWaterMark, e.getId());
+        String key = key(e.getInstrumentType(), e.getSymbol(), e.getName());
+        ProjectedPosition current = positions.get(key);
+        BigDecimal quantity;
+        if (isRedemption(e.getEntryType())) {
+            if (current == null) {
+                return null;
+            }
+            quantity = current.quantity().subtract(e.getQuantity()).max(BigDecimal.ZERO);
+        } else {
+            quantity = current != null ? current.quantity().add(e.getQuantity()) : e.getQuantity();
+        }
+        String name = e.getName() != null ? e.getName() : current != null ? current.name() : null;
+        positions.put(key, new ProjectedPosition(e.getInstrumentType(), e.getSymbol(), name, quantity,
+                e.getRawIngestionId(), e.getLedgerDate()));
+        return key;
+    }
+
+    void restore(Collection<ProjectedPosition> snapshot, long snapshotHighWaterMark) {
+        positions.clear();
+        for (ProjectedPosition p : snapshot) {
+            positions.put(key(p.instrumentType(), p.symbol(), p.name()), p);
+        }
+        highWaterMark = snapshotHighWaterMark;
+    }
+
+    ProjectedPosition get(String key) {
+        return positions.get(key);
+    }
+
+    /** Positions sorted by instrument type, symbol, name (stable snapshot content). */
+    List<ProjectedPosition> positions() {
+        List<ProjectedPosition> list = new ArrayList<>(positions.values());
+        list.sort(Comparator.comparing(ProjectedPosition::instrumentType)
+                .thenComparing(ProjectedPosition::symbol, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(ProjectedPosition::name, Comparator.nullsLast(Comparator.naturalOrder())));
+        return list;
+    }
+
+    int size() {
+        return positions.size();
+    }
+
+    long highWaterMark() {
+        return highWaterMark;
+    }
+}
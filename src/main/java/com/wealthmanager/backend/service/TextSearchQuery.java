@@ -0,0 +1,63 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Free text → PostgreSQL {@code to_tsquery('simple', ...)} input: letters/digits runs become prefix
+ * terms joined by AND ("swig food" → {@code swig:* & food:*}), everything else is dropped, so user input
+ * can never produce a tsquery syntax error.
+ */
+final class TextSearchQuery {
+
+    private static final int MAX_TERMS = 8;
+
+    private TextSearchQuery() {
+    }
+
+    /** @throws BadRequestException if {@code text} has no searchable word */
+    static String toTsQuery(String text) {
+        List<String> terms = terms(text);
+        if (terms.isEmpty()) {
+            throw new BadRequestException("q must contain at least one letter or digit");
+        }
+        StringBuilder query = new StringBuilder();
+        for (String term : terms) {
+            if (!query.isEmpty()) {
+                query.append(" & ");
+            }
+            query.append(term).append(":*");
+        }
+        return query.toString();
+    }
+
+    /** Lower-cased, trimmed text for pg_trgm word similarity against lower(merchant_name). */
+    static String toTrigramTerm(String text) {
+        return String.join(" ", terms(text));
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int n = text.length();
+        int i = 0;
+        while (i < n && terms.size() < MAX_TERMS) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            }
+        }
+        return terms;
+    }
+}
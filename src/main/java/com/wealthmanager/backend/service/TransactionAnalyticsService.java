@@ -0,0 +1,177 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.TransactionRollup;
+import com.wealthmanager.backend.model.dto.SpendBucket;
+import com.wealthmanager.backend.repository.TransactionRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Spend analytics over transaction_rollup: daily and monthly buckets per category and per merchant,
+ * maintained on insert. A range query reads the monthly rows for the months it fully covers and the
+ * daily rows only for the partial months at either end, so its cost follows the number of buckets in
+ * the range, not the number of transactions. Whole-range totals come from the in-memory
+ * {@link TransactionColumnStore} instead when it is enabled and holds every row of the table.
+ */
+@Service
+@Slf4j
+public class TransactionAnalyticsService {
+
+    public static final String GRANULARITY_DAY = "DAY";
+    public static final String GRANULARITY_MONTH = "MONTH";
+    public static final String GRANULARITY_TOTAL = "TOTAL";
+
+    private final TransactionRollupRepository transactionRollupRepository;
+    private final Optional<TransactionColumnStore> columnStore;
+
+    public TransactionAnalyticsService(TransactionRollupRepository transactionRollupRepository,
+                                       Optional<TransactionColumnStore> columnStore) {
+        this.transactionRollupRepository = transactionRollupRepository;
+        this.columnStore = columnStore;
+    }
+
+    /** Add newly inserted transactions to their day and month buckets; joins the inserting transaction. */
+    @Transactional
+    public void add(Collection<Transaction> inserted) {
+        // Merged per bucket and applied in key order, so concurrent writers lock rows in the same order
+        Map<String, TransactionRollup> deltas = new TreeMap<>();
+        for (Transaction t : inserted) {
+            LocalDate day = t.getTransactionDate().toLocalDate();
+            for (String granularity : new String[]{TransactionRollup.DAY, TransactionRollup.MONTH}) {
+                LocalDate start = TransactionRollup.DAY.equals(granularity) ? day : day.withDayOfMonth(1);
+                addDelta(deltas, granularity, start, TransactionRollup.CATEGORY, t.getCategory(), t);
+                addDelta(deltas, granularity, start, TransactionRollup.MERCHANT, t.getMerchantName(), t);
+            }
+        }
+        deltas.values().forEach(transactionRollupRepository::add);
+    }
+
+    private static void addDelta(Map<String, TransactionRollup> deltas, String granularity, LocalDate start,
+                                 String dimension, String value, Transaction t) {
+        String dimensionValue = value != null ? value : "";
+        String key = String.join("\u0000", granularity, start.toString(), dimension, dimensionValue,
+                t.getTransactionType(), t.getCurrency());
+        TransactionRollup r = deltas.computeIfAbsent(key, k -> TransactionRollup.builder()
+                .granularity(granularity)
+                .bucketStart(start)
+                .dimension(dimension)
+                .dimensionValue(dimensionValue)
+                .transactionType(t.getTransactionType())
+                .currency(t.getCurrency())
+                .transactionCount(0L)
+                .totalAmount(BigDecimal.ZERO)
+                .build());
+        r.setTransactionCount(r.getTransactionCount() + 1);
+        r.setTotalAmount(r.getTotalAmount().add(t.getAmount()));
+    }
+
+    /**
+     * Spend per category or merchant between {@code from} and {@code to} (inclusive).
+     *
+     * @param dimension   {@link TransactionRollup#CATEGORY} or {@link TransactionRollup#MERCHANT}
+     * @param granularity DAY, MONTH or TOTAL (one bucket for the whole range)
+     * @param type        DEBIT, CREDIT or null for both
+     * @param limit       keep only the largest {@code limit} buckets per period; null or 0 for all
+     * @return buckets by period, largest amount first within a period
+     */
+    @Transactional(readOnly = true)
+    public List<SpendBucket> getSpend(String dimension, LocalDate from, LocalDate to, String granularity,
+                                      String type, Integer limit) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        String g = granularity.toUpperCase(Locale.ROOT);
+        if (!GRANULARITY_DAY.equals(g) && !GRANULARITY_MONTH.equals(g) && !GRANULARITY_TOTAL.equals(g)) {
+            throw new BadRequestException("granularity must be DAY, MONTH or TOTAL");
+        }
+        String txnType = type != null && !type.isBlank() ? type.toUpperCase(Locale.ROOT) : null;
+        if (GRANULARITY_TOTAL.equals(g) && columnStore.isPresent()) {
+            Optional<List<SpendBucket>> stored = columnStore.get().sumIfCurrent(dimension, from, to, txnType);
+            if (stored.isPresent()) {
+                List<SpendBucket> totals = stored.get();
+                return limit != null && limit > 0 && totals.size() > limit ? totals.subList(0, limit) : totals;
+            }
+        }
+        LocalDate end = to.plusDays(1);
+        LocalDate firstFullMonth = from.getDayOfMonth() == 1 ? from : from.withDayOfMonth(1).plusMonths(1);
+        LocalDate fullMonthsEnd = end.withDayOfMonth(1);
+
+        Map<List<Object>, long[]> counts = new HashMap<>();
+        Map<List<Object>, BigDecimal> amounts = new LinkedHashMap<>();
+        if (GRANULARITY_DAY.equals(g) || !firstFullMonth.isBefore(fullMonthsEnd)) {
+            collect(g, dimension, TransactionRollup.DAY, from, end, txnType, from, counts, amounts);
+        } else {
+            collect(g, dimension, TransactionRollup.DAY, from, firstFullMonth, txnType, from, counts, amounts);
+            collect(g, dimension, TransactionRollup.MONTH, firstFullMonth, fullMonthsEnd, txnType, from, counts, amounts);
+            collect(g, dimension, TransactionRollup.DAY, fullMonthsEnd, end, txnType, from, counts, amounts);
+        }
+
+        List<SpendBucket> buckets = new ArrayList<>(amounts.size());
+        for (Map.Entry<List<Object>, BigDecimal> e : amounts.entrySet()) {
+            List<Object> k = e.getKey();
+            String name = (String) k.get(1);
+            buckets.add(new SpendBucket((LocalDate) k.get(0), name.isEmpty() ? null : name, (String) k.get(2),
+                    (String) k.get(3), counts.get(k)[0], e.getValue()));
+        }
+        buckets.sort(Comparator.comparing(SpendBucket::period)
+                .thenComparing(SpendBucket::totalAmount, Comparator.reverseOrder()));
+        return limit != null && limit > 0 ? limitPerPeriod(buckets, limit) : buckets;
+    }
+
+    /** Read stored buckets of {@code stored} granularity in [start, end) into the requested buckets. */
+    private void collect(String granularity, String dimension, String stored, LocalDate start, LocalDate end,
+                         String type, LocalDate rangeStart, Map<List<Object>, long[]> counts,
+                         Map<List<Object>, BigDecimal> amounts) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        if (GRANULARITY_TOTAL.equals(granularity)) {
+            for (Object[] row : transactionRollupRepository.sumBuckets(stored, dimension, start, end, type)) {
+                merge(List.of(rangeStart, row[0], row[1], row[2]), ((Number) row[3]).longValue(), (BigDecimal) row[4],
+                        counts, amounts);
+            }
+            return;
+        }
+        for (TransactionRollup r : transactionRollupRepository.findBuckets(stored, dimension, start, end, type)) {
+            LocalDate period = GRANULARITY_MONTH.equals(granularity) ? r.getBucketStart().withDayOfMonth(1) : r.getBucketStart();
+            merge(List.of(period, r.getDimensionValue(), r.getTransactionType(), r.getCurrency()),
+                    r.getTransactionCount(), r.getTotalAmount(), counts, amounts);
+        }
+    }
+
+    private static void merge(List<Object> key, long count, BigDecimal amount,
+                              Map<List<Object>, long[]> counts, Map<List<Object>, BigDecimal> amounts) {
+        counts.computeIfAbsent(key, k -> new long[1])[0] += count;
+        amounts.merge(key, amount, BigDecimal::add);
+    }
+
+    private static List<SpendBucket> limitPerPeriod(List<SpendBucket> sorted, int limit) {
+        List<SpendBucket> kept = new ArrayList<>();
+        LocalDate period = null;
+        int n = 0;
+        for (SpendBucket b : sorted) {
+            n = b.period().equals(period) ? n + 1 : 1;
+            period = b.period();
+            if (n <= limit) {
+                kept.add(b);
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,397 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.TransactionRollup;
+import com.wealthmanager.backend.model.dto.SpendBucket;
+import com.wealthmanager.backend.model.dto.TransactionColumns;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * In-process columnar copy of the transaction table for whole-history analytics: one primitive array
+ * per field (epoch day as int, amount in paise as long, type, currency, category and merchant as
+ * dictionary codes). Loaded once at startup, appended after each parse commits on this node, and caught
+ * up from the table periodically for rows committed elsewhere; group-and-sum queries are plain loops over
+ * the arrays, split across the fork-join pool for large histories.
+ * <p>
+ * A single writer appends; readers take the current {@link Columns} snapshot, which never changes
+ * below its {@code size}, so queries need no locks. {@link #sumIfCurrent} answers only when the snapshot
+ * holds as many rows as the table (rows are never deleted, so equal counts mean the same rows); callers
+ * fall back to the rollups otherwise. Optional: enable with {@code app.transactions.column-store.enabled}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.transactions.column-store", name = "enabled", havingValue = "true")
+@Slf4j
+public class TransactionColumnStore {
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final int parallelThreshold;
+
+    private final Dictionary transactionTypes = new Dictionary();
+    private final Dictionary currencies = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary merchants = new Dictionary();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private long[] amountsMinor = new long[INITIAL_CAPACITY];
+    private int[] typeCodes = new int[INITIAL_CAPACITY];
+    private int[] currencyCodes = new int[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] merchantCodes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /** Rows appended while the initial load runs; applied (minus rows the load saw) when it finishes. */
+    private List<Transaction> pendingAppends = new ArrayList<>();
+    /** Every committed row with an id up to this is held; catch-up re-reads from here. */
+    private long syncedId;
+    /** Highest id read by the last load or catch-up; becomes {@code syncedId} after the next pass. */
+    private long lastReadId;
+    /** Ids held above {@code syncedId}, so re-read and locally appended rows are added once. */
+    private final Set<Long> recentIds = new HashSet<>();
+    private volatile Columns columns = publish();
+    private volatile boolean loaded;
+    private volatile long loadMs;
+
+    public TransactionColumnStore(TransactionRepository transactionRepository,
+                                  @Value("${app.transactions.column-store.parallel-threshold:100000}") int parallelThreshold) {
+        this.transactionRepository = transactionRepository;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /** Immutable view: arrays are only written past {@code size}, or replaced when they grow. */
+    record Columns(int[] epochDays, long[] amountsMinor, int[] typeCodes, int[] currencyCodes, int[] categoryCodes,
+                   int[] merchantCodes, int size, String[] transactionTypes, String[] currencies, String[] categories,
+                   String[] merchants) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        long afterId = 0;
+        int rows = 0;
+        while (true) {
+            List<TransactionColumns> batch = transactionRepository.findColumnsAfterId(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            synchronized (this) {
+                for (TransactionColumns c : batch) {
+                    append(c.id(), c.amount(), c.currency(), c.transactionType(), c.transactionDate(),
+                            c.category(), c.merchantName());
+                }
+                columns = publish();
+            }
+            rows += batch.size();
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).id();
+            }
+            if (batch.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+        }
+        synchronized (this) {
+            syncedId = afterId;
+            lastReadId = afterId;
+            int pending = applyPending();
+            loaded = true;
+            columns = publish();
+            loadMs = System.currentTimeMillis() - started;
+            log.info("Transaction column store loaded {} row(s) (+{} appended during load) in {} ms, ~{} KiB",
+                    rows, pending, loadMs, approximateBytes(columns) / 1024);
+        }
+    }
+
+    /** Add committed transactions; before the initial load has finished they are held back and de-duplicated. */
+    public synchronized void append(Collection<Transaction> committed) {
+        if (!loaded) {
+            pendingAppends.addAll(committed);
+            return;
+        }
+        for (Transaction t : committed) {
+            if (t.getId() > syncedId ? recentIds.add(t.getId()) : !holds(t.getId())) {
+                append(t.getId(), t.getAmount(), t.getCurrency(), t.getTransactionType(), t.getTransactionDate(),
+                        t.getCategory(), t.getMerchantName());
+            }
+        }
+        columns = publish();
+    }
+
+    /**
+     * Append rows committed since the last pass, including those parsed on other nodes. Each pass re-reads
+     * from the id the pass before last had reached, so a row whose id was allocated before one already
+     * read but whose transaction committed later is still picked up.
+     *
+     * @return number of rows added
+     */
+    @Scheduled(fixedDelayString = "${app.transactions.column-store.catch-up-interval-ms:60000}")
+    public int catchUp() {
+        if (!loaded) {
+            return 0;
+        }
+        long afterId;
+        synchronized (this) {
+            afterId = syncedId;
+        }
+        long readUpTo = afterId;
+        int added = 0;
+        while (true) {
+            List<TransactionColumns> batch = transactionRepository.findColumnsAfterId(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            synchronized (this) {
+                for (TransactionColumns c : batch) {
+                    if (c.id() <= syncedId || !recentIds.add(c.id())) {
+                        continue;
+                    }
+                    append(c.id(), c.amount(), c.currency(), c.transactionType(), c.transactionDate(),
+                            c.category(), c.merchantName());
+                    added++;
+                }
+                columns = publish();
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).id();
+                readUpTo = afterId;
+            }
+            if (batch.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+        }
+        synchronized (this) {
+            syncedId = Math.max(syncedId, lastReadId);
+            lastReadId = Math.max(lastReadId, readUpTo);
+            long synced = syncedId;
+            recentIds.removeIf(id -> id <= synced);
+        }
+        if (added > 0) {
+            log.debug("Transaction column store caught up {} row(s)", added);
+        }
+        return added;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * {@link #sumBy} over the current snapshot if it holds every row of the table; empty when the store
+     * is not loaded or is behind (rows committed elsewhere and not yet caught up), so the caller can
+     * answer from the rollups instead.
+     */
+    public Optional<List<SpendBucket>> sumIfCurrent(String dimension, LocalDate from, LocalDate to, String type) {
+        if (!loaded) {
+            return Optional.empty();
+        }
+        Columns c = columns;
+        if (c.size() != transactionRepository.count()) {
+            return Optional.empty();
+        }
+        return Optional.of(sumBy(c, dimension, from, to, type));
+    }
+
+    /**
+     * Spend per category or merchant in [from, to] (inclusive), one bucket per name, type and currency,
+     * largest first; {@code period} of each bucket is {@code from}.
+     */
+    public List<SpendBucket> sumBy(String dimension, LocalDate from, LocalDate to, String type) {
+        return sumBy(columns, dimension, from, to, type);
+    }
+
+    private List<SpendBucket> sumBy(Columns c, String dimension, LocalDate from, LocalDate to, String type) {
+        boolean byCategory = TransactionRollup.CATEGORY.equals(dimension);
+        int[] groupCodes = byCategory ? c.categoryCodes() : c.merchantCodes();
+        String[] names = byCategory ? c.categories() : c.merchants();
+        int typeFilter = type == null ? -1 : Arrays.asList(c.transactionTypes()).indexOf(type);
+        if (type != null && typeFilter < 0) {
+            return new ArrayList<>();
+        }
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int groups = names.length * c.transactionTypes().length * c.currencies().length;
+
+        long[] acc;
+        if (c.size() < parallelThreshold) {
+            acc = scan(c, groupCodes, groups, fromDay, toDay, typeFilter, 0, c.size());
+        } else {
+            int chunks = Math.max(2, Runtime.getRuntime().availableProcessors());
+            int chunkSize = (c.size() + chunks - 1) / chunks;
+            acc = IntStream.range(0, chunks).parallel()
+                    .mapToObj(i -> scan(c, groupCodes, groups, fromDay, toDay, typeFilter,
+                            i * chunkSize, Math.min(c.size(), (i + 1) * chunkSize)))
+                    .reduce(TransactionColumnStore::addInto)
+                    .orElseGet(() -> new long[groups * 2]);
+        }
+
+        List<SpendBucket> buckets = new ArrayList<>();
+        for (int g = 0; g < groups; g++) {
+            long count = acc[2 * g];
+            if (count == 0) {
+                continue;
+            }
+            int currency = g % c.currencies().length;
+            int typeIndex = (g / c.currencies().length) % c.transactionTypes().length;
+            String name = names[g / (c.currencies().length * c.transactionTypes().length)];
+            buckets.add(new SpendBucket(from, name.isEmpty() ? null : name, c.transactionTypes()[typeIndex],
+                    c.currencies()[currency], count, BigDecimal.valueOf(acc[2 * g + 1], 2)));
+        }
+        buckets.sort((a, b) -> b.totalAmount().compareTo(a.totalAmount()));
+        return buckets;
+    }
+
+    public Map<String, Object> stats() {
+        Columns c = columns;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("loaded", loaded);
+        m.put("rows", c.size());
+        m.put("categories", c.categories().length);
+        m.put("merchants", c.merchants().length);
+        m.put("approximateBytes", approximateBytes(c));
+        m.put("loadMs", loadMs);
+        return m;
+    }
+
+    /** Count and paise sum per group (interleaved) for rows [start, end) of the snapshot. */
+    private static long[] scan(Columns c, int[] groupCodes, int groups, int fromDay, int toDay, int typeFilter,
+                               int start, int end) {
+        long[] acc = new long[groups * 2];
+        int[] days = c.epochDays();
+        long[] amounts = c.amountsMinor();
+        int[] types = c.typeCodes();
+        int[] currencyCodes = c.currencyCodes();
+        int currencyCount = c.currencies().length;
+        int typeCount = c.transactionTypes().length;
+        for (int i = start; i < end; i++) {
+            int day = days[i];
+            if (day < fromDay || day > toDay || (typeFilter >= 0 && types[i] != typeFilter)) {
+                continue;
+            }
+            int g = ((groupCodes[i] * typeCount) + types[i]) * currencyCount + currencyCodes[i];
+            acc[2 * g]++;
+            acc[2 * g + 1] += amounts[i];
+        }
+        return acc;
+    }
+
+    private static long[] addInto(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    private void append(long id, BigDecimal amount, String currency, String type, LocalDateTime date,
+                        String category, String merchant) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            amountsMinor = Arrays.copyOf(amountsMinor, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            merchantCodes = Arrays.copyOf(merchantCodes, capacity);
+        }
+        ids[size] = id;
+        epochDays[size] = (int) date.toLocalDate().toEpochDay();
+        amountsMinor[size] = amount.movePointRight(2).longValue();
+        typeCodes[size] = transactionTypes.code(type);
+        currencyCodes[size] = currencies.code(currency);
+        categoryCodes[size] = categories.code(category);
+        merchantCodes[size] = merchants.code(merchant);
+        size++;
+    }
+
+    /** Linear scan; only for appends that arrive after catch-up has moved past their id, which is rare. */
+    private boolean holds(long id) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int applyPending() {
+        Set<Long> pendingIds = new HashSet<>();
+        for (Transaction t : pendingAppends) {
+            pendingIds.add(t.getId());
+        }
+        for (int i = 0; i < size && !pendingIds.isEmpty(); i++) {
+            pendingIds.remove(ids[i]);
+        }
+        int applied = 0;
+        for (Transaction t : pendingAppends) {
+            if (pendingIds.remove(t.getId())) {
+                if (t.getId() > syncedId) {
+                    recentIds.add(t.getId());
+                }
+                append(t.getId(), t.getAmount(), t.getCurrency(), t.getTransactionType(), t.getTransactionDate(),
+                        t.getCategory(), t.getMerchantName());
+                applied++;
+            }
+        }
+        pendingAppends = List.of();
+        return applied;
+    }
+
+    private Columns publish() {
+        return new Columns(epochDays, amountsMinor, typeCodes, currencyCodes, categoryCodes, merchantCodes, size,
+                transactionTypes.names(), currencies.names(), categories.names(), merchants.names());
+    }
+
+    private static long approximateBytes(Columns c) {
+        // 8 id + 4 day + 8 amount + 4 × 4 codes per row of capacity, plus dictionary strings
+        long bytes = (long) c.epochDays().length * 36;
+        for (String[] names : List.of(c.transactionTypes(), c.currencies(), c.categories(), c.merchants())) {
+            for (String s : names) {
+                bytes += 48 + s.length();
+            }
+        }
+        return bytes;
+    }
+
+    /** String → dense int code; null is stored as "". Only touched by the writer, names() is a published copy. */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private String[] published = new String[0];
+
+        int code(String value) {
+            String v = value != null ? value : "";
+            Integer code = codes.get(v);
+            if (code == null) {
+                code = values.size();
+                codes.put(v, code);
+                values.add(v);
+            }
+            return code;
+        }
+
+        String[] names() {
+            if (published.length != values.size()) {
+                published = values.toArray(new String[0]);
+            }
+            return published;
+        }
+    }
+}
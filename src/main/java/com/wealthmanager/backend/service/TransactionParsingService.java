@@ -1,23 +1,38 @@
 package com.wealthmanager.backend.service;
 
+import com.wealthmanager.backend.ai.ParserUnavailableException;
+import com.wealthmanager.backend.ai.PromptCompactor;
 import com.wealthmanager.backend.ai.TransactionParser;
 import com.wealthmanager.backend.model.RawIngestion;
 import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.DedupeCandidate;
 import com.wealthmanager.backend.model.dto.TransactionParseResult;
 import com.wealthmanager.backend.repository.RawIngestionRepository;
 import com.wealthmanager.backend.repository.TransactionRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Processes raw ingestions through the AI parser and persists transactions.
@@ -27,52 +42,257 @@ import java.util.Optional;
 @Slf4j
 public class TransactionParsingService {
 
+    private static final String NO_TRANSACTION_EXTRACTED = "NoTransactionExtracted";
+
     private final TransactionParser transactionParser;
+    private final PromptCompactor promptCompactor;
     private final RawIngestionRepository rawIngestionRepository;
     private final TransactionRepository transactionRepository;
     private final NotificationService notificationService;
+    private final DeferredParseQueue deferredParseQueue;
+    private final int drainBatchSize;
+    private final TransactionTemplate transactionTemplate;
+    private final ParseRetryPolicy retryPolicy;
+    private final DedupeIndex dedupeIndex;
+    private final TransactionTotalsService transactionTotalsService;
+    private final TransactionAnalyticsService transactionAnalyticsService;
+    private final Optional<TransactionColumnStore> columnStore;
 
     public TransactionParsingService(TransactionParser transactionParser,
+                                    PromptCompactor promptCompactor,
                                     RawIngestionRepository rawIngestionRepository,
                                     TransactionRepository transactionRepository,
-                                    NotificationService notificationService) {
+                                    NotificationService notificationService,
+                                    DeferredParseQueue deferredParseQueue,
+                                    @Value("${app.ai.deferred.drain-batch-size:5}") int drainBatchSize,
+                                    TransactionTemplate transactionTemplate,
+                                    ParseRetryPolicy retryPolicy,
+                                    DedupeIndex dedupeIndex,
+                                    TransactionTotalsService transactionTotalsService,
+                                    TransactionAnalyticsService transactionAnalyticsService,
+                                    Optional<TransactionColumnStore> columnStore) {
         this.transactionParser = transactionParser;
+        this.promptCompactor = promptCompactor;
         this.rawIngestionRepository = rawIngestionRepository;
         this.transactionRepository = transactionRepository;
         this.notificationService = notificationService;
+        this.deferredParseQueue = deferredParseQueue;
+        this.drainBatchSize = drainBatchSize;
+        this.transactionTemplate = transactionTemplate;
+        this.retryPolicy = retryPolicy;
+        this.dedupeIndex = dedupeIndex;
+        this.transactionTotalsService = transactionTotalsService;
+        this.transactionAnalyticsService = transactionAnalyticsService;
+        this.columnStore = columnStore;
+    }
+
+    /** Not yet parsed and not dead-lettered. */
+    public static boolean isParseable(RawIngestion ingestion) {
+        return !Boolean.TRUE.equals(ingestion.getProcessed())
+                && !RawIngestion.PARSE_UNPARSEABLE.equals(ingestion.getParseStatus());
+    }
+
+    /**
+     * {@link #extract} with the failure handling every caller needs: an unavailable model defers the
+     * ingestion (not counted as an attempt), any other parser error is recorded as a failed attempt.
+     *
+     * @return the candidates, or empty if the ingestion was deferred or the attempt failed
+     */
+    public Optional<List<Transaction>> tryExtract(RawIngestion ingestion) {
+        if (!transactionParser.isAvailable()) {
+            deferredParseQueue.defer(ingestion.getId());
+            log.debug("Parser unavailable; deferred ingestion id={}", ingestion.getId());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(extract(ingestion));
+        } catch (ParserUnavailableException e) {
+            deferredParseQueue.defer(ingestion.getId());
+            log.info("Parser unavailable ({}); deferred ingestion id={}", e.getMessage(), ingestion.getId());
+        } catch (RuntimeException e) {
+            log.warn("Parse failed for ingestion id={}: {}", ingestion.getId(), e.getMessage(), e);
+            recordFailedAttempt(ingestion, e.getClass().getSimpleName());
+        }
+        return Optional.empty();
     }
 
     /**
-     * Process a single raw ingestion: parse with LLM, save transaction if parsed, mark ingestion processed.
+     * Run the parser over the ingestion and map every result to an unsaved {@link Transaction}
+     * (currency/date defaults and dedupe key applied). Nothing is written.
+     *
+     * @throws ParserUnavailableException if the model cannot be reached; callers defer the ingestion
+     */
+    public List<Transaction> extract(RawIngestion ingestion) {
+        // Raw body stays intact in raw_ingestion; only the prompt text is compacted
+        String promptText = promptCompactor.compact(ingestion.getSenderAddress(), ingestion.getRawBody());
+        try (Stream<TransactionParseResult> parsed = transactionParser.parseAll(promptText)) {
+            return parsed.map(p -> toTransaction(ingestion, p)).toList();
+        }
+    }
+
+    /**
+     * Save extracted transactions with per-item dedupe (idempotent on the dedupe key), then mark the
+     * ingestion processed.
+     * Joins the caller's transaction when there is one.
+     *
+     * @return false if nothing was extracted (counted as a failed attempt, ingestion left unprocessed)
      */
     @Transactional
-    public boolean processOne(RawIngestion ingestion) {
-        if (Boolean.TRUE.equals(ingestion.getProcessed())) {
+    public boolean persist(RawIngestion ingestion, List<Transaction> candidates) {
+        if (!stillOwned(ingestion)) {
             return false;
         }
-
-        Optional<TransactionParseResult> parsed = transactionParser.parse(ingestion.getRawBody());
-        if (parsed.isEmpty()) {
+        if (candidates.isEmpty()) {
             log.debug("No transaction parsed from ingestion id={}", ingestion.getId());
+            recordFailedAttempt(ingestion, NO_TRANSACTION_EXTRACTED);
             return false;
         }
 
-        TransactionParseResult p = parsed.get();
-        LocalDateTime txnDate = p.transactionDate() != null ? p.transactionDate() : ingestion.getReceivedAt();
-        String currency = p.currency() != null && !p.currency().isBlank() ? p.currency() : "INR";
+        // Candidates are the decoder's items, each emitted once. An identical line repeated within the
+        // message (two ₹100 tolls on one day) is a separate purchase: its n-th repeat carries the
+        // occurrence in its dedupe key, so it is stored next to the first and a re-delivered copy of
+        // the message still conflicts on the same keys
+        Map<Long, Transaction> firsts = new LinkedHashMap<>();
+        List<Transaction> repeats = new ArrayList<>();
+        Map<Long, Integer> occurrences = new HashMap<>();
+        for (Transaction txn : candidates) {
+            long key = DedupeIndex.key(txn);
+            int occurrence = occurrences.merge(key, 1, Integer::sum) - 1;
+            if (occurrence == 0) {
+                firsts.put(key, txn);
+            } else {
+                txn.setDedupeKey(DedupeIndex.toStoredKey(key, occurrence));
+                repeats.add(txn);
+            }
+        }
+
+        // First occurrences: recent duplicates via the in-memory index (exact key, then fuzzy merchant
+        // match within the amount/currency/type/day±1 block); only index misses are confirmed against
+        // stored rows, with one lookup for the whole batch
+        Map<Long, Transaction> misses = new LinkedHashMap<>();
+        for (Map.Entry<Long, Transaction> e : firsts.entrySet()) {
+            Transaction txn = e.getValue();
+            if (dedupeIndex.contains(txn.getTransactionDate(), e.getKey())) {
+                logDuplicate(ingestion, txn, null);
+                continue;
+            }
+            String similar = dedupeIndex.findSimilarMerchant(txn, ingestion.getSource());
+            if (similar != null) {
+                logDuplicate(ingestion, txn, similar);
+            } else {
+                misses.put(e.getKey(), txn);
+            }
+        }
+        List<DedupeCandidate> stored = misses.isEmpty() ? List.of() : findStoredCandidates(misses.values());
+        Set<Long> storedKeys = new HashSet<>();
+        Set<String> storedDedupeKeys = new HashSet<>();
+        for (DedupeCandidate c : stored) {
+            storedKeys.add(DedupeIndex.key(c.amount(), c.currency(), c.transactionType(), c.transactionDate(), c.merchantName()));
+            if (c.dedupeKey() != null) {
+                storedDedupeKeys.add(c.dedupeKey());
+            }
+        }
+        List<Transaction> batch = new ArrayList<>(misses.size() + repeats.size());
+        for (Map.Entry<Long, Transaction> e : misses.entrySet()) {
+            Transaction txn = e.getValue();
+            if (storedKeys.contains(e.getKey()) || storedDedupeKeys.contains(txn.getDedupeKey())) {
+                dedupeIndex.add(txn.getTransactionDate(), e.getKey());
+                logDuplicate(ingestion, txn, null);
+                continue;
+            }
+            DedupeCandidate similar = findFuzzyMatch(txn, ingestion.getSource(), stored);
+            if (similar != null) {
+                logDuplicate(ingestion, txn, similar.merchantName());
+            } else {
+                batch.add(txn);
+            }
+        }
+        batch.addAll(repeats);
+
+        // One multi-row insert; ON CONFLICT on the unique dedupe key settles races with concurrent
+        // workers parsing the same txn
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(txn -> txn.setCreatedAt(now));
+        Map<String, Long> ids = transactionRepository.insertAllIfAbsent(batch);
+        List<Transaction> saved = new ArrayList<>(batch.size());
+        for (Transaction txn : batch) {
+            Long id = ids.get(txn.getDedupeKey());
+            if (id != null) {
+                txn.setId(id);
+                saved.add(txn);
+            } else {
+                logDuplicate(ingestion, txn, null);
+            }
+        }
+        if (!saved.isEmpty()) {
+            transactionTotalsService.add(saved);
+            transactionAnalyticsService.add(saved);
+        }
+        ingestion.setProcessed(true);
+        ingestion.setProcessedAt(LocalDateTime.now());
+        ingestion.setParseStatus(RawIngestion.PARSE_PARSED);
+        ingestion.setNextParseAt(null);
+        rawIngestionRepository.save(ingestion);
+
+        afterCommit(() -> batch.forEach(txn -> dedupeIndex.add(txn, ingestion.getSource())));
+        if (!saved.isEmpty()) {
+            columnStore.ifPresent(store -> afterCommit(() -> store.append(saved)));
+        }
+
+        saved.forEach(notificationService::notifyNewTransaction);
+        log.info("Parsed {} transaction(s) from ingestion id={}: saved {}, skipped {} duplicate(s)",
+                candidates.size(), ingestion.getId(), saved.size(), candidates.size() - saved.size());
+        return true;
+    }
+
+    /**
+     * Count a failed attempt and schedule the next one with exponential backoff; once retries are
+     * exhausted the ingestion is dead-lettered (UNPARSEABLE) and no longer picked up by the backlog.
+     */
+    private void recordFailedAttempt(RawIngestion ingestion, String error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (stillOwned(ingestion)) {
+                saveFailedAttempt(ingestion, error);
+            }
+        });
+    }
 
-        String dedupeKey = computeDedupeKey(p.amount(), currency, p.transactionType(), txnDate, p.merchantName());
-        LocalDateTime windowStart = txnDate.minusDays(7);
-        LocalDateTime windowEnd = txnDate.plusDays(1);
-        if (transactionRepository.existsByDedupeKeyAndTransactionDateBetween(dedupeKey, windowStart, windowEnd)) {
-            ingestion.setProcessed(true);
-            ingestion.setProcessedAt(LocalDateTime.now());
-            rawIngestionRepository.save(ingestion);
-            log.info("Skipped duplicate transaction (SMS/email same txn) for ingestion id={}, dedupeKey={}", ingestion.getId(), dedupeKey);
+    private void saveFailedAttempt(RawIngestion ingestion, String error) {
+        int attempts = (ingestion.getParseAttempts() != null ? ingestion.getParseAttempts() : 0) + 1;
+        ingestion.setParseAttempts(attempts);
+        ingestion.setLastParseError(error.length() > 100 ? error.substring(0, 100) : error);
+        if (retryPolicy.isExhausted(attempts)) {
+            ingestion.setParseStatus(RawIngestion.PARSE_UNPARSEABLE);
+            ingestion.setNextParseAt(null);
+            log.warn("Ingestion id={} dead-lettered as UNPARSEABLE after {} attempt(s), last error={}",
+                    ingestion.getId(), attempts, error);
+        } else {
+            ingestion.setNextParseAt(retryPolicy.nextAttemptAt(attempts, LocalDateTime.now()));
+        }
+        rawIngestionRepository.save(ingestion);
+    }
+
+    /**
+     * Lock the stored row and check that nobody took it over while the model ran: a worker that
+     * re-claimed it after our lease expired has stamped a new claimed_until, and a finished parse has
+     * set processed. Saving our detached copy then would overwrite that worker's state, so the caller
+     * drops its results. Must run inside a transaction.
+     */
+    private boolean stillOwned(RawIngestion ingestion) {
+        Optional<RawIngestion> current = rawIngestionRepository.findByIdForUpdate(ingestion.getId());
+        if (current.isPresent() && isParseable(current.get())
+                && Objects.equals(current.get().getClaimedUntil(), ingestion.getClaimedUntil())) {
             return true;
         }
+        log.info("Dropped parse results for ingestion id={}: row was taken over or finished by another worker",
+                ingestion.getId());
+        return false;
+    }
 
-        Transaction txn = Transaction.builder()
+    private Transaction toTransaction(RawIngestion ingestion, TransactionParseResult p) {
+        LocalDateTime txnDate = p.transactionDate() != null ? p.transactionDate() : ingestion.getReceivedAt();
+        String currency = p.currency() != null && !p.currency().isBlank() ? p.currency() : "INR";
+        return Transaction.builder()
                 .rawIngestionId(ingestion.getId())
                 .amount(p.amount())
                 .currency(currency)
@@ -81,42 +301,61 @@ public class TransactionParsingService {
                 .transactionType(p.transactionType())
                 .transactionDate(txnDate)
                 .description(p.description())
-                .dedupeKey(dedupeKey)
+                .dedupeKey(DedupeIndex.toStoredKey(
+                        DedupeIndex.key(p.amount(), currency, p.transactionType(), txnDate, p.merchantName())))
                 .build();
-
-        transactionRepository.save(txn);
-        ingestion.setProcessed(true);
-        ingestion.setProcessedAt(LocalDateTime.now());
-        rawIngestionRepository.save(ingestion);
-
-        notificationService.notifyNewTransaction(txn);
-        log.info("Parsed and saved transaction id={} from ingestion id={}", txn.getId(), ingestion.getId());
-        return true;
     }
 
     /**
-     * Fingerprint for deduplication: same amount, type, date (day), and merchant = same transaction
-     * (e.g. SMS and email for one payment should not create two rows).
+     * Dedupe fields of stored transactions that could match the candidates: same amounts, from seven
+     * days before the earliest candidate to one day after the latest. Exact keys are confirmed over
+     * that whole window, as before the in-memory index existed; the fuzzy rule itself only accepts
+     * rows within one day.
      */
-    private String computeDedupeKey(java.math.BigDecimal amount, String currency, String transactionType,
-                                    LocalDateTime transactionDate, String merchantName) {
-        String amountStr = amount != null ? amount.stripTrailingZeros().toPlainString() : "";
-        String type = transactionType != null ? transactionType.toUpperCase() : "";
-        String dateStr = transactionDate != null ? transactionDate.toLocalDate().toString() : "";
-        String merchant = merchantName != null
-                ? merchantName.trim().toUpperCase().replaceAll("\\s+", " ")
-                : "";
-        String payload = amountStr + "|" + currency + "|" + type + "|" + dateStr + "|" + merchant;
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(payload.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hex = new StringBuilder(hash.length * 2);
-            for (byte b : hash) {
-                hex.append(String.format("%02x", b));
+    private List<DedupeCandidate> findStoredCandidates(Collection<Transaction> candidates) {
+        Set<BigDecimal> amounts = new HashSet<>();
+        LocalDate first = null;
+        LocalDate last = null;
+        for (Transaction t : candidates) {
+            amounts.add(t.getAmount());
+            LocalDate day = t.getTransactionDate().toLocalDate();
+            first = first == null || day.isBefore(first) ? day : first;
+            last = last == null || day.isAfter(last) ? day : last;
+        }
+        return transactionRepository.findDedupeFieldsByAmounts(
+                amounts, first.minusDays(7).atStartOfDay(), last.plusDays(2).atStartOfDay());
+    }
+
+    private DedupeCandidate findFuzzyMatch(Transaction txn, String source, List<DedupeCandidate> stored) {
+        for (DedupeCandidate c : stored) {
+            if (dedupeIndex.isFuzzyMatch(txn, source, c)) {
+                return c;
             }
-            return hex.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        return null;
+    }
+
+    private void logDuplicate(RawIngestion ingestion, Transaction txn, String similarMerchant) {
+        if (similarMerchant == null) {
+            log.info("Skipped duplicate transaction (SMS/email same txn) for ingestion id={}, dedupeKey={}",
+                    ingestion.getId(), txn.getDedupeKey());
+        } else {
+            log.info("Skipped likely duplicate transaction for ingestion id={}: merchant '{}' matches stored '{}'",
+                    ingestion.getId(), txn.getMerchantName(), similarMerchant);
+        }
+    }
+
+    /** Run after the surrounding transaction commits, or now if there is none. */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 
@@ -126,47 +365,53 @@ public class TransactionParsingService {
     @Async
     public void processAsync(Long ingestionId) {
         try {
-            rawIngestionRepository.findById(ingestionId).ifPresent(this::processOne);
+            processClaimed(ingestionId);
         } catch (Exception e) {
             log.warn("Async parse failed for ingestion id={}: {}", ingestionId, e.getMessage());
         }
     }
 
     /**
-     * Process all unprocessed ingestions (e.g. from scheduler or on startup).
+     * Process one ingestion claimed by the backlog worker (also used for async and deferred parses).
+     * The model call runs without a database transaction; the results are then committed in their own
+     * short transaction, so each item commits independently and no connection is held while waiting
+     * on the LLM. Results are dropped if the lease was lost in the meantime.
      */
-    @Transactional
-    public int processBacklog() {
-        List<RawIngestion> unprocessed = rawIngestionRepository.findByProcessedFalse();
-        if (unprocessed.isEmpty()) {
-            log.debug("Backlog: no unprocessed ingestions");
-            return 0;
-        }
-        log.info("Backlog: processing {} unprocessed ingestion(s)", unprocessed.size());
-        int processed = 0;
-        for (RawIngestion ingestion : unprocessed) {
-            try {
-                if (processOne(ingestion)) {
-                    processed++;
-                } else {
-                    log.info("Backlog: no transaction extracted from ingestion id={} (source={}, sourceId={})",
-                            ingestion.getId(), ingestion.getSource(), ingestion.getSourceId());
-                }
-            } catch (Exception e) {
-                log.warn("Parse failed for ingestion id={}: {}", ingestion.getId(), e.getMessage(), e);
-            }
+    public boolean processClaimed(Long ingestionId) {
+        Optional<RawIngestion> found = rawIngestionRepository.findById(ingestionId);
+        if (found.isEmpty() || !isParseable(found.get())) {
+            return false;
         }
-        if (processed > 0) {
-            log.info("Processed {} ingestions from backlog", processed);
-        } else {
-            log.warn("Backlog: 0 transactions saved from {} ingestion(s). Check LLM/parser logs above.", unprocessed.size());
+        RawIngestion ingestion = found.get();
+        Optional<List<Transaction>> candidates = tryExtract(ingestion);
+        if (candidates.isEmpty()) {
+            return false;
         }
-        return processed;
+        boolean saved = Boolean.TRUE.equals(transactionTemplate.execute(status -> persist(ingestion, candidates.get())));
+        if (!saved) {
+            log.info("Backlog: no transaction extracted from ingestion id={} (source={}, sourceId={}), attempt {}",
+                    ingestion.getId(), ingestion.getSource(), ingestion.getSourceId(), ingestion.getParseAttempts());
+        }
+        return saved;
     }
 
-    /** Process unprocessed ingestions every 5 minutes. */
-    @Scheduled(fixedDelayString = "${app.ai.backlog-interval-ms:300000}")
-    public void processBacklogScheduled() {
-        processBacklog();
+    /**
+     * Drains ingestions deferred while the model was unavailable, a small batch per tick so a
+     * recovering model is not flooded. Stops as soon as the parser reports unavailable again.
+     */
+    @Scheduled(fixedDelayString = "${app.ai.deferred.drain-interval-ms:5000}")
+    public void drainDeferred() {
+        if (deferredParseQueue.size() == 0 || !transactionParser.isAvailable()) {
+            return;
+        }
+        List<Long> batch = deferredParseQueue.poll(drainBatchSize);
+        log.info("Draining {} deferred ingestion(s), {} remaining", batch.size(), deferredParseQueue.size());
+        for (Long id : batch) {
+            try {
+                processClaimed(id);
+            } catch (Exception e) {
+                log.warn("Deferred parse failed for ingestion id={}: {}", id, e.getMessage());
+            }
+        }
     }
 }
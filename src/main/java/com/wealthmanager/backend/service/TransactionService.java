@@ -1,19 +1,33 @@
 package com.wealthmanager.backend.service;
 
+import com.wealthmanager.backend.exception.BadRequestException;
 import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.TransactionTotals;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.PageCursor;
+import com.wealthmanager.backend.model.dto.SearchCursor;
+import com.wealthmanager.backend.model.dto.TransactionFilter;
 import com.wealthmanager.backend.model.dto.TransactionResponse;
+import com.wealthmanager.backend.model.dto.TransactionSearchHit;
 import com.wealthmanager.backend.repository.TransactionRepository;
+import com.wealthmanager.backend.repository.TransactionSpecifications;
+import com.wealthmanager.backend.repository.TransactionTotalsRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,54 +36,131 @@ import java.util.stream.Collectors;
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionTotalsRepository transactionTotalsRepository;
 
-    public TransactionService(TransactionRepository transactionRepository) {
+    public TransactionService(TransactionRepository transactionRepository,
+                              TransactionTotalsRepository transactionTotalsRepository) {
         this.transactionRepository = transactionRepository;
+        this.transactionTotalsRepository = transactionTotalsRepository;
     }
 
     public Page<TransactionResponse> getAllTransactions(Pageable pageable) {
-        return transactionRepository.findAllByOrderByTransactionDateDesc(pageable)
-                .map(this::toResponse);
+        return transactionRepository.findResponses(pageable);
+    }
+
+    /**
+     * Keyset page: newest first, continuing after {@code cursor} (null for the first page). Fetches one
+     * extra row to know whether another page follows; never counts.
+     */
+    public CursorPage<TransactionResponse> getTransactionsPage(String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<TransactionResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstResponsePage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = transactionRepository.findResponsePageAfter(after.date(), after.id(), limit);
+        }
+        return toCursorPage(rows, size);
+    }
+
+    /**
+     * Filtered keyset page: newest first, continuing after {@code cursor}. Reads at most {@code size + 1}
+     * rows (the extra one only tells whether another page follows); never counts.
+     */
+    public CursorPage<TransactionResponse> searchTransactions(TransactionFilter filter, String cursor, int size) {
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (filter.minAmount() != null && filter.maxAmount() != null && filter.minAmount().compareTo(filter.maxAmount()) > 0) {
+            throw new BadRequestException("minAmount must not be greater than maxAmount");
+        }
+        Specification<Transaction> spec = TransactionSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(TransactionSpecifications.after(PageCursor.decode(cursor)));
+        }
+        List<TransactionResponse> rows = transactionRepository.findBy(spec, q -> q
+                .as(TransactionResponse.class)
+                .sortBy(Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("id")))
+                .limit(size + 1)
+                .all());
+        return toCursorPage(rows, size);
+    }
+
+    /**
+     * Ranked text search over merchant, category and description (word prefixes), plus fuzzy merchant
+     * matches, best first, continuing after {@code cursor}. PostgreSQL only (tsvector + pg_trgm).
+     */
+    public CursorPage<TransactionSearchHit> searchText(String q, String cursor, int size) {
+        String tsQuery = TextSearchQuery.toTsQuery(q);
+        SearchCursor after = cursor != null && !cursor.isBlank() ? SearchCursor.decode(cursor) : null;
+        List<Object[]> ranked = transactionRepository.searchText(tsQuery, TextSearchQuery.toTrigramTerm(q),
+                after != null ? after.rank() : null, after != null ? after.id() : null, size + 1);
+
+        boolean hasMore = ranked.size() > size;
+        List<Object[]> page = hasMore ? ranked.subList(0, size) : ranked;
+        List<Long> ids = page.stream().map(r -> ((Number) r[0]).longValue()).toList();
+        Map<Long, TransactionResponse> byId = transactionRepository.findResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(TransactionResponse::id, Function.identity()));
+        List<TransactionSearchHit> hits = new ArrayList<>(page.size());
+        for (Object[] r : page) {
+            TransactionResponse t = byId.get(((Number) r[0]).longValue());
+            if (t != null) {
+                hits.add(new TransactionSearchHit(t, ((Number) r[1]).doubleValue()));
+            }
+        }
+        String next = null;
+        if (hasMore) {
+            Object[] last = page.get(size - 1);
+            next = new SearchCursor(((Number) last[1]).doubleValue(), ((Number) last[0]).longValue()).encode();
+        }
+        return new CursorPage<>(hits, next, hasMore);
     }
 
     public TransactionResponse getTransactionById(Long id) {
-        Transaction transaction = transactionRepository.findById(id)
+        return transactionRepository.findResponseById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Transaction not found with id: " + id));
-        return toResponse(transaction);
     }
 
     public List<TransactionResponse> getTransactionsByType(String transactionType, Pageable pageable) {
-        return transactionRepository.findByTransactionTypeOrderByTransactionDateDesc(transactionType, pageable)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return transactionRepository.findResponsesByType(transactionType, pageable);
     }
 
+    /** Read from the per-currency transaction_totals rollup (one row per currency), not the transaction table. */
     public Map<String, Object> getTransactionSummary() {
-        long totalCount = transactionRepository.countAll();
-        BigDecimal totalDebit = transactionRepository.sumDebitAmount();
-        BigDecimal totalCredit = transactionRepository.sumCreditAmount();
+        long totalCount = 0;
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        BigDecimal totalCredit = BigDecimal.ZERO;
+        Map<String, Object> byCurrency = new LinkedHashMap<>();
+        for (TransactionTotals t : transactionTotalsRepository.findAll(Sort.by("currency"))) {
+            totalCount += t.getTransactionCount();
+            totalDebit = totalDebit.add(t.getDebitTotal());
+            totalCredit = totalCredit.add(t.getCreditTotal());
+
+            Map<String, Object> currency = new LinkedHashMap<>();
+            currency.put("count", t.getTransactionCount());
+            currency.put("debit", t.getDebitTotal());
+            currency.put("credit", t.getCreditTotal());
+            currency.put("net", t.getCreditTotal().subtract(t.getDebitTotal()));
+            byCurrency.put(t.getCurrency(), currency);
+        }
 
         Map<String, Object> summary = new LinkedHashMap<>();
         summary.put("totalCount", totalCount);
         summary.put("totalDebit", totalDebit);
         summary.put("totalCredit", totalCredit);
         summary.put("netAmount", totalCredit.subtract(totalDebit));
+        summary.put("byCurrency", byCurrency);
 
         return summary;
     }
 
-    private TransactionResponse toResponse(Transaction transaction) {
-        return new TransactionResponse(
-                transaction.getId(),
-                transaction.getAmount(),
-                transaction.getCurrency(),
-                transaction.getMerchantName(),
-                transaction.getCategory(),
-                transaction.getTransactionType(),
-                transaction.getTransactionDate(),
-                transaction.getDescription(),
-                transaction.getCreatedAt()
-        );
+    private CursorPage<TransactionResponse> toCursorPage(List<TransactionResponse> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<TransactionResponse> page = hasMore ? rows.subList(0, size) : rows;
+        String next = hasMore
+                ? new PageCursor(page.get(size - 1).transactionDate(), page.get(size - 1).id()).encode()
+                : null;
+        return new CursorPage<>(page, next, hasMore);
     }
 }
@@ -0,0 +1,130 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.TransactionTotals;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import com.wealthmanager.backend.repository.TransactionTotalsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains transaction_totals, the per-currency rollup behind the transaction summary. Inserts add
+ * their amounts in the same database transaction as the rows themselves; a periodic reconciliation
+ * recomputes the totals from the transaction table and corrects any drift (rows written outside the
+ * parsing path, manual fixes).
+ */
+@Service
+@Slf4j
+public class TransactionTotalsService {
+
+    private static final String TYPE_DEBIT = "DEBIT";
+    private static final String TYPE_CREDIT = "CREDIT";
+
+    private final TransactionTotalsRepository transactionTotalsRepository;
+    private final TransactionRepository transactionRepository;
+
+    public TransactionTotalsService(TransactionTotalsRepository transactionTotalsRepository,
+                                    TransactionRepository transactionRepository) {
+        this.transactionTotalsRepository = transactionTotalsRepository;
+        this.transactionRepository = transactionRepository;
+    }
+
+    /** Add newly inserted transactions to the totals; joins the transaction that inserted them. */
+    @Transactional
+    public void add(Collection<Transaction> inserted) {
+        // One upsert per currency, in a fixed order so concurrent writers lock rows in the same order
+        Map<String, TransactionTotals> deltas = new TreeMap<>();
+        for (Transaction t : inserted) {
+            TransactionTotals d = deltas.computeIfAbsent(t.getCurrency(), c -> TransactionTotals.builder()
+                    .currency(c)
+                    .transactionCount(0L)
+                    .debitTotal(BigDecimal.ZERO)
+                    .creditTotal(BigDecimal.ZERO)
+                    .build());
+            d.setTransactionCount(d.getTransactionCount() + 1);
+            if (TYPE_DEBIT.equals(t.getTransactionType())) {
+                d.setDebitTotal(d.getDebitTotal().add(t.getAmount()));
+            } else if (TYPE_CREDIT.equals(t.getTransactionType())) {
+                d.setCreditTotal(d.getCreditTotal().add(t.getAmount()));
+            }
+        }
+        for (TransactionTotals d : deltas.values()) {
+            transactionTotalsRepository.addTotals(d.getCurrency(), d.getTransactionCount(), d.getDebitTotal(), d.getCreditTotal());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.transactions.totals.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.transactions.totals.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("Transaction totals reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recompute the totals from the transaction table and overwrite rows that differ. The totals rows are
+     * locked first, so inserts running meanwhile either are already committed (and counted by the
+     * aggregate) or add their amounts after this transaction commits.
+     *
+     * @return currencies whose totals were corrected, with the stored and recomputed values
+     */
+    @Transactional
+    public Map<String, Object> reconcile() {
+        Map<String, TransactionTotals> stored = new HashMap<>();
+        for (TransactionTotals t : transactionTotalsRepository.findAllForUpdate()) {
+            stored.put(t.getCurrency(), t);
+        }
+        Map<String, Object> corrected = new LinkedHashMap<>();
+        for (Object[] row : transactionRepository.sumByCurrency()) {
+            String currency = (String) row[0];
+            long count = ((Number) row[1]).longValue();
+            BigDecimal debit = (BigDecimal) row[2];
+            BigDecimal credit = (BigDecimal) row[3];
+            TransactionTotals t = stored.remove(currency);
+            if (t != null && t.getTransactionCount() == count
+                    && t.getDebitTotal().compareTo(debit) == 0 && t.getCreditTotal().compareTo(credit) == 0) {
+                continue;
+            }
+            corrected.put(currency, Map.of(
+                    "stored", t != null ? describe(t.getTransactionCount(), t.getDebitTotal(), t.getCreditTotal()) : "none",
+                    "actual", describe(count, debit, credit)));
+            if (t == null) {
+                t = TransactionTotals.builder().currency(currency).build();
+            }
+            t.setTransactionCount(count);
+            t.setDebitTotal(debit);
+            t.setCreditTotal(credit);
+            transactionTotalsRepository.save(t);
+        }
+        // Currencies that no longer have any transactions
+        for (TransactionTotals t : stored.values()) {
+            if (t.getTransactionCount() != 0 || t.getDebitTotal().signum() != 0 || t.getCreditTotal().signum() != 0) {
+                corrected.put(t.getCurrency(), Map.of(
+                        "stored", describe(t.getTransactionCount(), t.getDebitTotal(), t.getCreditTotal()),
+                        "actual", describe(0, BigDecimal.ZERO, BigDecimal.ZERO)));
+                transactionTotalsRepository.delete(t);
+            }
+        }
+        if (corrected.isEmpty()) {
+            log.debug("Transaction totals match the transaction table");
+        } else {
+            log.warn("Corrected transaction totals for {} currenc(ies): {}", corrected.size(), corrected);
+        }
+        return corrected;
+    }
+
+    private static String describe(long count, BigDecimal debit, BigDecimal credit) {
+        return "count=" + count + ", debit=" + debit.toPlainString() + ", credit=" + credit.toPlainString();
+    }
+}
@@ -0,0 +1,10 @@
+-- Make dedupe_key an idempotency key so concurrent writers can insert with ON CONFLICT DO NOTHING.
+-- Rows that slipped past the old check-then-insert keep their data; only the later copies lose the key.
+UPDATE transaction t SET dedupe_key = NULL
+WHERE t.dedupe_key IS NOT NULL
+  AND EXISTS (SELECT 1 FROM transaction o WHERE o.dedupe_key = t.dedupe_key AND o.id < t.id);
+
+DROP INDEX IF EXISTS idx_transaction_dedupe_key;
+
+CREATE UNIQUE INDEX idx_transaction_dedupe_key ON transaction(dedupe_key)
+    WHERE dedupe_key IS NOT NULL;
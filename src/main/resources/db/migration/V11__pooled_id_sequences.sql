@@ -0,0 +1,8 @@
+-- Pooled id allocation: Hibernate reserves 50 ids per nextval (pooled-lo: the value returned is the first id
+-- of the block), so inserts are no longer forced out one by one and JDBC batching applies.
+-- Only for tables whose rows Hibernate inserts. raw_ingestion and transaction rows mostly come from native
+-- INSERT ... ON CONFLICT statements that take their id from the column default, where every row would burn
+-- a whole block; clean_ledger_entry ids must follow insertion order for the position projection. Those
+-- sequences keep INCREMENT BY 1.
+ALTER SEQUENCE portfolio_holding_id_seq INCREMENT BY 50;
+ALTER SEQUENCE parse_job_id_seq INCREMENT BY 50;
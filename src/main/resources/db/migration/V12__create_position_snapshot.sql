@@ -0,0 +1,11 @@
+-- Periodic snapshot of the projected positions; a rebuild starts from the newest one and replays
+-- only ledger entries with id > ledger_entry_id.
+CREATE TABLE position_snapshot (
+    id BIGSERIAL PRIMARY KEY,
+    ledger_entry_id BIGINT NOT NULL,
+    position_count INTEGER NOT NULL,
+    positions TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_position_snapshot_ledger_entry_id ON position_snapshot(ledger_entry_id);
@@ -0,0 +1,14 @@
+-- Monthly checkpoints of positions for point-in-time queries. A checkpoint at checkpoint_date holds the
+-- positions from all ledger entries with ledger_date < checkpoint_date; an as-of query restores the
+-- nearest one and replays only the entries between it and the target date (idx_clean_ledger_date).
+-- ledger_entry_id is the highest ledger id that existed when the checkpoint was built, so entries added
+-- later with an older ledger_date can invalidate the checkpoints after that date.
+CREATE TABLE position_checkpoint (
+    id BIGSERIAL PRIMARY KEY,
+    checkpoint_date TIMESTAMP NOT NULL,
+    ledger_entry_id BIGINT NOT NULL,
+    position_count INTEGER NOT NULL,
+    positions TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_position_checkpoint_date UNIQUE (checkpoint_date)
+);
@@ -0,0 +1,17 @@
+-- Running totals per currency, updated in the same database transaction as each transaction insert,
+-- so the summary endpoint reads a handful of rows instead of aggregating the whole table.
+CREATE TABLE transaction_totals (
+    currency VARCHAR(10) PRIMARY KEY,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    debit_total NUMERIC(20, 2) NOT NULL DEFAULT 0,
+    credit_total NUMERIC(20, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+INSERT INTO transaction_totals (currency, transaction_count, debit_total, credit_total)
+SELECT currency,
+       COUNT(*),
+       COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'DEBIT'), 0),
+       COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'CREDIT'), 0)
+FROM transaction
+GROUP BY currency;
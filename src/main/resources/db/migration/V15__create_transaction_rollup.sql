@@ -0,0 +1,30 @@
+-- Pre-aggregated spend for analytics: count and amount per bucket (D = day, M = month starting at
+-- bucket_start), dimension (CATEGORY or MERCHANT, '' when unknown), type and currency. Maintained on
+-- insert next to transaction_totals; a range query reads whole months from the M rows and only the
+-- partial months at its edges from the D rows.
+CREATE TABLE transaction_rollup (
+    granularity CHAR(1) NOT NULL,
+    bucket_start DATE NOT NULL,
+    dimension VARCHAR(10) NOT NULL,
+    dimension_value VARCHAR(255) NOT NULL,
+    transaction_type VARCHAR(10) NOT NULL,
+    currency VARCHAR(10) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    total_amount NUMERIC(20, 2) NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, dimension, dimension_value, transaction_type, currency)
+);
+
+INSERT INTO transaction_rollup
+SELECT g.granularity,
+       CASE g.granularity WHEN 'D' THEN CAST(t.transaction_date AS DATE)
+                          ELSE CAST(date_trunc('month', t.transaction_date) AS DATE) END,
+       d.dimension,
+       CASE d.dimension WHEN 'CATEGORY' THEN COALESCE(t.category, '') ELSE COALESCE(t.merchant_name, '') END,
+       t.transaction_type,
+       t.currency,
+       COUNT(*),
+       SUM(t.amount)
+FROM transaction t
+CROSS JOIN (VALUES ('D'), ('M')) AS g(granularity)
+CROSS JOIN (VALUES ('CATEGORY'), ('MERCHANT')) AS d(dimension)
+GROUP BY 1, 2, 3, 4, 5, 6;
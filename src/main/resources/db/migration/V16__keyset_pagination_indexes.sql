@@ -0,0 +1,4 @@
+-- Keyset pagination: listings are ordered by (date DESC, id DESC) and continue with
+-- WHERE (date, id) < (cursor date, cursor id), which these indexes answer with one range scan.
+CREATE INDEX idx_transaction_date_id ON transaction(transaction_date DESC, id DESC);
+CREATE INDEX idx_clean_ledger_date_id ON clean_ledger_entry(ledger_date DESC, id DESC);
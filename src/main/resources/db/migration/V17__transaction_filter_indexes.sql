@@ -0,0 +1,14 @@
+-- Indexes for GET /api/v1/transactions/search (filters + keyset order transaction_date DESC, id DESC).
+-- Type and category lead composites in listing order, so a filtered page is one range scan that stops
+-- after the page; amount is included so an amount range is checked in the index before the heap.
+-- They replace the single-column type/category indexes, which are prefixes of them.
+CREATE INDEX idx_transaction_type_date_id ON transaction(transaction_type, transaction_date DESC, id DESC) INCLUDE (amount);
+CREATE INDEX idx_transaction_category_date_id ON transaction(category, transaction_date DESC, id DESC) INCLUDE (amount);
+DROP INDEX IF EXISTS idx_transaction_type;
+DROP INDEX IF EXISTS idx_transaction_category;
+
+-- Case-insensitive merchant prefix search: lower(merchant_name) LIKE 'prefix%'
+CREATE INDEX idx_transaction_merchant_prefix ON transaction(lower(merchant_name) text_pattern_ops);
+
+-- Amount range without a more selective filter
+CREATE INDEX idx_transaction_amount ON transaction(amount);
@@ -0,0 +1,17 @@
+-- Full-text search over transactions and raw message bodies. The 'simple' configuration keeps tokens
+-- as written (lower-cased, no stemming), so account fragments like "XX1234" and merchant names match
+-- as typed. Generated columns keep the vectors in step with every insert and update.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE transaction ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    to_tsvector('simple', coalesce(merchant_name, '') || ' ' || coalesce(category, '') || ' ' || coalesce(description, ''))
+) STORED;
+CREATE INDEX idx_transaction_search_vector ON transaction USING GIN (search_vector);
+
+-- Fuzzy merchant matching ("swigy" finds "Swiggy") with the pg_trgm <% (word similarity) operator
+CREATE INDEX idx_transaction_merchant_trgm ON transaction USING GIN (lower(merchant_name) gin_trgm_ops);
+
+ALTER TABLE raw_ingestion ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    to_tsvector('simple', raw_body)
+) STORED;
+CREATE INDEX idx_raw_ingestion_search_vector ON raw_ingestion USING GIN (search_vector);
@@ -0,0 +1,3 @@
+-- Ledger ids the projector had not seen below its high-water mark when the snapshot was taken (JSON list):
+-- inserts that may still commit. A rebuild from the snapshot keeps re-reading them.
+ALTER TABLE position_snapshot ADD COLUMN pending_entry_ids TEXT;
@@ -0,0 +1,7 @@
+-- Backlog workers claim rows with SELECT ... FOR UPDATE SKIP LOCKED and set a lease,
+-- so several threads/nodes can drain the backlog without parsing the same row twice
+ALTER TABLE raw_ingestion ADD COLUMN claimed_until TIMESTAMP;
+
+-- Keyset scan over unprocessed rows in id order
+CREATE INDEX idx_raw_ingestion_unprocessed_id ON raw_ingestion(id)
+    WHERE processed = FALSE;
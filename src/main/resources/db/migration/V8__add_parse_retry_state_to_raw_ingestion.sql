@@ -0,0 +1,10 @@
+-- Parse retry state: rows that yield no transaction are retried with exponential backoff
+-- and dead-lettered (UNPARSEABLE) after the configured number of attempts
+ALTER TABLE raw_ingestion ADD COLUMN parse_status VARCHAR(20) NOT NULL DEFAULT 'PENDING';
+ALTER TABLE raw_ingestion ADD COLUMN parse_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE raw_ingestion ADD COLUMN last_parse_error VARCHAR(100);
+ALTER TABLE raw_ingestion ADD COLUMN next_parse_at TIMESTAMP;
+
+UPDATE raw_ingestion SET parse_status = 'PARSED' WHERE processed = TRUE;
+
+CREATE INDEX idx_raw_ingestion_parse_status ON raw_ingestion(parse_status);
@@ -0,0 +1,25 @@
+-- Durable parse queue: one job per new ingestion, inserted in the ingest transaction.
+-- Workers claim jobs with FOR UPDATE SKIP LOCKED and hide them for a visibility timeout;
+-- a job whose worker died becomes visible again and is picked up by another worker.
+CREATE TABLE parse_job (
+    id BIGSERIAL PRIMARY KEY,
+    raw_ingestion_id BIGINT NOT NULL REFERENCES raw_ingestion(id) ON DELETE CASCADE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    visible_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_parse_job_visible_at ON parse_job(visible_at, id);
+CREATE INDEX idx_parse_job_raw_ingestion_id ON parse_job(raw_ingestion_id);
+
+-- Wake listening workers when a job commits (NOTIFY is delivered at commit, never before)
+CREATE OR REPLACE FUNCTION notify_parse_job() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('parse_job', NEW.id::text);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER parse_job_notify
+    AFTER INSERT ON parse_job
+    FOR EACH ROW EXECUTE FUNCTION notify_parse_job();
@@ -0,0 +1,73 @@
+package com.wealthmanager.backend.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptCompactorTest {
+
+    private static final String SENDER = "HDFC Bank InstaAlerts <alerts@hdfcbank.net>";
+
+    private static final String EMAIL = "[Subject: Account update for your HDFC Bank A/c] Dear Customer, "
+            + "Greetings from HDFC Bank! "
+            + "Rs.1,250.00 has been debited from account **1234 to VPA swiggy@icici on 14-02-26. "
+            + "Your UPI transaction reference number is 504512345678. "
+            + "If you did not authorize this transaction, please report it immediately. "
+            + "Please do not reply to this email as this mailbox is not monitored. "
+            + "Disclaimer: This communication is confidential and intended solely for the addressee. "
+            + "Stay safe and bank online with us. Download our app for exclusive benefits on every spend. "
+            + "Copyright HDFC Bank Ltd. All rights reserved.";
+
+    private final PromptCompactor compactor = new PromptCompactor(true, 400, 2000, 1, 2, 100);
+
+    @Test
+    void keepsTransactionSentenceAndDropsBoilerplate() {
+        String out = compactor.compact(SENDER, EMAIL);
+
+        assertTrue(out.contains("[Subject: Account update for your HDFC Bank A/c]"));
+        assertTrue(out.contains("Rs.1,250.00 has been debited from account **1234"));
+        assertFalse(out.contains("do not reply"));
+        assertFalse(out.contains("Disclaimer"));
+        assertFalse(out.contains("All rights reserved"));
+        assertTrue(out.length() < EMAIL.length() / 2);
+    }
+
+    @Test
+    void passesShortMessagesThrough() {
+        String sms = "Rs.500 debited from A/c XX1234 to AMAZON on 14-02-2026";
+        assertEquals(sms, compactor.compact("VM-HDFCBK", sms));
+    }
+
+    @Test
+    void learnsRecurringSenderBoilerplate() {
+        String footer = " Stay connected with the bank that understands you best, wherever you go.";
+        String first = EMAIL + footer;
+        compactor.compact(SENDER, first);
+        compactor.compact(SENDER, first);
+
+        // Footer now sits right before the debit sentence, inside its keep window
+        String out = compactor.compact(SENDER, EMAIL.replace(" Rs.1,250.00", footer + " Rs.1,250.00"));
+
+        assertFalse(out.contains("wherever you go"));
+        assertTrue(((Number) compactor.stats().get("estimatedTokensSaved")).longValue() > 0);
+    }
+
+    @Test
+    void neverLearnsDateOrReferenceLinesAsBoilerplate() {
+        PromptCompactor fresh = new PromptCompactor(true, 100, 2000, 1, 2, 100);
+        String mail1 = "Dear Customer,\nGreetings from HDFC Bank! We value your relationship with us always.\n"
+                + "Rs.1,250.00 has been debited from account **1234 to VPA swiggy@icici.\n"
+                + "Txn Date: 14-02-2026\nRef No: 504512345678\nStay safe and bank online with us.";
+        String mail2 = mail1.replace("1,250.00", "310.00").replace("14-02-2026", "15-02-2026")
+                .replace("504512345678", "504598765432");
+        fresh.compact(SENDER, mail1);
+        fresh.compact(SENDER, mail2);
+
+        String out = fresh.compact(SENDER, mail2.replace("15-02-2026", "16-02-2026"));
+
+        assertTrue(out.contains("Txn Date: 16-02-2026"));
+        assertTrue(out.contains("Ref No: 504598765432"));
+    }
+}
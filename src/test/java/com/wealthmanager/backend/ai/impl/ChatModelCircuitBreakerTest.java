@@ -0,0 +1,50 @@
+package com.wealthmanager.backend.ai.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatModelCircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsCalls() {
+        ChatModelCircuitBreaker cb = new ChatModelCircuitBreaker(2, Duration.ofMinutes(5));
+
+        cb.onFailure();
+        assertEquals(ChatModelCircuitBreaker.State.CLOSED, cb.getState());
+        cb.onFailure();
+
+        assertEquals(ChatModelCircuitBreaker.State.OPEN, cb.getState());
+        assertFalse(cb.tryAcquire());
+        assertFalse(cb.isCallPermitted());
+    }
+
+    @Test
+    void halfOpenLetsExactlyOneProbeThrough() {
+        ChatModelCircuitBreaker cb = new ChatModelCircuitBreaker(1, Duration.ZERO);
+        cb.onFailure();
+
+        assertTrue(cb.tryAcquire());
+        assertEquals(ChatModelCircuitBreaker.State.HALF_OPEN, cb.getState());
+        assertFalse(cb.tryAcquire());
+
+        cb.onSuccess();
+        assertEquals(ChatModelCircuitBreaker.State.CLOSED, cb.getState());
+        assertTrue(cb.tryAcquire());
+    }
+
+    @Test
+    void failedProbeReopensCircuit() {
+        ChatModelCircuitBreaker cb = new ChatModelCircuitBreaker(1, Duration.ZERO);
+        cb.onFailure();
+        assertTrue(cb.tryAcquire());
+
+        cb.onFailure();
+
+        assertEquals(ChatModelCircuitBreaker.State.OPEN, cb.getState());
+    }
+}
@@ -0,0 +1,98 @@
+package com.wealthmanager.backend.ai.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealthmanager.backend.ai.ParserUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmTransactionParserTest {
+
+    private static final String DEBIT_JSON =
+            "{\"amount\":100,\"currency\":\"INR\",\"merchantName\":\"SHOP\",\"transactionType\":\"DEBIT\"}";
+
+    @Test
+    void slowModelCallIsCutOffAtTheDeadline() {
+        ChatModel slow = prompt -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("interrupted");
+        };
+        ModelTier tier = new ModelTier("primary", "slow", slow, breaker(5));
+        LlmTransactionParser parser = new LlmTransactionParser(
+                new ModelRouter(List.of(tier), 0.7), new ObjectMapper(), 200, 4);
+
+        long started = System.nanoTime();
+        assertThrows(ParserUnavailableException.class, () -> parser.parse("Rs 100 debited at SHOP"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 5_000);
+        assertEquals(1L, tier.stats().get("failures"));
+        parser.shutdown();
+    }
+
+    @Test
+    void openFastTierIsSkippedForThePrimary() {
+        AtomicInteger fastCalls = new AtomicInteger();
+        ChatModel broken = prompt -> {
+            fastCalls.incrementAndGet();
+            throw new IllegalStateException("model not loaded");
+        };
+        ChatModel primary = prompt -> new ChatResponse(List.of(new Generation(new AssistantMessage(DEBIT_JSON))));
+        ModelTier fast = new ModelTier("fast", "broken", broken, breaker(1));
+        LlmTransactionParser parser = new LlmTransactionParser(new ModelRouter(List.of(
+                fast, new ModelTier("primary", "ok", primary, breaker(1))), 0.7), new ObjectMapper(), 5_000, 4);
+
+        assertTrue(parser.parse("Rs 100 debited at SHOP").isPresent());
+        assertEquals(ChatModelCircuitBreaker.State.OPEN, fast.getCircuitBreaker().getState());
+
+        assertTrue(parser.isAvailable());
+        assertTrue(parser.parse("Rs 100 debited at SHOP").isPresent());
+        assertEquals(1, fastCalls.get());
+        parser.shutdown();
+    }
+
+    @Test
+    void callsThatIgnoreTheInterruptDoNotPileUp() {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        ChatModel stuck = prompt -> {
+            started.incrementAndGet();
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // a blocking socket read does not react to interrupts either
+                }
+            }
+            throw new IllegalStateException("released");
+        };
+        LlmTransactionParser parser = new LlmTransactionParser(new ModelRouter(List.of(
+                new ModelTier("primary", "stuck", stuck, breaker(100))), 0.7), new ObjectMapper(), 100, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ParserUnavailableException.class, () -> parser.parse("Rs 100 debited at SHOP"));
+        }
+
+        assertEquals(1, started.get());
+        release.countDown();
+        parser.shutdown();
+    }
+
+    private static ChatModelCircuitBreaker breaker(int failureThreshold) {
+        return new ChatModelCircuitBreaker(failureThreshold, Duration.ofMinutes(1));
+    }
+}
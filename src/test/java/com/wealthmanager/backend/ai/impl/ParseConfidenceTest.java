@@ -0,0 +1,23 @@
+package com.wealthmanager.backend.ai.impl;
+
+import com.wealthmanager.backend.model.dto.TransactionParseResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseConfidenceTest {
+
+    @Test
+    void cuesMatchWholeWordsOnly() {
+        String text = "Rs 500 credited to your a/c. Please present this SMS at the branch.";
+        TransactionParseResult credit = new TransactionParseResult(new BigDecimal("500"), "INR", null, null, "CREDIT", null, null);
+
+        assertEquals(1.0, ParseConfidence.score(text, credit));
+        assertFalse(ParseConfidence.looksTransactional("Your representative will call on 12 May"));
+        assertTrue(ParseConfidence.looksTransactional("Rs 250 sent to Ravi"));
+    }
+}
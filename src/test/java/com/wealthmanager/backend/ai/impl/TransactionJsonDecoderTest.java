@@ -0,0 +1,117 @@
+package com.wealthmanager.backend.ai.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.wealthmanager.backend.model.dto.TransactionParseResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TransactionJsonDecoderTest {
+
+    private final TransactionJsonDecoder decoder = new TransactionJsonDecoder(new JsonFactory());
+
+    @Test
+    void decodesCleanJson() {
+        TransactionJsonDecoder.Decoded d = decoder.decode("""
+                {"amount":500.00,"currency":"INR","merchantName":"AMAZON","category":"Shopping",
+                 "transactionType":"debit","transactionDate":"2026-02-14T10:30:00","description":null}""");
+
+        assertEquals(TransactionJsonDecoder.Status.OK, d.status());
+        TransactionParseResult r = d.result();
+        assertEquals(0, new BigDecimal("500").compareTo(r.amount()));
+        assertEquals("AMAZON", r.merchantName());
+        assertEquals("DEBIT", r.transactionType());
+        assertEquals(LocalDateTime.of(2026, 2, 14, 10, 30), r.transactionDate());
+        assertNull(r.description());
+    }
+
+    @Test
+    void decodesFencedJsonWithSurroundingProse() {
+        TransactionJsonDecoder.Decoded d = decoder.decode("""
+                Here is the result:
+                ```json
+                {"amount":"1,250.50","transactionType":"CREDIT","transactionDate":"2026-02-14"}
+                ```
+                Let me know if you need anything else {ok}.""");
+
+        assertEquals(TransactionJsonDecoder.Status.OK, d.status());
+        assertEquals(new BigDecimal("1250.50"), d.result().amount());
+        assertEquals(LocalDateTime.of(2026, 2, 14, 0, 0), d.result().transactionDate());
+    }
+
+    @Test
+    void skipsProseBracesBeforeTheObject() {
+        TransactionJsonDecoder.Decoded d = decoder.decode(
+                "Schema is {amount, transactionType}. {\"amount\":10,\"transactionType\":\"DEBIT\"}");
+
+        assertEquals(TransactionJsonDecoder.Status.OK, d.status());
+        assertEquals(new BigDecimal("10"), d.result().amount());
+    }
+
+    @Test
+    void rejectsGarbageResponses() {
+        assertEquals(TransactionJsonDecoder.Status.NO_OBJECT, decoder.decode("I cannot help with that.").status());
+        assertEquals(TransactionJsonDecoder.Status.MALFORMED,
+                decoder.decode(".card { font-family: Arial; color: #333; }").status());
+        assertEquals(TransactionJsonDecoder.Status.MALFORMED,
+                decoder.decode("{\"amount\": 500, \"transactionType\": \"DEB").status());
+    }
+
+    @Test
+    void rejectsSchemaMismatches() {
+        assertEquals(TransactionJsonDecoder.Status.SCHEMA_MISMATCH,
+                decoder.decode("{\"cards\":{\"visa\":1,\"mastercard\":2},\"amount\":1,\"transactionType\":\"DEBIT\"}").status());
+        assertEquals(TransactionJsonDecoder.Status.SCHEMA_MISMATCH,
+                decoder.decode("{\"amount\":500}").status());
+        assertEquals(TransactionJsonDecoder.Status.SCHEMA_MISMATCH,
+                decoder.decode("{\"amount\":\"five hundred\",\"transactionType\":\"DEBIT\"}").status());
+        assertEquals(TransactionJsonDecoder.Status.SCHEMA_MISMATCH,
+                decoder.decode("{\"amount\":5,\"transactionType\":1}").status());
+    }
+
+    @Test
+    void decodesAllItemsOfAStatementEnvelope() {
+        List<TransactionParseResult> items = new ArrayList<>();
+        TransactionJsonDecoder.Status status = decoder.decodeAll("""
+                {"transactions":[
+                  {"amount":120,"transactionType":"DEBIT","merchantName":"UBER"},
+                  {"amount":"2,000","transactionType":"CREDIT"},
+                  {"amount":5,"transactionType":"DEBIT","tags":["x"]}
+                ]}""", items::add);
+
+        assertEquals(TransactionJsonDecoder.Status.OK, status);
+        assertEquals(2, items.size());
+        assertEquals("UBER", items.get(0).merchantName());
+        assertEquals(new BigDecimal("2000"), items.get(1).amount());
+    }
+
+    @Test
+    void keepsCompleteItemsOfTruncatedEnvelope() {
+        List<TransactionParseResult> items = new ArrayList<>();
+        TransactionJsonDecoder.Status status = decoder.decodeAll(
+                "[Subject: Statement] {\"transactions\":[{\"amount\":1,\"transactionType\":\"DEBIT\"},{\"amount\":2,\"trans",
+                items::add);
+
+        assertEquals(TransactionJsonDecoder.Status.MALFORMED, status);
+        assertEquals(1, items.size());
+    }
+
+    @Test
+    void emitsEachItemOfTruncatedBareArrayOnce() {
+        List<TransactionParseResult> items = new ArrayList<>();
+        TransactionJsonDecoder.Status status = decoder.decodeAll(
+                "[{\"amount\":100,\"transactionType\":\"DEBIT\",\"merchantName\":\"FASTAG TOLL\"},"
+                        + "{\"amount\":250,\"transactionType\":\"DEB",
+                items::add);
+
+        assertEquals(TransactionJsonDecoder.Status.MALFORMED, status);
+        assertEquals(1, items.size());
+        assertEquals("FASTAG TOLL", items.get(0).merchantName());
+    }
+}
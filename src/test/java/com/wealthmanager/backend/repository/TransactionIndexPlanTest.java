@@ -0,0 +1,78 @@
+package com.wealthmanager.backend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the search filters can use the V17 indexes, via EXPLAIN on the Flyway-migrated schema.
+ * Sequential scans are disabled for the session so the result does not depend on table size. Needs
+ * PostgreSQL: set TEST_POSTGRES_URL (and TEST_POSTGRES_USER / TEST_POSTGRES_PASSWORD).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class TransactionIndexPlanTest {
+
+    private static final String ORDER_AND_LIMIT = " ORDER BY transaction_date DESC, id DESC LIMIT 21";
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username", () -> Objects.requireNonNullElse(System.getenv("TEST_POSTGRES_USER"), "postgres"));
+        registry.add("spring.datasource.password", () -> Objects.requireNonNullElse(System.getenv("TEST_POSTGRES_PASSWORD"), ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("app.ingestion.job-queue.enabled", () -> "false");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void typeAndDateRangeUseTypeIndex() {
+        assertPlanUses("idx_transaction_type_date_id", "SELECT * FROM transaction WHERE transaction_type = 'DEBIT' "
+                + "AND transaction_date >= '2025-01-01' AND transaction_date < '2025-02-01' AND amount BETWEEN 10 AND 500"
+                + ORDER_AND_LIMIT);
+    }
+
+    @Test
+    void categoryWithCursorUsesCategoryIndex() {
+        assertPlanUses("idx_transaction_category_date_id", "SELECT * FROM transaction WHERE category = 'Food' "
+                + "AND transaction_date <= '2025-03-01 10:00' AND (transaction_date < '2025-03-01 10:00' OR id < 500)"
+                + ORDER_AND_LIMIT);
+    }
+
+    @Test
+    void merchantPrefixUsesPrefixIndex() {
+        assertPlanUses("idx_transaction_merchant_prefix",
+                "SELECT * FROM transaction WHERE lower(merchant_name) LIKE 'amazon%'");
+    }
+
+    @Test
+    void unfilteredListingUsesKeysetIndex() {
+        assertPlanUses("idx_transaction_date_id", "SELECT * FROM transaction" + ORDER_AND_LIMIT);
+    }
+
+    private void assertPlanUses(String index, String sql) {
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        });
+        assertTrue(plan != null && plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+}
@@ -0,0 +1,84 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.CleanLedgerEntry;
+import com.wealthmanager.backend.model.dto.CleanLedgerEntryResponse;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "app.portfolio.projection.enabled=false")
+@ActiveProfiles("test")
+class CleanLedgerServiceTest {
+
+    @Autowired
+    private CleanLedgerService cleanLedgerService;
+    @Autowired
+    private CleanLedgerEntryRepository cleanLedgerEntryRepository;
+
+    @AfterEach
+    void cleanUp() {
+        cleanLedgerEntryRepository.deleteAll();
+    }
+
+    @Test
+    void cursorPagesVisitEveryEntryOnceInDateThenIdOrder() {
+        List<CleanLedgerEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Groups of three entries share a timestamp, so pages must break ties on id
+            entries.add(entry(LocalDateTime.of(2025, 1, 1, 9, 0).plusDays(i / 3)));
+        }
+        List<Long> expected = cleanLedgerEntryRepository.saveAll(entries).stream()
+                .sorted(Comparator.comparing(CleanLedgerEntry::getLedgerDate).thenComparing(CleanLedgerEntry::getId).reversed())
+                .map(CleanLedgerEntry::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<CleanLedgerEntryResponse> page = cleanLedgerService.getEntriesPage(cursor, 10);
+            page.items().forEach(e -> seen.add(e.id()));
+            cursor = page.nextCursor();
+            pages++;
+            if (!page.hasMore()) {
+                assertNull(cursor);
+            }
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void rejectsForeignCursor() {
+        assertThrows(BadRequestException.class, () -> cleanLedgerService.getEntriesPage("not-a-cursor", 10));
+        assertFalse(cleanLedgerService.getEntriesPage(null, 10).hasMore());
+    }
+
+    private static CleanLedgerEntry entry(LocalDateTime at) {
+        return CleanLedgerEntry.builder()
+                .entryType("SIP")
+                .instrumentType(PortfolioService.INSTRUMENT_MUTUAL_FUND)
+                .name("Index Fund")
+                .quantity(BigDecimal.ONE)
+                .amount(BigDecimal.TEN)
+                .ledgerDate(at)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.PortfolioHolding;
+import com.wealthmanager.backend.model.RawIngestion;
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.PositionDelta;
+import com.wealthmanager.backend.repository.PortfolioHoldingRepository;
+import com.wealthmanager.backend.repository.RawIngestionRepository;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent writers against the ON CONFLICT write paths. Needs PostgreSQL (H2 has no ON CONFLICT):
+ * set TEST_POSTGRES_URL (and TEST_POSTGRES_USER / TEST_POSTGRES_PASSWORD) to a scratch database;
+ * Flyway migrates it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class ConcurrentWriteTest {
+
+    private static final int WRITERS = 8;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username", () -> Objects.requireNonNullElse(System.getenv("TEST_POSTGRES_USER"), "postgres"));
+        registry.add("spring.datasource.password", () -> Objects.requireNonNullElse(System.getenv("TEST_POSTGRES_PASSWORD"), ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("app.ingestion.job-queue.enabled", () -> "false");
+    }
+
+    @Autowired
+    private IngestionService ingestionService;
+    @Autowired
+    private PortfolioService portfolioService;
+    @Autowired
+    private TransactionParsingService transactionParsingService;
+    @Autowired
+    private RawIngestionRepository rawIngestionRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void sameEmailIngestedOnce() throws Exception {
+        String gmailId = "test-" + UUID.randomUUID();
+
+        List<RawIngestion> results = runConcurrently(() ->
+                ingestionService.ingestEmail(gmailId, "alerts@bank.test", "Rs 100 debited", LocalDateTime.now()));
+
+        List<RawIngestion> stored = results.stream().filter(Objects::nonNull).toList();
+        assertEquals(1, stored.size());
+        assertEquals(1, rawIngestionRepository.findAll().stream().filter(r -> gmailId.equals(r.getSourceId())).count());
+        rawIngestionRepository.deleteById(stored.get(0).getId());
+    }
+
+    @Test
+    void sameTransactionInsertedOnce() throws Exception {
+        String dedupeKey = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+
+        List<Map<String, Long>> results = runConcurrently(() -> transactionTemplate.execute(status ->
+                transactionRepository.insertAllIfAbsent(List.of(Transaction.builder()
+                        .amount(new BigDecimal("100.00"))
+                        .currency("INR")
+                        .transactionType("DEBIT")
+                        .transactionDate(LocalDateTime.now())
+                        .merchantName("Test Merchant")
+                        .dedupeKey(dedupeKey)
+                        .createdAt(LocalDateTime.now())
+                        .build()))));
+
+        List<Long> ids = results.stream().flatMap(r -> r.values().stream()).toList();
+        assertEquals(1, ids.size());
+        transactionRepository.deleteById(ids.get(0));
+    }
+
+    @Test
+    void repeatedIdenticalLinesOfOneMessageAreEachStoredOnce() {
+        RawIngestion ingestion = ingestionService.ingestEmail("test-" + UUID.randomUUID(), "alerts@bank.test",
+                "FASTAG toll Rs 100, FASTAG toll Rs 100", LocalDateTime.now());
+        String merchant = "TOLL " + UUID.randomUUID().toString().substring(0, 8);
+        LocalDateTime date = LocalDateTime.now().withNano(0);
+
+        transactionParsingService.persist(ingestion, List.of(toll(ingestion, merchant, date), toll(ingestion, merchant, date)));
+        // Re-delivered copy of the same message: both lines conflict on their keys
+        transactionParsingService.persist(ingestion, List.of(toll(ingestion, merchant, date), toll(ingestion, merchant, date)));
+
+        List<Transaction> stored = transactionRepository.findAll().stream()
+                .filter(t -> merchant.equals(t.getMerchantName())).toList();
+        assertEquals(2, stored.size());
+        transactionRepository.deleteAll(stored);
+        rawIngestionRepository.deleteById(ingestion.getId());
+    }
+
+    private static Transaction toll(RawIngestion ingestion, String merchant, LocalDateTime date) {
+        BigDecimal amount = new BigDecimal("100.00");
+        return Transaction.builder()
+                .rawIngestionId(ingestion.getId())
+                .amount(amount)
+                .currency("INR")
+                .transactionType("DEBIT")
+                .transactionDate(date)
+                .merchantName(merchant)
+                .dedupeKey(DedupeIndex.toStoredKey(DedupeIndex.key(amount, "INR", "DEBIT", date, merchant)))
+                .build();
+    }
+
+    @Test
+    void concurrentHoldingUpsertsAddUp() throws Exception {
+        String symbol = "T" + UUID.randomUUID().toString().substring(0, 8);
+
+        runConcurrently(() -> portfolioService.applyDeltas(List.of(new PositionDelta(
+                PortfolioService.INSTRUMENT_STOCK, symbol, null, BigDecimal.ONE, null, LocalDateTime.now()))));
+
+        PortfolioHolding holding = portfolioHoldingRepository
+                .findByInstrumentTypeAndSymbol(PortfolioService.INSTRUMENT_STOCK, symbol).orElseThrow();
+        assertEquals(0, BigDecimal.valueOf(WRITERS).compareTo(holding.getQuantity()));
+        portfolioHoldingRepository.delete(holding);
+    }
+
+    /** Start all writers at once and collect their results. */
+    private static <T> List<T> runConcurrently(Callable<T> writer) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return writer.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
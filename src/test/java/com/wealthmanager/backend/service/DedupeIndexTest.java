@@ -0,0 +1,99 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.DedupeCandidate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DedupeIndexTest {
+
+    private static final LocalDateTime TODAY = LocalDateTime.now().withHour(10);
+
+    @Test
+    void keyNormalizesAmountScaleMerchantAndTime() {
+        long a = DedupeIndex.key(new BigDecimal("500"), "INR", "DEBIT", TODAY, "Amazon  Pay");
+        long b = DedupeIndex.key(new BigDecimal("500.00"), "INR", "debit", TODAY.withHour(18), " AMAZON PAY ");
+
+        assertEquals(a, b);
+        assertNotEquals(a, DedupeIndex.key(new BigDecimal("500.01"), "INR", "DEBIT", TODAY, "Amazon Pay"));
+        assertNotEquals(a, DedupeIndex.key(new BigDecimal("500"), "INR", "CREDIT", TODAY, "Amazon Pay"));
+        assertNotEquals(a, DedupeIndex.key(new BigDecimal("500"), "INR", "DEBIT", TODAY.minusDays(1), "Amazon Pay"));
+        assertEquals(16, DedupeIndex.toStoredKey(a).length());
+    }
+
+    @Test
+    void findsAddedKeysPerDayAndGrowsBuckets() {
+        DedupeIndex index = new DedupeIndex(null, 8, true, 0.88);
+        for (long k = 1; k <= 1_000; k++) {
+            index.add(TODAY, k * 0x9E3779B97F4A7C15L);
+        }
+
+        assertTrue(index.contains(TODAY, 0x9E3779B97F4A7C15L));
+        assertTrue(index.contains(TODAY, 1_000 * 0x9E3779B97F4A7C15L));
+        assertFalse(index.contains(TODAY, 42));
+        assertFalse(index.contains(TODAY.minusDays(1), 0x9E3779B97F4A7C15L));
+        assertEquals(1_000, index.stats().get("keys"));
+    }
+
+    @Test
+    void ignoresDaysOutsideTheWindow() {
+        DedupeIndex index = new DedupeIndex(null, 8, true, 0.88);
+        index.add(TODAY.minusDays(30), 7);
+
+        assertFalse(index.contains(TODAY.minusDays(30), 7));
+    }
+
+    @Test
+    void fuzzyMatchesOnlyWithinBlockAndAdjacentDays() {
+        DedupeIndex index = new DedupeIndex(null, 8, true, 0.88);
+        index.add(new BigDecimal("1250.00"), "INR", "DEBIT", TODAY, "Big Bazaar Retail Ltd", "EMAIL");
+
+        assertEquals("BIG BAZAAR", index.findSimilarMerchant(txn("1250", "DEBIT", TODAY.plusDays(1), "BIG BAZAR"), "SMS"));
+        assertNull(index.findSimilarMerchant(txn("1250", "DEBIT", TODAY.plusDays(2), "BIG BAZAR"), "SMS"));
+        assertNull(index.findSimilarMerchant(txn("1250", "CREDIT", TODAY, "BIG BAZAR"), "SMS"));
+        assertNull(index.findSimilarMerchant(txn("1251", "DEBIT", TODAY, "BIG BAZAR"), "SMS"));
+        assertNull(index.findSimilarMerchant(txn("1250", "DEBIT", TODAY, "ZOMATO"), "SMS"));
+    }
+
+    @Test
+    void fuzzyMatchesOnlyAcrossChannels() {
+        DedupeIndex index = new DedupeIndex(null, 8, true, 0.88);
+        index.add(new BigDecimal("1250.00"), "INR", "DEBIT", TODAY, "Amazon Pay India Pvt Ltd", "EMAIL");
+
+        assertNull(index.findSimilarMerchant(txn("1250", "DEBIT", TODAY, "AMAZON"), "EMAIL"));
+        assertNull(index.findSimilarMerchant(txn("1250", "DEBIT", TODAY, "AMAZON"), null));
+        assertFalse(index.isFuzzyMatch(txn("1250", "DEBIT", TODAY, "AMAZON"), "EMAIL",
+                new DedupeCandidate(new BigDecimal("1250.00"), "INR", "DEBIT", TODAY, "Amazon Pay India Pvt Ltd", null, "EMAIL")));
+        assertTrue(index.isFuzzyMatch(txn("1250", "DEBIT", TODAY, "AMAZON"), "SMS",
+                new DedupeCandidate(new BigDecimal("1250.00"), "INR", "DEBIT", TODAY, "Amazon Pay India Pvt Ltd", null, "EMAIL")));
+    }
+
+    @Test
+    void sameMerchantOnAnotherDayIsARepeatPurchase() {
+        DedupeIndex index = new DedupeIndex(null, 8, true, 0.88);
+        index.add(new BigDecimal("250.00"), "INR", "DEBIT", TODAY.minusDays(1), "SWIGGY", "EMAIL");
+
+        assertNull(index.findSimilarMerchant(txn("250", "DEBIT", TODAY, "Swiggy"), "SMS"));
+        assertFalse(index.isFuzzyMatch(txn("250", "DEBIT", TODAY, "Swiggy Limited"), "SMS",
+                new DedupeCandidate(new BigDecimal("250.00"), "INR", "DEBIT", TODAY.minusDays(1), "SWIGGY", null, "EMAIL")));
+        assertEquals("SWIGGY", index.findSimilarMerchant(txn("250", "DEBIT", TODAY.minusDays(1), "Swiggy Limited"), "SMS"));
+    }
+
+    private static Transaction txn(String amount, String type, LocalDateTime date, String merchant) {
+        return Transaction.builder()
+                .amount(new BigDecimal(amount))
+                .currency("INR")
+                .transactionType(type)
+                .transactionDate(date)
+                .merchantName(merchant)
+                .build();
+    }
+}
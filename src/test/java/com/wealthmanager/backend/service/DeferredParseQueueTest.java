@@ -0,0 +1,50 @@
+package com.wealthmanager.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeferredParseQueueTest {
+
+    @Test
+    void concurrentDefersNeverExceedCapacity() throws Exception {
+        DeferredParseQueue queue = new DeferredParseQueue(50);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < 8; w++) {
+                long base = w * 1000L;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (long id = base; id < base + 100; id++) {
+                        if (queue.defer(id)) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(50, accepted.get());
+        assertEquals(50, queue.size());
+        assertEquals(50, queue.poll(100).size());
+        assertEquals(0, queue.size());
+    }
+}
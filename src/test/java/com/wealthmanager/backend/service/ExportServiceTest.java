@@ -0,0 +1,95 @@
+package com.wealthmanager.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAll();
+    }
+
+    @Test
+    void csvIsQuotedAndFilteredByDate() throws Exception {
+        save(LocalDateTime.of(2025, 3, 31, 23, 0), "Outside");
+        save(LocalDateTime.of(2025, 4, 1, 9, 0), "Cafe \"Blue\", Bandra");
+        save(LocalDateTime.of(2025, 4, 30, 23, 59), "Line\nbreak");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exportService.exportTransactions(ExportService.Format.CSV, false,
+                LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 30), out);
+
+        assertEquals(2, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,amount,currency,merchantName,category,transactionType,transactionDate,description,createdAt", lines[0]);
+        assertTrue(lines[1].contains(",\"Cafe \"\"Blue\"\", Bandra\","));
+        assertTrue(lines[2].contains(",\"Line\nbreak\","));
+        assertEquals(3, lines.length);
+    }
+
+    @Test
+    void gzippedNdjsonHasOneObjectPerLineOldestFirst() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            ids.add(save(LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i), "Merchant " + i).getId());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportTransactions(ExportService.Format.NDJSON, true, null, null, out);
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = body.split("\n");
+        assertEquals(1200, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(ids.get(0).longValue(), first.get("id").asLong());
+        assertEquals("2025-01-01T00:00:00", first.get("transactionDate").asText());
+        assertEquals(ids.get(1199).longValue(), objectMapper.readTree(lines[1199]).get("id").asLong());
+        assertThrows(BadRequestException.class, () -> ExportService.Format.parse("xml"));
+    }
+
+    private Transaction save(LocalDateTime date, String merchant) {
+        return transactionRepository.save(Transaction.builder()
+                .amount(new BigDecimal("12.50"))
+                .currency("INR")
+                .transactionType("DEBIT")
+                .merchantName(merchant)
+                .transactionDate(date)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
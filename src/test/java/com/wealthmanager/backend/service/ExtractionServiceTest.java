@@ -0,0 +1,70 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.ParseJob;
+import com.wealthmanager.backend.model.RawIngestion;
+import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
+import com.wealthmanager.backend.repository.ParseJobRepository;
+import com.wealthmanager.backend.repository.RawIngestionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "app.ingestion.job-queue.enabled=false")
+@ActiveProfiles("test")
+class ExtractionServiceTest {
+
+    @Autowired
+    private ExtractionService extractionService;
+    @Autowired
+    private RawIngestionRepository rawIngestionRepository;
+    @Autowired
+    private ParseJobRepository parseJobRepository;
+    @Autowired
+    private CleanLedgerEntryRepository cleanLedgerEntryRepository;
+
+    @AfterEach
+    void cleanUp() {
+        cleanLedgerEntryRepository.deleteAll();
+        parseJobRepository.deleteAll();
+        rawIngestionRepository.deleteAll();
+    }
+
+    @Test
+    void runOfAJobClaimedAgainWritesNothing() {
+        RawIngestion ingestion = ingestion();
+        // Visibility timeout ran out during our run (claim 1); another worker claimed the job (claim 2)
+        ParseJob job = parseJobRepository.save(ParseJob.builder()
+                .rawIngestionId(ingestion.getId())
+                .attempts(2)
+                .build());
+
+        extractionService.process(ingestion, job.getId(), 1);
+        assertEquals(0, cleanLedgerEntryRepository.count());
+        assertTrue(parseJobRepository.existsById(job.getId()));
+
+        extractionService.process(ingestion, job.getId(), 2);
+        assertEquals(1, cleanLedgerEntryRepository.count());
+        assertTrue(parseJobRepository.findById(job.getId()).isEmpty());
+
+        // The first worker's late completion finds the job gone
+        extractionService.processHoldingsOnly(ingestion, job.getId(), 1);
+        assertEquals(1, cleanLedgerEntryRepository.count());
+    }
+
+    private RawIngestion ingestion() {
+        return rawIngestionRepository.save(RawIngestion.builder()
+                .source("EMAIL")
+                .rawBody("You have purchased 100 units of HDFC Top 100 Fund at NAV 845.12 on 12-Jan-2025.")
+                .receivedAt(LocalDateTime.of(2025, 1, 12, 10, 0))
+                // Transaction parsing already done: only the template-matched holdings run, no model call
+                .processed(true)
+                .build());
+    }
+}
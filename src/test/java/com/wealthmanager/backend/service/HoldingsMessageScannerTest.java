@@ -0,0 +1,59 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.dto.HoldingParseResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoldingsMessageScannerTest {
+
+    @Test
+    void matchesGoldenCorpus() throws IOException {
+        String corpus;
+        try (InputStream in = getClass().getResourceAsStream("/holdings/golden-corpus.txt")) {
+            assertNotNull(in);
+            corpus = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        int cases = 0;
+        for (String block : corpus.split("\n---\n")) {
+            StringBuilder message = new StringBuilder();
+            List<String> expected = new ArrayList<>();
+            for (String line : block.split("\n")) {
+                if (line.startsWith("> ")) {
+                    message.append(message.isEmpty() ? "" : "\n").append(line.substring(2));
+                } else if (line.startsWith("= ")) {
+                    expected.add(line.substring(2));
+                }
+            }
+            List<String> actual = HoldingsMessageScanner.scan(message).stream()
+                    .map(HoldingsMessageScannerTest::format)
+                    .toList();
+            assertEquals(expected, actual, message.toString());
+            cases++;
+        }
+        assertEquals(19, cases);
+    }
+
+    @Test
+    void truncatesLongNamesAndDropsSymbol() {
+        String name = "A".repeat(60) + " " + "B".repeat(60);
+
+        List<HoldingParseResult> results = HoldingsMessageScanner.scan("Bought 2 units of " + name);
+
+        assertEquals(1, results.size());
+        assertEquals(name.substring(0, 100), results.get(0).name());
+        assertTrue(results.get(0).symbol() == null);
+    }
+
+    private static String format(HoldingParseResult r) {
+        return r.entryType() + " | " + r.instrumentType() + " | " + r.name() + " | " + r.quantity().toPlainString();
+    }
+}
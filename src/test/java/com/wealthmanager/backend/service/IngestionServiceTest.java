@@ -0,0 +1,48 @@
+package com.wealthmanager.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestionServiceTest {
+
+    @Test
+    void shortBodyIsReturnedWhole() {
+        assertEquals("Rs 450 debited at SWIGGY", IngestionService.snippet("Rs 450 debited at SWIGGY", "swiggy"));
+    }
+
+    @Test
+    void longBodyIsCutAroundTheTerm() {
+        String body = "x".repeat(300) + " Rs 450 debited at SWIGGY " + "y".repeat(300);
+
+        String snippet = IngestionService.snippet(body, "swiggy");
+
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.endsWith("…"));
+        assertTrue(snippet.contains("SWIGGY"));
+        assertEquals(162, snippet.length());
+    }
+
+    @Test
+    void termNearTheEndKeepsTheTail() {
+        String body = "x".repeat(300) + " paid to SWIGGY";
+
+        String snippet = IngestionService.snippet(body, "swiggy");
+
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.endsWith("paid to SWIGGY"));
+    }
+
+    @Test
+    void missingTermFallsBackToTheStart() {
+        String body = "Rs 450 debited " + "x".repeat(300);
+
+        String snippet = IngestionService.snippet(body, "zomato");
+
+        assertFalse(snippet.startsWith("…"));
+        assertTrue(snippet.startsWith("Rs 450 debited"));
+        assertTrue(snippet.endsWith("…"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.PortfolioHolding;
+import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
+import com.wealthmanager.backend.repository.PortfolioHoldingRepository;
+import com.wealthmanager.backend.repository.PositionSnapshotRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerProjectorTest {
+
+    @Autowired
+    private LedgerProjector ledgerProjector;
+    @Autowired
+    private CleanLedgerEntryRepository cleanLedgerEntryRepository;
+    @Autowired
+    private PortfolioHoldingRepository portfolioHoldingRepository;
+    @Autowired
+    private PositionSnapshotRepository positionSnapshotRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        cleanLedgerEntryRepository.deleteAll();
+        portfolioHoldingRepository.deleteAll();
+        positionSnapshotRepository.deleteAll();
+        ledgerProjector.rebuild(true);
+    }
+
+    @Test
+    void appliesEntryThatCommitsBelowTheHighWaterMark() {
+        ledgerProjector.rebuild(true);
+        long base = (Long) ledgerProjector.status().get("highWaterMark");
+
+        // id base+1 was taken first but commits after base+2
+        insertEntry(base + 2, "5");
+        ledgerProjector.catchUp();
+        assertEquals(1, ledgerProjector.status().get("pendingEntryIds"));
+
+        insertEntry(base + 1, "3");
+        ledgerProjector.catchUp();
+
+        PortfolioHolding holding = portfolioHoldingRepository
+                .findByInstrumentTypeAndSymbol(PortfolioService.INSTRUMENT_MUTUAL_FUND, "LATEFUND").orElseThrow();
+        assertEquals(0, new BigDecimal("8").compareTo(holding.getQuantity()));
+        assertEquals(0, ledgerProjector.status().get("pendingEntryIds"));
+    }
+
+    @Test
+    void rebuildKeepsLookingForIdsPendingInTheSnapshot() {
+        ledgerProjector.rebuild(true);
+        long base = (Long) ledgerProjector.status().get("highWaterMark");
+        insertEntry(base + 2, "5");
+        ledgerProjector.rebuild(false);
+
+        insertEntry(base + 1, "3");
+        ledgerProjector.rebuild(false);
+
+        PortfolioHolding holding = portfolioHoldingRepository
+                .findByInstrumentTypeAndSymbol(PortfolioService.INSTRUMENT_MUTUAL_FUND, "LATEFUND").orElseThrow();
+        assertEquals(0, new BigDecimal("8").compareTo(holding.getQuantity()));
+    }
+
+    private void insertEntry(long id, String quantity) {
+        transactionTemplate.executeWithoutResult(status -> entityManager.createNativeQuery(
+                        "INSERT INTO clean_ledger_entry (id, entry_type, instrument_type, symbol, quantity, amount, "
+                                + "currency, ledger_date, created_at) VALUES (?, 'SIP', ?, 'LATEFUND', ?, 0, 'INR', ?, ?)")
+                .setParameter(1, id)
+                .setParameter(2, PortfolioService.INSTRUMENT_MUTUAL_FUND)
+                .setParameter(3, new BigDecimal(quantity))
+                .setParameter(4, LocalDateTime.now())
+                .setParameter(5, LocalDateTime.now())
+                .executeUpdate());
+    }
+}
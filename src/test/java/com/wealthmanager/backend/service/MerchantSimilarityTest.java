@@ -0,0 +1,47 @@
+package com.wealthmanager.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MerchantSimilarityTest {
+
+    private static final double THRESHOLD = 0.88;
+
+    @Test
+    void matchesSameMerchantAcrossChannels() {
+        assertTrue(MerchantSimilarity.score("AMAZON", "Amazon Pay India Pvt Ltd") >= THRESHOLD);
+        assertTrue(MerchantSimilarity.score("amazon@apl", "AMAZON") >= THRESHOLD);
+        assertTrue(MerchantSimilarity.score("SWIGGY", "Swiggy Limited") >= THRESHOLD);
+        assertTrue(MerchantSimilarity.score("BIG BAZAR", "Big Bazaar") >= THRESHOLD);
+    }
+
+    @Test
+    void keepsDifferentMerchantsApart() {
+        assertTrue(MerchantSimilarity.score("AMAZON", "ZOMATO") < THRESHOLD);
+        assertTrue(MerchantSimilarity.score("UBER", "SWIGGY") < THRESHOLD);
+        assertTrue(MerchantSimilarity.score("Flipkart", "Myntra") < THRESHOLD);
+        assertEquals(0.0, MerchantSimilarity.score(null, "AMAZON"));
+    }
+
+    @Test
+    void containmentNeedsAtLeastTwoWords() {
+        assertTrue(MerchantSimilarity.score("PAYTM", "Paytm Mall Order") < THRESHOLD);
+        assertTrue(MerchantSimilarity.score("RELIANCE", "Reliance Jio Infocomm") < THRESHOLD);
+        assertTrue(MerchantSimilarity.score("TATA CLIQ", "Tata Cliq Luxury") >= THRESHOLD);
+    }
+
+    @Test
+    void singleBrandWordDoesNotMatchALongerName() {
+        assertTrue(MerchantSimilarity.score("UBER", "UBER EATS") < THRESHOLD);
+        assertTrue(MerchantSimilarity.score("PAYTM MALL", "PAYTM") < THRESHOLD);
+        assertTrue(MerchantSimilarity.jaroWinkler("UBER", "UBER EATS") >= THRESHOLD);
+    }
+
+    @Test
+    void normalizesSuffixesAndPunctuation() {
+        assertEquals("AMAZON", MerchantSimilarity.normalize("Amazon Pay (India) Pvt. Ltd."));
+        assertEquals("AMAZON", MerchantSimilarity.normalize("amazon@apl"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.wealthmanager.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseRetryPolicyTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 14, 10, 0);
+
+    private final ParseRetryPolicy policy = new ParseRetryPolicy(4, 60_000, 300_000);
+
+    @Test
+    void doublesDelayPerAttemptUpToCap() {
+        assertEquals(NOW.plusMinutes(1), policy.nextAttemptAt(1, NOW));
+        assertEquals(NOW.plusMinutes(2), policy.nextAttemptAt(2, NOW));
+        assertEquals(NOW.plusMinutes(4), policy.nextAttemptAt(3, NOW));
+        assertEquals(NOW.plusMinutes(5), policy.nextAttemptAt(4, NOW));
+        assertEquals(NOW.plusMinutes(5), policy.nextAttemptAt(100, NOW));
+    }
+
+    @Test
+    void exhaustedAfterMaxAttempts() {
+        assertFalse(policy.isExhausted(3));
+        assertTrue(policy.isExhausted(4));
+    }
+}
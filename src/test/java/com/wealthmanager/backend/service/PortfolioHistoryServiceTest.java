@@ -0,0 +1,126 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.CleanLedgerEntry;
+import com.wealthmanager.backend.model.dto.PortfolioAsOfResponse;
+import com.wealthmanager.backend.model.dto.ProjectedPosition;
+import com.wealthmanager.backend.repository.CleanLedgerEntryRepository;
+import com.wealthmanager.backend.repository.PositionCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.portfolio.projection.enabled=false",
+        "app.portfolio.projection.settle-ms=0"
+})
+@ActiveProfiles("test")
+class PortfolioHistoryServiceTest {
+
+    @TestConfiguration
+    static class FixedClock {
+        @Bean
+        @Primary
+        Clock fixedClock() {
+            return Clock.fixed(Instant.parse("2025-06-15T12:00:00Z"), ZoneOffset.UTC);
+        }
+    }
+
+    @Autowired
+    private PortfolioHistoryService portfolioHistoryService;
+    @Autowired
+    private CleanLedgerEntryRepository cleanLedgerEntryRepository;
+    @Autowired
+    private PositionCheckpointRepository positionCheckpointRepository;
+
+    @AfterEach
+    void cleanUp() {
+        positionCheckpointRepository.deleteAll();
+        cleanLedgerEntryRepository.deleteAll();
+    }
+
+    @Test
+    void replaysFromNearestCheckpoint() {
+        cleanLedgerEntryRepository.saveAll(List.of(
+                entry("SIP", "TCS", "10", LocalDateTime.of(2025, 1, 10, 9, 0)),
+                entry("SIP", "INFY", "5", LocalDateTime.of(2025, 1, 20, 9, 0)),
+                entry("REDEMPTION", "TCS", "4", LocalDateTime.of(2025, 2, 5, 9, 0)),
+                entry("REDEMPTION", "INFY", "5", LocalDateTime.of(2025, 2, 25, 9, 0)),
+                entry("SIP", "TCS", "1", LocalDateTime.of(2025, 3, 3, 9, 0))));
+
+        assertEquals(5, portfolioHistoryService.refreshCheckpoints());
+
+        PortfolioAsOfResponse feb = portfolioHistoryService.getPositionsAsOf(LocalDate.of(2025, 2, 20));
+        assertEquals(LocalDateTime.of(2025, 2, 1, 0, 0), feb.checkpointDate());
+        assertEquals(1, feb.replayedEntries());
+        assertEquals("5,6", quantities(feb));
+
+        PortfolioAsOfResponse endOfFeb = portfolioHistoryService.getPositionsAsOf(LocalDate.of(2025, 2, 28));
+        assertEquals(1, endOfFeb.positions().size());
+
+        PortfolioAsOfResponse before = portfolioHistoryService.getPositionsAsOf(LocalDate.of(2024, 12, 31));
+        assertNull(before.checkpointDate());
+        assertTrue(before.positions().isEmpty());
+    }
+
+    @Test
+    void backdatedEntrySkipsStaleCheckpointsUntilRefresh() {
+        cleanLedgerEntryRepository.saveAll(List.of(
+                entry("SIP", "TCS", "10", LocalDateTime.of(2025, 1, 10, 9, 0)),
+                entry("SIP", "TCS", "2", LocalDateTime.of(2025, 3, 10, 9, 0))));
+        portfolioHistoryService.refreshCheckpoints();
+
+        cleanLedgerEntryRepository.save(entry("REDEMPTION", "TCS", "3", LocalDateTime.of(2025, 2, 28, 18, 0)));
+
+        // Checkpoints from March on miss the redemption; the query replays from February without writing
+        PortfolioAsOfResponse stale = portfolioHistoryService.getPositionsAsOf(LocalDate.of(2025, 4, 30));
+        assertEquals(LocalDateTime.of(2025, 2, 1, 0, 0), stale.checkpointDate());
+        assertEquals(2, stale.replayedEntries());
+        assertEquals("9", quantities(stale));
+        assertEquals(5, positionCheckpointRepository.count());
+
+        assertEquals(4, portfolioHistoryService.refreshCheckpoints());
+        PortfolioAsOfResponse april = portfolioHistoryService.getPositionsAsOf(LocalDate.of(2025, 4, 30));
+        assertEquals(LocalDateTime.of(2025, 5, 1, 0, 0), april.checkpointDate());
+        assertEquals(0, april.replayedEntries());
+        assertEquals("9", quantities(april));
+    }
+
+    private static String quantities(PortfolioAsOfResponse response) {
+        return response.positions().stream()
+                .map(ProjectedPosition::quantity)
+                .map(BigDecimal::stripTrailingZeros)
+                .map(BigDecimal::toPlainString)
+                .reduce((a, b) -> a + "," + b)
+                .orElse("");
+    }
+
+    private static CleanLedgerEntry entry(String type, String symbol, String qty, LocalDateTime at) {
+        return CleanLedgerEntry.builder()
+                .entryType(type)
+                .instrumentType(PortfolioService.INSTRUMENT_STOCK)
+                .symbol(symbol)
+                .name(symbol)
+                .quantity(new BigDecimal(qty))
+                .amount(BigDecimal.ZERO)
+                .ledgerDate(at)
+                .createdAt(at)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.dto.HoldingParseResult;
+import com.wealthmanager.backend.model.dto.PositionDelta;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PortfolioServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2025, 1, 15, 10, 0);
+
+    @Test
+    void mergesDeltasPerPositionInKeyOrder() {
+        List<PositionDelta> merged = PortfolioService.merge(List.of(
+                delta("SIP", "STOCK", "TCS", "10"),
+                delta("SIP", "MUTUAL_FUND", "Axis Bluechip", "5.5"),
+                delta("REDEMPTION", "STOCK", "TCS", "4"),
+                delta("SIP", "MUTUAL_FUND", "Axis Bluechip", "1.25")));
+
+        assertEquals(2, merged.size());
+        assertEquals("MUTUAL_FUND", merged.get(0).instrumentType());
+        assertEquals(0, new BigDecimal("6.75").compareTo(merged.get(0).quantity()));
+        assertEquals("TCS", merged.get(1).symbol());
+        assertEquals(0, new BigDecimal("6").compareTo(merged.get(1).quantity()));
+    }
+
+    @Test
+    void redemptionsAreNegativeAndSymbolLessDeltasStaySeparate() {
+        String longName = "X".repeat(60);
+
+        List<PositionDelta> merged = PortfolioService.merge(List.of(
+                delta("REDEMPTION", "STOCK", "INFY", "3"),
+                delta("SIP", "MUTUAL_FUND", longName, "1"),
+                delta("SIP", "MUTUAL_FUND", longName, "2")));
+
+        assertEquals(3, merged.size());
+        assertEquals(0, new BigDecimal("-3").compareTo(merged.get(0).quantity()));
+        assertNull(merged.get(1).symbol());
+        assertNull(merged.get(2).symbol());
+    }
+
+    private static PositionDelta delta(String entryType, String instrumentType, String name, String qty) {
+        return PositionDelta.of(new HoldingParseResult(entryType, instrumentType, name, new BigDecimal(qty)), 1L, AT);
+    }
+}
@@ -0,0 +1,64 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.CleanLedgerEntry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PositionProjectionTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2025, 1, 15, 10, 0);
+
+    @Test
+    void appliesPurchasesAndRedemptionsFlooredAtZero() {
+        PositionProjection projection = new PositionProjection();
+        projection.apply(entry(1, "SIP", "TCS", "10"));
+        projection.apply(entry(2, "REDEMPTION", "TCS", "4"));
+        projection.apply(entry(3, "REDEMPTION", "TCS", "50"));
+
+        assertNull(projection.apply(entry(4, "REDEMPTION", "INFY", "1")));
+        assertEquals(1, projection.size());
+        assertEquals(0, BigDecimal.ZERO.compareTo(projection.get(PositionProjection.key("STOCK", "TCS", "TCS")).quantity()));
+        assertEquals(4, projection.highWaterMark());
+    }
+
+    @Test
+    void replayFromSnapshotMatchesFullReplay() {
+        List<CleanLedgerEntry> ledger = List.of(
+                entry(1, "SIP", "TCS", "10"),
+                entry(2, "SIP", "INFY", "3"),
+                entry(3, "REDEMPTION", "TCS", "2.5"),
+                entry(4, "SIP", "INFY", "1.5"),
+                entry(5, "SIP", "WIPRO", "7"));
+        PositionProjection full = new PositionProjection();
+        ledger.forEach(full::apply);
+
+        PositionProjection head = new PositionProjection();
+        ledger.subList(0, 3).forEach(head::apply);
+        PositionProjection resumed = new PositionProjection();
+        resumed.restore(head.positions(), head.highWaterMark());
+        ledger.subList(3, 5).forEach(resumed::apply);
+
+        assertEquals(full.positions(), resumed.positions());
+        assertEquals(5, resumed.highWaterMark());
+    }
+
+    private static CleanLedgerEntry entry(long id, String type, String symbol, String qty) {
+        return CleanLedgerEntry.builder()
+                .id(id)
+                .rawIngestionId(id)
+                .entryType(type)
+                .instrumentType("STOCK")
+                .symbol(symbol)
+                .name(symbol)
+                .quantity(new BigDecimal(qty))
+                .amount(BigDecimal.ZERO)
+                .ledgerDate(AT.plusDays(id))
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TextSearchQueryTest {
+
+    @Test
+    void joinsWordsAsPrefixTerms() {
+        assertEquals("swig:* & food:*", TextSearchQuery.toTsQuery("Swig food"));
+        assertEquals("café:*", TextSearchQuery.toTsQuery("CAFÉ"));
+    }
+
+    @Test
+    void dropsTsQuerySyntax() {
+        assertEquals("a:* & b:* & c:*", TextSearchQuery.toTsQuery("a & (b | !c:*)"));
+        assertEquals("rent:* & 2025:*", TextSearchQuery.toTsQuery("'rent' <-> 2025"));
+    }
+
+    @Test
+    void keepsAtMostEightTerms() {
+        assertEquals("a:* & b:* & c:* & d:* & e:* & f:* & g:* & h:*",
+                TextSearchQuery.toTsQuery("a b c d e f g h i j"));
+    }
+
+    @Test
+    void rejectsTextWithoutWords() {
+        assertThrows(BadRequestException.class, () -> TextSearchQuery.toTsQuery("%% &|!"));
+        assertThrows(BadRequestException.class, () -> TextSearchQuery.toTsQuery(null));
+    }
+
+    @Test
+    void trigramTermIsLowerCasedWords() {
+        assertEquals("swiggy instamart", TextSearchQuery.toTrigramTerm("  Swiggy-Instamart! "));
+        assertEquals("", TextSearchQuery.toTrigramTerm("--"));
+    }
+}
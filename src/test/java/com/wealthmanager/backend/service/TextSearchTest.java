@@ -0,0 +1,122 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.TransactionSearchHit;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Full-text and trigram search. Needs PostgreSQL (tsvector, pg_trgm): set TEST_POSTGRES_URL (and
+ * TEST_POSTGRES_USER / TEST_POSTGRES_PASSWORD) to a scratch database; Flyway migrates it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class TextSearchTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username", () -> Objects.requireNonNullElse(System.getenv("TEST_POSTGRES_USER"), "postgres"));
+        registry.add("spring.datasource.password", () -> Objects.requireNonNullElse(System.getenv("TEST_POSTGRES_PASSWORD"), ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("app.ingestion.job-queue.enabled", () -> "false");
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAllById(created);
+    }
+
+    @Test
+    void matchesWordPrefixesAndMisspelledMerchants() {
+        String tag = "zq" + UUID.randomUUID().toString().substring(0, 6);
+        Transaction food = save("Swiggy", "Food", "order " + tag);
+        save("Landlord", "Rent", "monthly rent " + tag);
+
+        List<Long> byPrefix = ids(transactionService.searchText(tag.substring(0, 5) + " ord", null, 10));
+        assertEquals(List.of(food.getId()), byPrefix);
+
+        assertTrue(ids(transactionService.searchText("swigy", null, 50)).contains(food.getId()));
+    }
+
+    @Test
+    void fullTextHitsOutrankFuzzyMerchantHits() {
+        String tag = "zq" + UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        Transaction exact = save("Landlord", "Rent", "paid " + tag);
+        // One letter inserted mid-word: not a prefix match, but trigram-similar to the tag
+        Transaction fuzzy = save(tag.substring(0, 6) + "x" + tag.substring(6), "Misc", "other");
+
+        assertEquals(List.of(exact.getId(), fuzzy.getId()), ids(transactionService.searchText(tag, null, 10)));
+    }
+
+    @Test
+    void pagesByRankCursorWithoutRepeats() {
+        String tag = "zq" + UUID.randomUUID().toString().substring(0, 6);
+        for (int i = 0; i < 3; i++) {
+            save("Merchant " + i, "Misc", tag);
+        }
+
+        CursorPage<TransactionSearchHit> first = transactionService.searchText(tag, null, 2);
+        assertTrue(first.hasMore());
+        assertNotNull(first.nextCursor());
+        CursorPage<TransactionSearchHit> second = transactionService.searchText(tag, first.nextCursor(), 2);
+        assertFalse(second.hasMore());
+
+        List<Long> all = new ArrayList<>(ids(first));
+        all.addAll(ids(second));
+        assertEquals(3, all.stream().distinct().count());
+        assertThrows(BadRequestException.class, () -> transactionService.searchText("%%", null, 2));
+    }
+
+    private Transaction save(String merchant, String category, String description) {
+        Transaction t = transactionRepository.save(Transaction.builder()
+                .amount(new BigDecimal("100.00"))
+                .currency("INR")
+                .transactionType("DEBIT")
+                .transactionDate(LocalDateTime.now())
+                .merchantName(merchant)
+                .category(category)
+                .description(description)
+                .createdAt(LocalDateTime.now())
+                .build());
+        created.add(t.getId());
+        return t;
+    }
+
+    private static List<Long> ids(CursorPage<TransactionSearchHit> page) {
+        return page.items().stream().map(h -> h.transaction().id()).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.TransactionRollup;
+import com.wealthmanager.backend.model.dto.SpendBucket;
+import com.wealthmanager.backend.repository.TransactionRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionAnalyticsServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 15);
+    private static final LocalDate TO = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private TransactionAnalyticsService transactionAnalyticsService;
+    @Autowired
+    private TransactionRollupRepository transactionRollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Daily rows outside the fully covered month only: February must come from its monthly row
+        transactionRollupRepository.saveAll(List.of(
+                rollup(TransactionRollup.DAY, LocalDate.of(2025, 1, 10), "Food", "7.00"),
+                rollup(TransactionRollup.DAY, LocalDate.of(2025, 1, 20), "Food", "10.00"),
+                rollup(TransactionRollup.DAY, LocalDate.of(2025, 1, 20), "", "3.00"),
+                rollup(TransactionRollup.MONTH, LocalDate.of(2025, 1, 1), "Food", "17.00"),
+                rollup(TransactionRollup.MONTH, LocalDate.of(2025, 2, 1), "Food", "100.00"),
+                rollup(TransactionRollup.MONTH, LocalDate.of(2025, 2, 1), "Travel", "40.00"),
+                rollup(TransactionRollup.DAY, LocalDate.of(2025, 3, 5), "Travel", "5.00"),
+                rollup(TransactionRollup.DAY, LocalDate.of(2025, 3, 12), "Travel", "9.00"),
+                rollup(TransactionRollup.MONTH, LocalDate.of(2025, 3, 1), "Travel", "14.00")));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionRollupRepository.deleteAll();
+    }
+
+    @Test
+    void composesMonthsFromMonthlyAndEdgeDailyBuckets() {
+        List<SpendBucket> months = transactionAnalyticsService.getSpend(
+                TransactionRollup.CATEGORY, FROM, TO, "MONTH", "DEBIT", null);
+
+        assertEquals(List.of("2025-01-01 Food 10.00", "2025-01-01 null 3.00", "2025-02-01 Food 100.00",
+                "2025-02-01 Travel 40.00", "2025-03-01 Travel 5.00"), describe(months));
+        assertNull(months.get(1).name());
+
+        List<SpendBucket> total = transactionAnalyticsService.getSpend(
+                TransactionRollup.CATEGORY, FROM, TO, "TOTAL", null, 1);
+        assertEquals(List.of("2025-01-15 Food 110.00"), describe(total));
+
+        assertEquals(3, transactionAnalyticsService.getSpend(
+                TransactionRollup.CATEGORY, FROM, TO, "DAY", "DEBIT", null).size());
+        assertEquals(0, transactionAnalyticsService.getSpend(
+                TransactionRollup.CATEGORY, FROM, TO, "MONTH", "CREDIT", null).size());
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThrows(BadRequestException.class, () -> transactionAnalyticsService.getSpend(
+                TransactionRollup.CATEGORY, TO, FROM, "MONTH", null, null));
+        assertThrows(BadRequestException.class, () -> transactionAnalyticsService.getSpend(
+                TransactionRollup.CATEGORY, FROM, TO, "WEEK", null, null));
+    }
+
+    private static List<String> describe(List<SpendBucket> buckets) {
+        return buckets.stream()
+                .map(b -> b.period() + " " + b.name() + " " + b.totalAmount().setScale(2))
+                .toList();
+    }
+
+    private static TransactionRollup rollup(String granularity, LocalDate start, String category, String amount) {
+        return TransactionRollup.builder()
+                .granularity(granularity)
+                .bucketStart(start)
+                .dimension(TransactionRollup.CATEGORY)
+                .dimensionValue(category)
+                .transactionType("DEBIT")
+                .currency("INR")
+                .transactionCount(1L)
+                .totalAmount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.TransactionRollup;
+import com.wealthmanager.backend.model.dto.SpendBucket;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.transactions.column-store.enabled=true",
+        "app.transactions.column-store.parallel-threshold=64"
+})
+@ActiveProfiles("test")
+class TransactionColumnStoreTest {
+
+    private static final String[] MERCHANTS = {"Amazon", "Swiggy", "Uber", null};
+
+    @Autowired
+    private TransactionColumnStore columnStore;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void parallelScanMatchesStreamAggregation() {
+        List<Transaction> txns = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            txns.add(Transaction.builder()
+                    .id(10_000L + i)
+                    .amount(BigDecimal.valueOf(100 + i * 7L, 2))
+                    .currency(i % 10 == 0 ? "USD" : "INR")
+                    .transactionType(i % 3 == 0 ? "CREDIT" : "DEBIT")
+                    .transactionDate(LocalDateTime.of(2024, 1, 1, 12, 0).plusDays(i % 400))
+                    .merchantName(MERCHANTS[i % MERCHANTS.length])
+                    .category(i % 2 == 0 ? "Food" : "Travel")
+                    .build());
+        }
+        assertTrue(columnStore.isLoaded());
+        columnStore.append(txns);
+
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 11, 30);
+        Map<String, BigDecimal> expected = new TreeMap<>();
+        for (Transaction t : txns) {
+            LocalDate day = t.getTransactionDate().toLocalDate();
+            if (!day.isBefore(from) && !day.isAfter(to) && "DEBIT".equals(t.getTransactionType())) {
+                expected.merge(t.getMerchantName() + "/" + t.getCurrency(), t.getAmount(), BigDecimal::add);
+            }
+        }
+
+        Map<String, BigDecimal> actual = new TreeMap<>();
+        for (SpendBucket b : columnStore.sumBy(TransactionRollup.MERCHANT, from, to, "DEBIT")) {
+            assertEquals("DEBIT", b.transactionType());
+            actual.put(b.name() + "/" + b.currency(), b.totalAmount());
+        }
+        assertEquals(expected, actual);
+        assertEquals(1000, columnStore.stats().get("rows"));
+    }
+
+    @Test
+    void rowsCommittedElsewhereAreServedOnlyAfterCatchUp() {
+        TransactionColumnStore store = new TransactionColumnStore(transactionRepository, 64);
+        store.load();
+        // Saved without an append, as a parse on another node would be
+        Transaction refund = transactionRepository.save(Transaction.builder()
+                .amount(new BigDecimal("250.00"))
+                .transactionType("REFUND")
+                .transactionDate(LocalDateTime.of(1999, 6, 1, 10, 0))
+                .merchantName("Other Node Store")
+                .category("Shopping")
+                .build());
+        try {
+            LocalDate from = LocalDate.of(1999, 1, 1);
+            LocalDate to = LocalDate.of(1999, 12, 31);
+            assertFalse(store.sumIfCurrent(TransactionRollup.MERCHANT, from, to, "REFUND").isPresent());
+
+            assertEquals(1, store.catchUp());
+            assertEquals(0, store.catchUp());
+            store.append(List.of(refund));
+
+            Optional<List<SpendBucket>> totals = store.sumIfCurrent(TransactionRollup.MERCHANT, from, to, "REFUND");
+            assertTrue(totals.isPresent());
+            assertEquals(List.of(new SpendBucket(from, "Other Node Store", "REFUND", "INR", 1,
+                    new BigDecimal("250.00"))), totals.get());
+            assertTrue(store.sumBy(TransactionRollup.MERCHANT, from, to, "DEBIT").isEmpty());
+        } finally {
+            transactionRepository.deleteById(refund.getId());
+        }
+    }
+}
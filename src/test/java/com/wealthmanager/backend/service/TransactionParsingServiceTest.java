@@ -0,0 +1,75 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.RawIngestion;
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.repository.RawIngestionRepository;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionParsingServiceTest {
+
+    @Autowired
+    private TransactionParsingService transactionParsingService;
+    @Autowired
+    private RawIngestionRepository rawIngestionRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAll();
+        rawIngestionRepository.deleteAll();
+    }
+
+    @Test
+    void dropsResultsWhenLeaseWasTakenOver() {
+        LocalDateTime lease = LocalDateTime.of(2025, 4, 1, 10, 0);
+        RawIngestion stored = rawIngestionRepository.save(RawIngestion.builder()
+                .source("SMS")
+                .rawBody("Rs 100 debited at FASTAG TOLL")
+                .receivedAt(lease.minusMinutes(1))
+                .claimedUntil(lease)
+                .build());
+        // Our detached copy, read when the row was claimed
+        RawIngestion ours = rawIngestionRepository.findById(stored.getId()).orElseThrow();
+
+        // Lease expired while the model ran; another worker re-claimed the row
+        RawIngestion taken = rawIngestionRepository.findById(stored.getId()).orElseThrow();
+        taken.setClaimedUntil(lease.plusMinutes(15));
+        rawIngestionRepository.save(taken);
+
+        Boolean saved = transactionTemplate.execute(status -> transactionParsingService.persist(ours, List.of(
+                Transaction.builder()
+                        .rawIngestionId(ours.getId())
+                        .amount(new BigDecimal("100.00"))
+                        .currency("INR")
+                        .transactionType("DEBIT")
+                        .transactionDate(lease)
+                        .merchantName("FASTAG TOLL")
+                        .dedupeKey(DedupeIndex.toStoredKey(1L))
+                        .build())));
+
+        assertEquals(Boolean.FALSE, saved);
+        assertEquals(0, transactionRepository.count());
+        RawIngestion current = rawIngestionRepository.findById(stored.getId()).orElseThrow();
+        assertFalse(current.getProcessed());
+        assertEquals(RawIngestion.PARSE_PENDING, current.getParseStatus());
+        assertEquals(lease.plusMinutes(15), current.getClaimedUntil());
+    }
+}
@@ -0,0 +1,121 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.exception.BadRequestException;
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.dto.CursorPage;
+import com.wealthmanager.backend.model.dto.TransactionFilter;
+import com.wealthmanager.backend.model.dto.TransactionResponse;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionServiceTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAll();
+    }
+
+    @Test
+    void searchCombinesFiltersAndPagesByCursor() {
+        List<Transaction> txns = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            txns.add(Transaction.builder()
+                    .amount(BigDecimal.valueOf(100L * (i + 1), 2))
+                    .currency("INR")
+                    .transactionType(i % 2 == 0 ? "DEBIT" : "CREDIT")
+                    .category(i % 3 == 0 ? "Food" : "Shopping")
+                    .merchantName(i % 5 == 0 ? "Amazon_Pay" : "AMAZONIA Books")
+                    .transactionDate(LocalDateTime.of(2025, 4, 1, 10, 0).plusDays(i / 2))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        transactionRepository.saveAll(txns);
+        TransactionFilter filter = new TransactionFilter(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 12),
+                "DEBIT", null, "amazon", new BigDecimal("2.00"), new BigDecimal("25.00"));
+        long expected = txns.stream()
+                .filter(t -> t.getTransactionType().equals("DEBIT"))
+                .filter(t -> !t.getTransactionDate().toLocalDate().isAfter(LocalDate.of(2025, 4, 12)))
+                .filter(t -> t.getAmount().compareTo(new BigDecimal("2.00")) >= 0 && t.getAmount().compareTo(new BigDecimal("25.00")) <= 0)
+                .count();
+
+        List<TransactionResponse> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TransactionResponse> page = transactionService.searchTransactions(filter, cursor, 4);
+            assertTrue(page.items().size() <= 4);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, seen.size());
+        assertEquals(seen.size(), seen.stream().map(TransactionResponse::id).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(!seen.get(i).transactionDate().isAfter(seen.get(i - 1).transactionDate()));
+        }
+
+        TransactionFilter literal = new TransactionFilter(null, null, null, "Food", "amazon_", null, null);
+        assertTrue(transactionService.searchTransactions(literal, null, 50).items().stream()
+                .allMatch(t -> t.merchantName().equals("Amazon_Pay") && t.category().equals("Food")));
+    }
+
+    @Test
+    void searchRejectsInvertedRanges() {
+        assertThrows(BadRequestException.class, () -> transactionService.searchTransactions(
+                new TransactionFilter(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), null, null, null, null, null), null, 10));
+        assertThrows(BadRequestException.class, () -> transactionService.searchTransactions(
+                new TransactionFilter(null, null, null, null, null, BigDecimal.TEN, BigDecimal.ONE), null, 10));
+    }
+
+    @Test
+    void readPathsLeaveNoManagedEntities() {
+        List<Transaction> txns = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            txns.add(Transaction.builder()
+                    .amount(BigDecimal.TEN)
+                    .currency("INR")
+                    .transactionType("DEBIT")
+                    .merchantName("Merchant " + i)
+                    .transactionDate(LocalDateTime.of(2025, 4, 1, 10, 0).plusDays(i))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        Long id = transactionRepository.saveAll(txns).get(0).getId();
+
+        int managed = transactionTemplate.execute(status -> {
+            assertEquals(3, transactionService.getTransactionsPage(null, 3).items().size());
+            assertEquals(5, transactionService.searchTransactions(
+                    new TransactionFilter(null, null, "DEBIT", null, "merch", null, null), null, 10).items().size());
+            assertEquals("Merchant 0", transactionService.getTransactionById(id).merchantName());
+            return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+        });
+        assertEquals(0, managed);
+    }
+}
@@ -0,0 +1,80 @@
+package com.wealthmanager.backend.service;
+
+import com.wealthmanager.backend.model.Transaction;
+import com.wealthmanager.backend.model.TransactionTotals;
+import com.wealthmanager.backend.repository.TransactionRepository;
+import com.wealthmanager.backend.repository.TransactionTotalsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionTotalsServiceTest {
+
+    @Autowired
+    private TransactionTotalsService transactionTotalsService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionTotalsRepository transactionTotalsRepository;
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepository.deleteAll();
+        transactionTotalsRepository.deleteAll();
+    }
+
+    @Test
+    void reconcileCorrectsDriftAndSummaryReadsTotals() {
+        transactionRepository.saveAll(List.of(
+                txn("DEBIT", "INR", "100.00"),
+                txn("DEBIT", "INR", "50.50"),
+                txn("CREDIT", "INR", "1000.00"),
+                txn("DEBIT", "USD", "12.00")));
+        transactionTotalsRepository.save(TransactionTotals.builder()
+                .currency("INR").transactionCount(1L).debitTotal(new BigDecimal("100.00")).creditTotal(BigDecimal.ZERO).build());
+        transactionTotalsRepository.save(TransactionTotals.builder()
+                .currency("EUR").transactionCount(2L).debitTotal(BigDecimal.ONE).creditTotal(BigDecimal.ZERO).build());
+
+        Map<String, Object> corrected = transactionTotalsService.reconcile();
+
+        assertEquals(3, corrected.size());
+        Map<String, Object> summary = transactionService.getTransactionSummary();
+        assertEquals(4L, summary.get("totalCount"));
+        assertEquals(0, new BigDecimal("162.50").compareTo((BigDecimal) summary.get("totalDebit")));
+        assertEquals(0, new BigDecimal("837.50").compareTo((BigDecimal) summary.get("netAmount")));
+        assertEquals(2, ((Map<?, ?>) summary.get("byCurrency")).size());
+    }
+
+    @Test
+    void reconcileLeavesMatchingTotalsAlone() {
+        transactionRepository.save(txn("CREDIT", "INR", "10.00"));
+        transactionTotalsService.reconcile();
+
+        assertTrue(transactionTotalsService.reconcile().isEmpty());
+    }
+
+    private static Transaction txn(String type, String currency, String amount) {
+        return Transaction.builder()
+                .amount(new BigDecimal(amount))
+                .currency(currency)
+                .transactionType(type)
+                .transactionDate(LocalDateTime.of(2025, 3, 1, 10, 0))
+                .merchantName("Test Merchant")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}